@@ -57,4 +57,28 @@ public interface Agent extends Serializable {
      * @param type the type of the agent
      */
     void setType(String type);
+
+    /**
+     * Gets the code of the type of the agent, two agents have the same type if
+     * and only if they have the same code.
+     *
+     * @return the code of the type of the agent
+     * @see TypeCodes
+     */
+    default int getTypeCode() {
+        return TypeCodes.of(getType());
+    }
+
+    /**
+     * Creates a new agent, with its own id, the same type and strategy of this
+     * one and a copy of its parameters. This is meant for prototypes, and is
+     * cheaper than building an agent from scratch.
+     *
+     * @return the new agent
+     * @throws UnsupportedOperationException if the agent cannot be copied
+     * @see State#morphAgent(Pos, Agent)
+     */
+    default Agent spawn() {
+        throw new UnsupportedOperationException("Agent " + getId() + " cannot be spawned");
+    }
 }
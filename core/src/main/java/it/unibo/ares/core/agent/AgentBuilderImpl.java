@@ -3,12 +3,15 @@ package it.unibo.ares.core.agent;
 import it.unibo.ares.core.utils.parameters.Parameter;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.parameters.ParametersImpl;
+import it.unibo.ares.core.utils.parameters.SchemaParameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.lambda.SerializableBiFunction;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of the AgentBuilder interface.
@@ -35,62 +38,7 @@ class AgentBuilderImpl implements AgentBuilder {
         if (strategy == null) {
             throw new IllegalStateException("Cannot build agent without strategy or parameters");
         }
-        final String id = UUID.randomUUID().toString();
-        return new Agent() {
-
-            private String type;
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public State tick(final State state, final Pos pos) {
-                return strategy.apply(state, pos);
-            }
-
-            @Override
-            public Parameters getParameters() {
-                return parameters;
-            }
-
-            @Override
-            public <T extends Serializable> void setParameter(final String key, final T value) {
-                parameters.setParameter(key, value);
-            }
-
-            @Override
-            public String getId() {
-                return id;
-            }
-
-            @Override
-            public boolean equals(final Object obj) {
-                if (this == obj) {
-                    return true;
-                }
-                if (obj == null || getClass() != obj.getClass()) {
-                    return false;
-                }
-                final Agent agent = (Agent) obj;
-                return id.equals(agent.getId());
-            }
-
-            @Override
-            public int hashCode() {
-                final int prime = 31;
-                int result = 1;
-                result = prime * result + ((id == null) ? 0 : id.hashCode());
-                return result;
-            }
-
-            @Override
-            public String getType() {
-                return type;
-            }
-
-            @Override
-            public void setType(final String type) {
-                this.type = type;
-            }
-        };
+        return new AgentImpl(strategy, new SchemaParameters(parameters));
     }
 
     /**
@@ -122,4 +70,99 @@ class AgentBuilderImpl implements AgentBuilder {
         this.strategy = strategy;
         return this;
     }
+
+    /**
+     * An agent built by the builder, identified by a number given when it is
+     * built, unique within the process.
+     */
+    private static final class AgentImpl implements Agent {
+        private static final long serialVersionUID = 2L;
+        private static final AtomicLong IDS = new AtomicLong();
+        private final SerializableBiFunction<State, Pos, State> strategy;
+        private final Parameters parameters;
+        private final long id;
+        private transient String idString;
+        private String type;
+        private transient int typeCode = TypeCodes.NO_TYPE;
+
+        AgentImpl(final SerializableBiFunction<State, Pos, State> strategy, final Parameters parameters) {
+            this.strategy = strategy;
+            this.parameters = parameters;
+            this.id = IDS.getAndIncrement();
+        }
+
+        @Override
+        public State tick(final State state, final Pos pos) {
+            return strategy.apply(state, pos);
+        }
+
+        @Override
+        public Parameters getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public <T extends Serializable> void setParameter(final String key, final T value) {
+            parameters.setParameter(key, value);
+        }
+
+        @Override
+        public String getId() {
+            if (idString == null) {
+                idString = Long.toString(id);
+            }
+            return idString;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return id == ((AgentImpl) obj).id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public void setType(final String type) {
+            this.type = type;
+            this.typeCode = TypeCodes.of(type);
+        }
+
+        @Override
+        public int getTypeCode() {
+            return typeCode;
+        }
+
+        @Override
+        public Agent spawn() {
+            final AgentImpl agent = new AgentImpl(strategy, parameters.copy());
+            agent.type = type;
+            agent.typeCode = typeCode;
+            return agent;
+        }
+
+        /**
+         * Type codes are not saved, they depend on the JVM. Ids are, and the
+         * agents built after loading get greater ones, so they cannot be
+         * mistaken for a loaded agent.
+         */
+        private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            typeCode = TypeCodes.of(type);
+            IDS.accumulateAndGet(id + 1, Math::max);
+        }
+    }
 }
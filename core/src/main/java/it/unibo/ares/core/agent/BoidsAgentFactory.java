@@ -1,8 +1,6 @@
 package it.unibo.ares.core.agent;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -11,8 +9,11 @@ import it.unibo.ares.core.utils.directionvector.DirectionVector;
 import it.unibo.ares.core.utils.directionvector.DirectionVectorImpl;
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -24,13 +25,31 @@ public final class BoidsAgentFactory implements AgentFactory {
     private static final long serialVersionUID = 1L;
     private static final Double USERCORRECTIONWEIGHT = 0.4;
     private static final String DIRECTION = "direction";
-    private final Random r;
+    private static final ParameterSlot<DirectionVectorImpl> DIRECTION_SLOT = ParameterSlot.of(DIRECTION,
+            DirectionVectorImpl.class);
+    private static final ParameterSlot<Integer> ANGLE = ParameterSlot.of("angle", Integer.class);
+    private static final ParameterSlot<Integer> DISTANCE = ParameterSlot.of("distance", Integer.class);
+    private static final ParameterSlot<Double> COLLISION_WEIGHT = ParameterSlot.of("collisionAvoidanceWeight",
+            Double.class);
+    private static final ParameterSlot<Double> ALIGNMENT_WEIGHT = ParameterSlot.of("alignmentWeight", Double.class);
+    private static final ParameterSlot<Double> COHESION_WEIGHT = ParameterSlot.of("cohesionWeight", Double.class);
+    private static final ParameterSlot<Integer> STEP_SIZE = ParameterSlot.of("stepSize", Integer.class);
+    private final SplitMixRandom r;
 
     /**
      * Creates a new Boids agent factory.
      */
     public BoidsAgentFactory() {
-        this.r = new Random();
+        this(new SplitMixRandom());
+    }
+
+    /**
+     * Creates a new Boids agent factory drawing from the given generator.
+     *
+     * @param random the random generator of the agents
+     */
+    public BoidsAgentFactory(final SplitMixRandom random) {
+        this.r = random;
     }
 
     private Set<Pos> getAgentsCells(final State state, final Set<Pos> cells) {
@@ -56,8 +75,8 @@ public final class BoidsAgentFactory implements AgentFactory {
         int newX = 0;
         int newY = 0;
         for (final Pos p : obstacles) {
-            newX += pos.getX() - p.getX();
-            newY += pos.getY() - p.getY();
+            newX += pos.x() - p.x();
+            newY += pos.y() - p.y();
         }
         return new DirectionVectorImpl(newX, newY).getNormalized();
     }
@@ -68,11 +87,7 @@ public final class BoidsAgentFactory implements AgentFactory {
         final Set<Pos> closeCells = ComputationUtils.computeCloseCells(pos, dir, distance, angle);
         final Set<Pos> agents = getAgentsCells(s, closeCells);
         return agents.stream()
-                .map(p -> s.getAgentAt(p).get().getParameters()
-                        .getParameter(
-                                DIRECTION, DirectionVectorImpl.class)
-                        .get()
-                        .getValue())
+                .map(p -> s.getAgentAt(p).get().getParameters().get(DIRECTION_SLOT))
                 .map(DirectionVector.class::cast)
                 .reduce(DirectionVector::mean)
                 .map(d -> new DirectionVectorImpl(d.getX() / agents.size(), d.getY() / agents.size()))
@@ -87,10 +102,10 @@ public final class BoidsAgentFactory implements AgentFactory {
         final Set<Pos> agents = getAgentsCells(s, closeCells);
         final Pos center = closeCells.stream()
                 .filter(p -> s.getAgentAt(p).isPresent())
-                .reduce((a, b) -> new PosImpl(a.getX() + b.getX(), a.getY() + b.getY()))
-                .map(p -> new PosImpl(p.getX() / agents.size(), p.getY() / agents.size()))
-                .orElse(new PosImpl(pos.getX(), pos.getY()));
-        return new DirectionVectorImpl(center.getX() - pos.getX(), center.getY() - pos.getY()).getNormalized();
+                .reduce((a, b) -> new PosImpl(a.x() + b.x(), a.y() + b.y()))
+                .map(p -> new PosImpl(p.x() / agents.size(), p.y() / agents.size()))
+                .orElse(new PosImpl(pos.x(), pos.y()));
+        return new DirectionVectorImpl(center.x() - pos.x(), center.y() - pos.y()).getNormalized();
     }
 
     private DirectionVector mixer(final DirectionVector original,
@@ -126,31 +141,14 @@ public final class BoidsAgentFactory implements AgentFactory {
     private Pos mapToGrid(final Pos pos, final State state) {
         // If pos is negativa => to the other side
         // if pose over the limit => to the other side
-        return new PosImpl(transform(pos.getX(), state.getDimensions().getFirst()),
-                transform(pos.getY(), state.getDimensions().getSecond()));
-    }
-
-    private Pos getPosNear(final Pos pos, final State state, final int distance, final DirectionVector dir,
-            final int angle) {
-        if (distance > state.getDimensions().getFirst() && distance > state.getDimensions().getSecond()) {
-            return pos;
-        }
-        final Optional<Pos> newPos = ComputationUtils.computeCloseCells(pos, dir, distance, 180).stream()
-                .map(p -> mapToGrid(p, state))
-                .filter(state::isFree)
-                .findAny()
-                .map(Pos.class::cast);
-        if (newPos.isEmpty()) {
-            return getPosNear(pos, state, distance + 1, dir, angle);
-        }
-
-        return newPos.get();
+        return new PosImpl(transform(pos.x(), state.getDimensions().getFirst()),
+                transform(pos.y(), state.getDimensions().getSecond()));
     }
 
     DirectionVector steerAwayFromBorder(final Pos currentPos, final int width, final int height) {
         return new DirectionVectorImpl(
-                width / 2 - currentPos.getX(),
-                height / 2 - currentPos.getY());
+                width / 2 - currentPos.x(),
+                height / 2 - currentPos.y());
     }
 
     private State tickFunction(final State currentState, final Pos agentPosition) {
@@ -158,43 +156,28 @@ public final class BoidsAgentFactory implements AgentFactory {
             return currentState;
         }
         final Agent agent = currentState.getAgentAt(agentPosition).get();
-        if (!agent.getParameters().getParametersToset().isEmpty()) {
+        final Parameters parameters = agent.getParameters();
+        if (!parameters.areAllParametersSetted()) {
             throw new IllegalStateException("Parameters not set");
         }
 
-        final DirectionVector dir = agent.getParameters()
-                .getParameter(DIRECTION, DirectionVectorImpl.class).get().getValue();
-        final Integer angle = agent.getParameters()
-                .getParameter("angle", Integer.class).get().getValue();
-        final Integer distance = agent.getParameters()
-                .getParameter("distance", Integer.class).get().getValue();
+        final DirectionVector dir = parameters.get(DIRECTION_SLOT);
+        final int angle = parameters.getInt(ANGLE);
+        final int distance = parameters.getInt(DISTANCE);
 
         final DirectionVector newDir = mixer(
                 dir,
                 collisionAvoindance(currentState, agentPosition, dir, distance, angle),
                 directionAlignment(currentState, agentPosition, dir, distance, angle),
                 centerCohesion(currentState, agentPosition, dir, distance, angle),
-                agent.getParameters().getParameter("collisionAvoidanceWeight", Double.class)
-                        .get().getValue(),
-                agent.getParameters().getParameter("alignmentWeight", Double.class)
-                        .get().getValue(),
-                agent.getParameters().getParameter("cohesionWeight", Double.class)
-                        .get().getValue());
-
-        agent.setParameter(DIRECTION, newDir);
-        final int stepSize = agent.getParameters().getParameter("stepSize", Integer.class)
-                .get().getValue();
-        Pos newPos = ComputationUtils
-                .move(agentPosition, newDir,
-                        agent.getParameters().getParameter("stepSize", Integer.class)
-                                .get().getValue());
-        newPos = mapToGrid(newPos, currentState);
-        if (!currentState.isFree(newPos)) {
-            newPos = getPosNear(newPos, currentState, stepSize * 2, newDir, angle);
-        }
-        if (currentState.isFree(newPos)) {
-            currentState.moveAgent(agentPosition, newPos);
-        }
+                parameters.getDouble(COLLISION_WEIGHT),
+                parameters.getDouble(ALIGNMENT_WEIGHT),
+                parameters.getDouble(COHESION_WEIGHT));
+
+        parameters.set(DIRECTION_SLOT, DIRECTION_SLOT.getType().cast(newDir));
+        final int stepSize = parameters.getInt(STEP_SIZE);
+        final Pos target = mapToGrid(ComputationUtils.move(agentPosition, newDir, stepSize), currentState);
+        currentState.getNearestFreePos(target).ifPresent(p -> currentState.moveAgent(agentPosition, p));
         return currentState;
     }
 
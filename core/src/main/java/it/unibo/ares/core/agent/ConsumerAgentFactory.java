@@ -1,13 +1,13 @@
 package it.unibo.ares.core.agent;
 
-import java.util.Comparator;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
-import it.unibo.ares.core.utils.Pair;
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.Neighborhood;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -17,29 +17,36 @@ import it.unibo.ares.core.utils.state.State;
 public final class ConsumerAgentFactory implements AgentFactory {
     private static final String ERR = "No agents at that pos";
     private static final String SUGAR = "sugar";
+    private static final ParameterSlot<Integer> SUGAR_SLOT = ParameterSlot.of(SUGAR, Integer.class);
+    private static final ParameterSlot<Integer> METABOLISM_RATE = ParameterSlot.of("metabolismRate", Integer.class);
+    private static final ParameterSlot<Integer> VISION_RADIUS = ParameterSlot.of("visionRadius", Integer.class);
+    private static final ParameterSlot<Integer> MAX_SUGAR = ParameterSlot.of("maxSugar", Integer.class);
 
     private static final long serialVersionUID = 1L;
     /**
      * This class represents a factory for creating consumer agents.
      */
     public static final String CONSUMER = "C";
+    private static final int CONSUMER_CODE = TypeCodes.of(CONSUMER);
+    private static final int SUGAR_CODE = TypeCodes.of(SugarAgentFactory.SUGAR);
 
     /**
-     * Returns a set of neighboring positions within a given vision radius from a
-     * specified position.
+     * Returns how far from its cell a consumer of the given state can read or
+     * write during its tick: it looks for sugar, and counts the competitors
+     * for it, within its vision radius, and it moves or eats only towards the
+     * sugar it has found. Sugar agents only change themselves.
      *
-     * @param state        the current state of the system
-     * @param position     the position for which neighboring positions are to be
-     *                     found
-     * @param visionRadius the radius within which neighboring positions are
-     *                     considered
-     * @return a set of neighboring positions
+     * @param state the state of the simulation
+     * @return the largest vision radius of the consumers, 0 if there are none
      */
-    private Set<Pos> getNeighboringPositions(final State state, final Pos position, final int visionRadius) {
-        return state.getPosByPosAndRadius(position, visionRadius).stream()
-                .filter(p -> !p.equals(position))
-                .collect(Collectors.toSet());
-
+    public static int getInteractionRadius(final State state) {
+        final int[] radius = new int[1];
+        state.forEachAgent((p, a) -> {
+            if (a.getTypeCode() == CONSUMER_CODE) {
+                radius[0] = Math.max(radius[0], a.getParameters().getInt(VISION_RADIUS));
+            }
+        });
+        return radius[0];
     }
 
     /**
@@ -55,18 +62,19 @@ public final class ConsumerAgentFactory implements AgentFactory {
      */
     private Integer getCompetionForSugar(final State state, final Pos sugarPos, final int visionRadius,
             final int distance) {
-        final Integer relativeVisionRadius = visionRadius - distance;
-        return (int) state.getPosByPosAndRadius(sugarPos, relativeVisionRadius).stream()
-                .filter(p -> state.getAgentAt(p).isPresent())
-                .filter(p -> CONSUMER.equals(state.getAgentAt(p).get().getType()))
-                .filter(p -> getDistanceBetweeenPos(p, sugarPos) <= distance)
-                .count();
+        final int relativeVisionRadius = visionRadius - distance;
+        final int[] competitors = new int[1];
+        state.forEachNeighborAgent(sugarPos, relativeVisionRadius, Neighborhood.MOORE, (p, a) -> {
+            if (a.getTypeCode() == CONSUMER_CODE && getDistanceBetweeenPos(p, sugarPos) <= distance) {
+                competitors[0]++;
+            }
+        });
+        return competitors[0];
 
     }
 
     private Integer getDistanceBetweeenPos(final Pos p1, final Pos p2) {
-        final Pos diff = p1.diff(p2);
-        return Math.abs(diff.getX()) + Math.abs(diff.getY());
+        return Math.abs(p1.x() - p2.x()) + Math.abs(p1.y() - p2.y());
     }
 
     /**
@@ -79,16 +87,20 @@ public final class ConsumerAgentFactory implements AgentFactory {
      *         position if no valid position is found.
      */
     private Pos getNextPositionTowardsPos(final State state, final Pos currentPos, final Pos sugarPos) {
-        return getNeighboringPositions(state, currentPos, 1).stream()
-                .filter(state::isFree)
-                .sorted(Comparator.comparingDouble(pos -> getDistanceBetweeenPos(pos, sugarPos)))
-                .findFirst()
-                .orElse(currentPos);
+        final Pos[] next = new Pos[] {currentPos};
+        state.forEachNeighbor(currentPos, 1, Neighborhood.MOORE, p -> {
+            if (state.isFree(p) && (next[0] == currentPos
+                    || getDistanceBetweeenPos(p, sugarPos) < getDistanceBetweeenPos(next[0], sugarPos))) {
+                next[0] = p;
+            }
+        });
+        return next[0];
     }
 
     /**
-     * Retrieves a set of sugar positions within a given vision radius from a
-     * specified position.
+     * Finds the most convenient sugar agent within a given vision radius from a
+     * specified position, that is the one with the most sugar per competing
+     * consumer; sugar agents without competitors come first.
      * Only sugar agents that can be reached within a maximum number of steps are
      * considered.
      *
@@ -98,46 +110,42 @@ public final class ConsumerAgentFactory implements AgentFactory {
      *                     sugar agents
      * @param maxSteps     the maximum number of steps allowed to reach a sugar
      *                     agent
-     * @return a set of pairs containing the sugar positions and their corresponding
-     *         competition values
+     * @return the position of the chosen sugar agent, if any
      */
-    private Set<Pair<Pos, Integer>> getSugarPositions(final State state, final Pos position,
+    private Optional<Pos> findBestSugar(final State state, final Pos position,
             final int visionRadius, final long maxSteps) {
-        return state.getPosByPosAndRadius(position, visionRadius).stream()
-                .filter(p -> state.getAgentAt(p).isPresent())
-                .filter(p -> SugarAgentFactory.SUGAR.equals(state.getAgentAt(p).get().getType()))
-                .filter(p -> getDistanceBetweeenPos(p, position) <= maxSteps) // If I can't reach it in
-                                                                              // time, don't
-                                                                              // consider it
-                .map(s -> new Pair<>(s,
-                        getCompetionForSugar(state, s,
-                                visionRadius,
-                                getDistanceBetweeenPos(s, position))))
-                .collect(Collectors.toSet());
+        final Pos[] best = new Pos[1];
+        final double[] bestScore = new double[1];
+        state.forEachNeighborAgent(position, visionRadius, Neighborhood.MOORE, (p, a) -> {
+            final int distance = getDistanceBetweeenPos(p, position);
+            // If I can't reach it in time, don't consider it
+            if (a.getTypeCode() == SUGAR_CODE && distance <= maxSteps) {
+                final int competition = getCompetionForSugar(state, p, visionRadius, distance);
+                final double score = competition == 0 ? Double.NEGATIVE_INFINITY
+                        : -(a.getParameters().getInt(SugarAgentFactory.SUGAR_AMOUNT) / competition);
+                if (best[0] == null || score < bestScore[0]) {
+                    best[0] = p;
+                    bestScore[0] = score;
+                }
+            }
+        });
+        return Optional.ofNullable(best[0]);
     }
 
     private void consumeSugar(final State state, final Pos pos, final Pos sugarPos,
             final int maxSugar) {
-        final int sugarAmount = state.getAgentAt(sugarPos)
+        final Parameters source = state.getAgentAt(sugarPos)
                 .orElseThrow(() -> new IllegalStateException(ERR))
-                .getParameters()
-                .getParameter("sugarAmount", Integer.class)
-                .orElseThrow(() -> new IllegalArgumentException("Agent has no sugarAmount parameter"))
-                .getValue();
-
-        final int sugar = state.getAgentAt(pos)
+                .getParameters();
+        final Parameters consumer = state.getAgentAt(pos)
                 .orElseThrow(() -> new IllegalStateException(ERR))
-                .getParameters()
-                .getParameter(SUGAR, Integer.class)
-                .orElseThrow(() -> new IllegalArgumentException("Agent has no sugar parameter"))
-                .getValue();
+                .getParameters();
+        final int sugarAmount = source.getInt(SugarAgentFactory.SUGAR_AMOUNT);
+        final int sugar = consumer.getInt(SUGAR_SLOT);
 
         final int maxSugarIntake = Math.min(maxSugar - sugar, sugarAmount);
-        state.getAgentAt(pos)
-                .ifPresent(agent -> agent.getParameters().setParameter(SUGAR, sugar + maxSugarIntake));
-
-        state.getAgentAt(sugarPos)
-                .ifPresent(agent -> agent.getParameters().setParameter("sugarAmount", sugarAmount - maxSugarIntake));
+        consumer.setInt(SUGAR_SLOT, sugar + maxSugarIntake);
+        source.setInt(SugarAgentFactory.SUGAR_AMOUNT, sugarAmount - maxSugarIntake);
     }
 
     private Agent createConsumerAgent() {
@@ -161,61 +169,23 @@ public final class ConsumerAgentFactory implements AgentFactory {
 
         builder.addStrategy((state, pos) -> {
 
-            final int metabolismRate = state.getAgentAt(pos)
-                    .orElseThrow(() -> new IllegalStateException(ERR))
-                    .getParameters()
-                    .getParameter("metabolismRate", Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Agent has no metabolismRate parameter"))
-                    .getValue();
-
-            final int sugar = state.getAgentAt(pos)
+            final Parameters parameters = state.getAgentAt(pos)
                     .orElseThrow(() -> new IllegalStateException(ERR))
-                    .getParameters()
-                    .getParameter(SUGAR, Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException("Agent has no sugar parameter"))
-                    .getValue();
+                    .getParameters();
+            final int metabolismRate = parameters.getInt(METABOLISM_RATE);
+            final int sugar = parameters.getInt(SUGAR_SLOT);
 
             if (sugar < metabolismRate) {
                 state.removeAgent(pos, state.getAgentAt(pos).get());
                 return state;
             }
 
-            final int visionRadius = state.getAgentAt(pos)
-                    .orElseThrow(() -> new IllegalStateException(ERR))
-                    .getParameters()
-                    .getParameter("visionRadius", Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Agent has no visionRadius parameter"))
-                    .getValue();
+            final int visionRadius = parameters.getInt(VISION_RADIUS);
+            final int maxSugar = parameters.getInt(MAX_SUGAR);
 
-            final int maxSugar = state.getAgentAt(pos)
-                    .orElseThrow(() -> new IllegalStateException(ERR))
-                    .getParameters()
-                    .getParameter("maxSugar", Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException("Agent has no sugar parameter"))
-                    .getValue();
-
-            state.getAgentAt(pos)
-                    .ifPresent(agent -> agent.getParameters().setParameter(SUGAR,
-                            sugar - metabolismRate));
-
-            getSugarPositions(state, pos, visionRadius,
-                    sugar / metabolismRate)
-                    .stream()
-                    .sorted(Comparator.comparingDouble(pp -> {
-                        if (pp.getSecond() == 0) {
-                            return Double.NEGATIVE_INFINITY;
-                        }
-                        return -(state.getAgentAt(pp.getFirst()).get()
-                                .getParameters()
-                                .getParameter("sugarAmount", Integer.class)
-                                .orElseThrow(() -> new IllegalArgumentException(
-                                        "Agent has no sugarAmount parameter"))
-                                .getValue() / pp.getSecond());
-                    }))
-                    .map(Pair::getFirst)
-                    .findFirst()
+            parameters.setInt(SUGAR_SLOT, sugar - metabolismRate);
+
+            findBestSugar(state, pos, visionRadius, sugar / metabolismRate)
                     .ifPresent(sugarPos -> {
                         if (getDistanceBetweeenPos(sugarPos, pos) == 1) {
                             consumeSugar(state, pos, sugarPos, maxSugar);
@@ -1,6 +1,5 @@
 package it.unibo.ares.core.agent;
 
-import java.util.Random;
 import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
@@ -11,8 +10,11 @@ import it.unibo.ares.core.utils.directionvector.DirectionVector;
 import it.unibo.ares.core.utils.directionvector.DirectionVectorImpl;
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -30,23 +32,39 @@ public final class FireAgentFactory implements AgentFactory {
     private static final String FUEL = "fuel";
     private static final String CONS = "consumption";
     private static final String SPREAD = "spread";
+    private static final ParameterSlot<Double> FUEL_SLOT = ParameterSlot.of(FUEL, Double.class);
+    private static final ParameterSlot<Double> CONS_SLOT = ParameterSlot.of(CONS, Double.class);
+    private static final ParameterSlot<Integer> SPREAD_SLOT = ParameterSlot.of(SPREAD, Integer.class);
+    private static final ParameterSlot<Double> FLAMM_SLOT = ParameterSlot.of("flammability", Double.class);
     private DirectionVector windDirection;
     private Double windChange;
-    private final Random r;
+    private final SplitMixRandom r;
     private final ExtingueshedAgentFactory eaf;
+    /**
+     * The agents that trees and fires are replaced with are spawned from
+     * these, built once.
+     */
+    private Agent firePrototype;
+    private Agent extinguishedPrototype;
 
     private static BiPredicate<Agent, Agent> agentOfDiffType = (a, b) -> {
-        final String typeA = a.getType();
-        final String typeB = b.getType();
-
-        return !typeA.equals(typeB);
+        return a.getTypeCode() != b.getTypeCode();
     };
 
     /**
      * Constructor for the FireAgentFactory.
      */
     public FireAgentFactory() {
-        this.r = new Random();
+        this(new SplitMixRandom());
+    }
+
+    /**
+     * Constructor for the FireAgentFactory drawing from the given generator.
+     *
+     * @param random the random generator of the fire and the wind
+     */
+    public FireAgentFactory(final SplitMixRandom random) {
+        this.r = random;
         this.windChange = 0.0;
         this.windDirection = getRandomDirection();
         this.eaf = new ExtingueshedAgentFactory();
@@ -71,10 +89,7 @@ public final class FireAgentFactory implements AgentFactory {
      */
     private static boolean isExtinguished(final Agent agent) {
         // Verify if at current position the Tree Agent can sustain the Fire Agent.
-        return agent.getParameters().getParameter(FUEL, Double.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + agent + " has no fuel parameter"))
-                .getValue() <= 0;
+        return agent.getParameters().getDouble(FUEL_SLOT) <= 0;
     }
 
     /**
@@ -83,26 +98,15 @@ public final class FireAgentFactory implements AgentFactory {
      * @param agent current fire agent.
      */
     private void consumeFuel(final Agent agent) {
-        final Double fuel = agent.getParameters()
-                .getParameter(FUEL, Double.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + agent + " has no fuel parameter"))
-                .getValue();
+        final Parameters parameters = agent.getParameters();
+        final double fuel = parameters.getDouble(FUEL_SLOT);
+        final double cons = parameters.getDouble(CONS_SLOT);
 
-        final Double cons = agent.getParameters()
-                .getParameter("consumption", Double.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + agent + " has no consumption parameter"))
-                .getValue();
-
-        agent.setParameter(FUEL, fuel - cons <= 0.0 ? 0.0 : fuel - cons);
+        parameters.setDouble(FUEL_SLOT, fuel - cons <= 0.0 ? 0.0 : fuel - cons);
     }
 
     private void changeWindDirection(final State state) {
-        final Integer nf = state.getAgents().stream()
-                .filter(a -> "F".equals(a.getSecond().getType()))
-                .collect(Collectors.toList())
-                .size();
+        final Integer nf = state.countByType("F");
 
         if (r.nextDouble(0.0, 0.5) < windChange / nf) {
             this.windDirection = getRandomDirection();
@@ -122,37 +126,18 @@ public final class FireAgentFactory implements AgentFactory {
     private void spreadFire(final State state, final Pos pos, final Agent fireAgent) {
         final Agent treeAgent = state.getAgentAt(pos).get(); // tree agent to be replaced
 
-        final Double flammability = treeAgent.getParameters()
-                .getParameter("flammability", Double.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + treeAgent + " has no flammability parameter"))
-                .getValue();
-
-        final Double newFuel = treeAgent.getParameters()
-                .getParameter(FUEL, Double.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + treeAgent + " has no fuel parameter"))
-                .getValue();
-
-        final Integer spread = fireAgent.getParameters()
-                .getParameter("spread", Integer.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + fireAgent + " has no spread parameter"))
-                .getValue();
+        final double flammability = treeAgent.getParameters().getDouble(FLAMM_SLOT);
+        final double newFuel = treeAgent.getParameters().getDouble(FUEL_SLOT);
+        final int spread = fireAgent.getParameters().getInt(SPREAD_SLOT);
+        final double cons = fireAgent.getParameters().getDouble(CONS_SLOT);
 
-        final Double cons = fireAgent.getParameters()
-                .getParameter("consumption", Double.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + fireAgent + " has no consumption parameter"))
-                .getValue();
-
-        final Double newCons = flammability == 0.0 ? 0.0 : flammability + (cons * CONSFACTOR);
+        final double newCons = flammability == 0.0 ? 0.0 : flammability + (cons * CONSFACTOR);
 
         /* Starts a new fire */
-        final Agent newAgent = getFireAgent(createAgent(), spread, newFuel, newCons);
-
-        state.removeAgent(pos, treeAgent);
-        state.addAgent(pos, newAgent);
+        if (firePrototype == null) {
+            firePrototype = createAgent();
+        }
+        getFireAgent(state.morphAgent(pos, firePrototype), spread, newFuel, newCons);
     }
 
     /**
@@ -167,11 +152,7 @@ public final class FireAgentFactory implements AgentFactory {
     private Set<Pos> getSpreadPositionIfAvailable(final State state, final Pos pos, final Agent agent) {
         final DirectionVector dir = this.windDirection;
 
-        final Integer spread = agent.getParameters()
-                .getParameter("spread", Integer.class)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Agent " + agent + " has no spread parameter"))
-                .getValue();
+        final int spread = agent.getParameters().getInt(SPREAD_SLOT);
 
         return IntStream.range(0, state.getDimensions().getFirst())
                 .boxed()
@@ -199,9 +180,10 @@ public final class FireAgentFactory implements AgentFactory {
         consumeFuel(agent);
 
         if (isExtinguished(agent)) {
-            final Agent exAgent = eaf.createAgent();
-            currentState.removeAgent(agentPosition, agent);
-            currentState.addAgent(agentPosition, exAgent);
+            if (extinguishedPrototype == null) {
+                extinguishedPrototype = eaf.createAgent();
+            }
+            currentState.morphAgent(agentPosition, extinguishedPrototype);
         } else {
             final Set<Pos> spreadPos = getSpreadPositionIfAvailable(currentState, agentPosition, agent);
             spreadPos.forEach(newPos -> spreadFire(currentState, newPos, agent));
@@ -219,11 +201,12 @@ public final class FireAgentFactory implements AgentFactory {
      * 
      * @return An instance of the Fire Agent.
      */
-    private Agent getFireAgent(final Agent fireAgent, final Integer spread, final Double fuel,
-            final Double cons) {
-        fireAgent.setParameter(FUEL, fuel);
-        fireAgent.setParameter(SPREAD, spread);
-        fireAgent.setParameter(CONS, cons);
+    private Agent getFireAgent(final Agent fireAgent, final int spread, final double fuel,
+            final double cons) {
+        final Parameters parameters = fireAgent.getParameters();
+        parameters.setDouble(FUEL_SLOT, fuel);
+        parameters.setInt(SPREAD_SLOT, spread);
+        parameters.setDouble(CONS_SLOT, cons);
         return fireAgent;
     }
 
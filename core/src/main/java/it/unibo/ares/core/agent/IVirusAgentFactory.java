@@ -1,7 +1,6 @@
 package it.unibo.ares.core.agent;
 
 import java.util.Optional;
-import java.util.Random;
 
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.model.VirusModelFactory;
@@ -10,6 +9,7 @@ import it.unibo.ares.core.utils.directionvector.DirectionVector;
 import it.unibo.ares.core.utils.directionvector.DirectionVectorImpl;
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -18,13 +18,24 @@ import it.unibo.ares.core.utils.state.State;
 public final class IVirusAgentFactory implements AgentFactory {
 
     private static final long serialVersionUID = 1L;
-    private final Random r;
+    private static final int INFECTED_CODE = TypeCodes.of("I");
+    private final SplitMixRandom r;
+    private Agent healthy;
 
     /**
      * Constructor for the IVirusAgentFactory.
      */
     public IVirusAgentFactory() {
-        r = new Random();
+        this(new SplitMixRandom());
+    }
+
+    /**
+     * Constructor for the IVirusAgentFactory drawing from the given generator.
+     *
+     * @param random the random generator of the agents
+     */
+    public IVirusAgentFactory(final SplitMixRandom random) {
+        r = random;
     }
 
     /**
@@ -50,13 +61,12 @@ public final class IVirusAgentFactory implements AgentFactory {
 
         // se l'agente è infetto, controllo se guarisce, in caso negativo continuo con
         // lo spostamento
-        if ("I".equals(agent.getType())) {
-            final Optional<Agent> newAgent = recoveryInfected(agent);
-            if (newAgent.isPresent()) {
-                // se guarisce, rimuovo l'agente infetto e aggiungo un agente sano
+        if (agent.getTypeCode() == INFECTED_CODE) {
+            final Optional<Agent> recovered = recoveryInfected(agent);
+            if (recovered.isPresent()) {
+                // se guarisce, sostituisco l'agente infetto con un agente sano
                 // e ritorno lo stato aggiornato
-                currentState.removeAgent(agentPosition, agent);
-                currentState.addAgent(agentPosition, newAgent.get());
+                currentState.morphAgent(agentPosition, recovered.get());
                 return currentState;
             }
         }
@@ -89,28 +99,32 @@ public final class IVirusAgentFactory implements AgentFactory {
      * This method is used to recover an infected agent. It uses the recovery rate
      * parameter
      * from the agent's parameters. If a random number is less than the recovery
-     * rate, the agent
-     * is recovered and substituted with a P agent. The agent parameters are also
-     * updated with the default parameters of a healthy person.
+     * rate, the agent is recovered and must be replaced by an agent spawned from the
+     * prototype.
      *
      * @param agent The agent to be recovered
-     * @return An Optional containing the recovered agent if recovery was
-     *         successful, otherwise an empty Optional
+     * @return An Optional containing the prototype of the person agents if
+     *         recovery was successful, otherwise an empty Optional
      */
     private Optional<Agent> recoveryInfected(final Agent agent) {
         final int recoveryRate = agent.getParameters().getParameter("recoveryRate", Integer.class)
                 .get().getValue();
-        if (r.nextInt(100) < recoveryRate) {
-            final int stepSizeP = VirusModelFactory.STEP_SIZEP;
-            final int infectionRate = VirusModelFactory.INFECTION_RATE;
-            // create a new agent with the parameters of the person agents
-            final PVirusAgentFactory factory = new PVirusAgentFactory();
-            final Agent a = factory.createAgent();
-            a.setParameter("stepSize", stepSizeP);
-            a.setParameter("infectionRate", infectionRate);
-            return Optional.of(a);
+        return r.nextInt(100) < recoveryRate ? Optional.of(healthyPrototype()) : Optional.empty();
+    }
+
+    /**
+     * The agent that recovered people are spawned from, it has the parameters
+     * of the person agents.
+     *
+     * @return the prototype of the person agents
+     */
+    private Agent healthyPrototype() {
+        if (healthy == null) {
+            healthy = new PVirusAgentFactory(r.split()).createAgent();
+            healthy.setParameter("stepSize", VirusModelFactory.STEP_SIZEP);
+            healthy.setParameter("infectionRate", VirusModelFactory.INFECTION_RATE);
         }
-        return Optional.empty();
+        return healthy;
     }
 
     /**
@@ -1,7 +1,6 @@
 package it.unibo.ares.core.agent;
 
 import java.util.Optional;
-import java.util.Random;
 import java.util.function.BiPredicate;
 
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
@@ -11,6 +10,7 @@ import it.unibo.ares.core.utils.directionvector.DirectionVector;
 import it.unibo.ares.core.utils.directionvector.DirectionVectorImpl;
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -19,21 +19,29 @@ import it.unibo.ares.core.utils.state.State;
 public final class PVirusAgentFactory implements AgentFactory {
 
     private static final long serialVersionUID = 1L;
-    private final Random r;
+    private final SplitMixRandom r;
+    private Agent infected;
     /*
      * A predicate to check if two agents are of the same type.
      */
     private static BiPredicate<Agent, Agent> checkAgentSameType = (a, b) -> {
-        final String typeA = a.getType();
-        final String typeB = b.getType();
-        return typeA.equals(typeB);
+        return a.getTypeCode() == b.getTypeCode();
     };
 
     /**
      * Constructor for the PVirusAgentFactory.
      */
     public PVirusAgentFactory() {
-        r = new Random();
+        this(new SplitMixRandom());
+    }
+
+    /**
+     * Constructor for the PVirusAgentFactory drawing from the given generator.
+     *
+     * @param random the random generator of the agents
+     */
+    public PVirusAgentFactory(final SplitMixRandom random) {
+        r = random;
     }
 
     /**
@@ -72,10 +80,9 @@ public final class PVirusAgentFactory implements AgentFactory {
                     currentState.getAgentAt(agentPosition).get())) {
                 // l'agente in agentPos è sano, l'agente in newPos è infetto
                 // probabile infezione dell'agente in agentPos
-                final Optional<Agent> newAgent = infectPerson(agent);
-                if (newAgent.isPresent()) {
-                    currentState.removeAgent(agentPosition, agent);
-                    currentState.addAgent(agentPosition, newAgent.get());
+                final Optional<Agent> infection = infectPerson(agent);
+                if (infection.isPresent()) {
+                    currentState.morphAgent(agentPosition, infection.get());
                     return currentState;
                 }
             }
@@ -96,28 +103,32 @@ public final class PVirusAgentFactory implements AgentFactory {
     /**
      * This method is used to infect a person. It uses the infection rate parameter
      * from the agent's parameters. If a random number is less than the infection
-     * rate, the agent
-     * is infected and substituted with a I agent. The agent parameters are also
-     * updated with the default parameters of the infected agents.
+     * rate, the agent is infected and must be replaced by an agent spawned from the
+     * prototype.
      *
      * @param agent The agent to be infected
-     * @return An Optional containing the infected agent if infection was
-     *         successful, otherwise an empty Optional
+     * @return An Optional containing the prototype of the infected agents if
+     *         infection was successful, otherwise an empty Optional
      */
     private Optional<Agent> infectPerson(final Agent agent) {
         final int infectionRate = agent.getParameters().getParameter("infectionRate", Integer.class)
                 .get().getValue();
-        if (r.nextInt(100) < infectionRate) {
-            // create a new agent with the defaul parameters of the infected agents
-            final int stepSizeI = VirusModelFactory.STEP_SIZEI;
-            final int recoveryRate = VirusModelFactory.RECOVERY_RATE;
-            final IVirusAgentFactory factory = new IVirusAgentFactory();
-            final Agent a = factory.createAgent();
-            a.setParameter("stepSize", stepSizeI);
-            a.setParameter("recoveryRate", recoveryRate);
-            return Optional.of(a);
+        return r.nextInt(100) < infectionRate ? Optional.of(infectedPrototype()) : Optional.empty();
+    }
+
+    /**
+     * The agent that infected people are spawned from, it has the default
+     * parameters of the infected agents.
+     *
+     * @return the prototype of the infected agents
+     */
+    private Agent infectedPrototype() {
+        if (infected == null) {
+            infected = new IVirusAgentFactory(r.split()).createAgent();
+            infected.setParameter("stepSize", VirusModelFactory.STEP_SIZEI);
+            infected.setParameter("recoveryRate", VirusModelFactory.RECOVERY_RATE);
         }
-        return Optional.empty();
+        return infected;
     }
 
     /**
@@ -1,13 +1,11 @@
 package it.unibo.ares.core.agent;
 
-import java.util.Comparator;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.Neighborhood;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -21,28 +19,14 @@ public final class PredatorAgentFactory implements AgentFactory {
      * This class represents a Predator Agent Factory.
      */
     public static final String PREDATOR = "H";
+    private static final int PREY_CODE = TypeCodes.of(PreyAgentFactory.PREY);
 
     // Parameter keys and descriptions
     private static final String VISION_RADIUS_PREDATOR = "visionRadiusPredator";
     private static final String VISION_RADIUS_DESCRIPTION = "Raggio di visione dell'agente predatore (0 - n)";
 
-    /**
-     * Retrieves neighboring positions within a given radius.
-     *
-     * @param state        the current state
-     * @param position     the position to find neighbors for
-     * @param visionRadius the radius to search within
-     * @return a set of neighboring positions
-     */
-    private Set<Pos> getNeighboringPositions(final State state, final Pos position, final int visionRadius) {
-        return state.getPosByPosAndRadius(position, visionRadius).stream()
-                .filter(p -> !p.equals(position))
-                .collect(Collectors.toSet());
-    }
-
     private Integer getDistanceBetweeenPos(final Pos p1, final Pos p2) {
-        final Pos diff = p1.diff(p2);
-        return Math.abs(diff.getX()) + Math.abs(diff.getY());
+        return Math.abs(p1.x() - p2.x()) + Math.abs(p1.y() - p2.y());
     }
 
     /**
@@ -54,11 +38,14 @@ public final class PredatorAgentFactory implements AgentFactory {
      * @return an optional position of the prey if found
      */
     private Optional<Pos> findPrey(final State state, final Pos position, final int visionRadius) {
-        return getNeighboringPositions(state, position, visionRadius).stream()
-                .filter(p -> state.getAgentAt(p).isPresent())
-                .filter(p -> PreyAgentFactory.PREY.equals(state.getAgentAt(p).get().getType()))
-                .sorted(Comparator.comparingDouble(pos -> getDistanceBetweeenPos(pos, position)))
-                .findFirst();
+        final Pos[] nearest = new Pos[1];
+        state.forEachNeighborAgent(position, visionRadius, Neighborhood.MOORE, (p, a) -> {
+            if (a.getTypeCode() == PREY_CODE && (nearest[0] == null
+                    || getDistanceBetweeenPos(p, position) < getDistanceBetweeenPos(nearest[0], position))) {
+                nearest[0] = p;
+            }
+        });
+        return Optional.ofNullable(nearest[0]);
     }
 
     /**
@@ -71,11 +58,15 @@ public final class PredatorAgentFactory implements AgentFactory {
      * @return the next position towards the prey
      */
     private Pos getNextPositionTowardsPrey(final State state, final Pos currentPos, final Pos preyPos) {
-        return getNeighboringPositions(state, currentPos, 1).stream()
-                .filter(state::isFree)
-                .sorted(Comparator.comparingDouble(pos -> getDistanceBetweeenPos(pos, preyPos)))
-                .findFirst()
-                .orElse(currentPos); // If no free position is found, stay in the current position
+        // If no free position is found, stay in the current position
+        final Pos[] next = new Pos[] {currentPos};
+        state.forEachNeighbor(currentPos, 1, Neighborhood.MOORE, p -> {
+            if (state.isFree(p) && (next[0] == currentPos
+                    || getDistanceBetweeenPos(p, preyPos) < getDistanceBetweeenPos(next[0], preyPos))) {
+                next[0] = p;
+            }
+        });
+        return next[0];
     }
 
     /**
@@ -100,7 +91,8 @@ public final class PredatorAgentFactory implements AgentFactory {
                     .getValue();
 
             findPrey(state, pos, visionRadius).ifPresentOrElse(preyPosition -> {
-                if (state.getPosByPosAndRadius(preyPosition, 1).contains(pos)) {
+                if (Math.abs(preyPosition.x() - pos.x()) <= 1
+                        && Math.abs(preyPosition.y() - pos.y()) <= 1) {
                     state.removeAgent(preyPosition, state.getAgentAt(preyPosition).get());
                     state.moveAgent(pos, preyPosition);
                     return;
@@ -108,9 +100,7 @@ public final class PredatorAgentFactory implements AgentFactory {
                 state.moveAgent(pos, getNextPositionTowardsPrey(state, pos, preyPosition));
 
             }, () -> {
-                final Pos newPos = getNeighboringPositions(state, pos, 1).stream()
-                        .filter(state::isFree)
-                        .findFirst()
+                final Pos newPos = state.findNeighbor(pos, 1, Neighborhood.MOORE, state::isFree)
                         .orElse(pos); // If no free positions are found, stay in place
                 state.moveAgent(pos, newPos);
             });
@@ -1,12 +1,10 @@
 package it.unibo.ares.core.agent;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.state.Neighborhood;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -20,44 +18,28 @@ public final class PreyAgentFactory implements AgentFactory {
      * This class represents a Prey Agent Factory.
      */
     public static final String PREY = "P";
+    private static final int PREDATOR_CODE = TypeCodes.of(PredatorAgentFactory.PREDATOR);
 
     // Parameter keys and descriptions
     private static final String VISION_RADIUS_PREY = "visionRadiusPrey";
     private static final String VISION_RADIUS_DESCRIPTION = "Raggio di visione dell'agente preda (0 - n)";
 
-    /**
-     * Retrieves neighboring positions within a given radius.
-     *
-     * @param state        the current state
-     * @param position     the position to find neighbors for
-     * @param visionRadius the radius to search within
-     * @return a set of neighboring positions
-     */
-    private Set<Pos> getNeighboringPositions(final State state, final Pos position, final int visionRadius) {
-        return state.getPosByPosAndRadius(position, visionRadius).stream()
-                .filter(p -> !p.equals(position))
-                .collect(Collectors.toSet());
-    }
-
     /**
      * Determines the best escape route for the prey based on predator positions.
      *
-     * @param state     the current state
-     * @param position  the position of the prey
-     * @param predators the positions of nearby predators
+     * @param state    the current state
+     * @param position the position of the prey
+     * @param avgPos   the average position of nearby predators
      * @return the position to which the prey should move
      */
-    private Pos findEscapeRoute(final State state, final Pos position, final Set<Pos> predators) {
-        final double avgX = predators.stream().mapToInt(Pos::getX).average().orElse(position.getX());
-        final double avgY = predators.stream().mapToInt(Pos::getY).average().orElse(position.getY());
-        final Pos avgPos = new PosImpl(avgX, avgY);
+    private Pos findEscapeRoute(final State state, final Pos position, final Pos avgPos) {
         final Pos diff = position.diff(avgPos);
 
-        final int moveX = (int) Math.signum(diff.getX());
-        final int moveY = (int) Math.signum(diff.getY());
+        final int moveX = (int) Math.signum(diff.x());
+        final int moveY = (int) Math.signum(diff.y());
 
-        int newX = position.getX() + moveX;
-        int newY = position.getY() + moveY;
+        int newX = position.x() + moveX;
+        int newY = position.y() + moveY;
 
         // Keep new position within bounds
         newX = Math.max(0, Math.min(newX, state.getDimensions().getFirst() - 1));
@@ -68,9 +50,7 @@ public final class PreyAgentFactory implements AgentFactory {
             return pos;
         }
 
-        return getNeighboringPositions(state, pos, 1).stream()
-                .filter(state::isFree)
-                .findFirst()
+        return state.findNeighbor(pos, 1, Neighborhood.MOORE, state::isFree)
                 .orElse(position); // If no free positions are found, stay in place
 
     }
@@ -96,18 +76,23 @@ public final class PreyAgentFactory implements AgentFactory {
                     .orElseThrow(() -> new IllegalArgumentException("Agent has no visionRadiusPrey parameter"))
                     .getValue();
 
-            final Set<Pos> predatorPositions = getNeighboringPositions(state, pos, visionRadius).stream()
-                    .filter(state::isOccupied)
-                    .filter(p -> PredatorAgentFactory.PREDATOR.equals(state.getAgentAt(p).get().getType()))
-                    .collect(Collectors.toSet());
-
-            if (!predatorPositions.isEmpty()) {
-                final Pos escapeRoute = findEscapeRoute(state, pos, predatorPositions);
+            // number of predators in sight and the sums of their coordinates
+            final long[] predators = new long[3];
+            state.forEachNeighborAgent(pos, visionRadius, Neighborhood.MOORE, (p, a) -> {
+                if (a.getTypeCode() == PREDATOR_CODE) {
+                    predators[0]++;
+                    predators[1] += p.x();
+                    predators[2] += p.y();
+                }
+            });
+
+            if (predators[0] > 0) {
+                final Pos avgPos = new PosImpl((double) predators[1] / predators[0],
+                        (double) predators[2] / predators[0]);
+                final Pos escapeRoute = findEscapeRoute(state, pos, avgPos);
                 state.moveAgent(pos, escapeRoute);
             } else {
-                final Pos newPos = getNeighboringPositions(state, pos, 1).stream()
-                        .filter(state::isFree)
-                        .findFirst()
+                final Pos newPos = state.findNeighbor(pos, 1, Neighborhood.MOORE, state::isFree)
                         .orElse(pos); // If no free positions are found, stay in place
                 state.moveAgent(pos, newPos);
             }
@@ -1,15 +1,14 @@
 package it.unibo.ares.core.agent;
 
-import java.util.Random;
-import java.util.Set;
 import java.util.function.BiPredicate;
-import java.util.stream.Collectors;
 
 import it.unibo.ares.core.utils.Pair;
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
 import it.unibo.ares.core.utils.pos.Pos;
-import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
+import it.unibo.ares.core.utils.state.Neighborhood;
 import it.unibo.ares.core.utils.state.State;
 
 /**
@@ -24,64 +23,65 @@ public final class SchellingsAgentFactory implements AgentFactory {
      * Key to access to the agent ratio.
      */
     public static final String CURRENT_RATIO = "ratio";
+    private static final ParameterSlot<Integer> VISIONRADIUS_SLOT = ParameterSlot.of(VISIONRADIUS, Integer.class);
+    private static final ParameterSlot<Double> THRESHOLD_SLOT = ParameterSlot.of(THRESHOLD, Double.class);
+    private static final ParameterSlot<Double> CURRENT_RATIO_SLOT = ParameterSlot.of(CURRENT_RATIO, Double.class);
     private static BiPredicate<Agent, Agent> agentOfSameType = (a, b) -> {
-        final String typeA = a.getType();
-
-        final String typeB = b.getType();
-        return typeA.equals(typeB);
+        return a.getTypeCode() == b.getTypeCode();
     };
 
-    private static final Random R;
+    private final SplitMixRandom r;
 
-    static {
-        R = new Random();
+    /**
+     * Creates a factory of Schelling agents.
+     */
+    public SchellingsAgentFactory() {
+        this(new SplitMixRandom());
     }
 
-    private static Set<Agent> getNeighborgs(final State state, final Integer visionRadius, final Pos pos,
-            final Agent agent) {
-        return state.getAgentsByPosAndRadius(pos, visionRadius)
-                .stream()
-                .filter(a -> !a.equals(agent))
-                .collect(Collectors.toSet());
-
+    /**
+     * Creates a factory of Schelling agents drawing from the given generator.
+     * Every agent gets its own stream, split from the generator, so agents
+     * can decide at the same time.
+     *
+     * @param random the random generator of the agents
+     */
+    public SchellingsAgentFactory(final SplitMixRandom random) {
+        this.r = random;
     }
 
-    private static double getRatio(final Set<Agent> neighBors, final Agent agent) {
-        return neighBors.stream().filter(a -> agentOfSameType.test(a, agent))
-                .count()
-                / (double) neighBors.size();
-
+    /**
+     * Counts the neighbors of an agent and how many of them share its type.
+     *
+     * @return the number of neighbors and the number of those of the same type
+     */
+    private static int[] countNeighbors(final State state, final Integer visionRadius, final Pos pos,
+            final Agent agent) {
+        final int[] counts = new int[2];
+        state.forEachNeighborAgent(pos, visionRadius, Neighborhood.MOORE, (p, a) -> {
+            if (!a.equals(agent)) {
+                counts[0]++;
+                if (agentOfSameType.test(a, agent)) {
+                    counts[1]++;
+                }
+            }
+        });
+        return counts;
     }
 
     private static Pair<Boolean, Double> thresholdSatisfied(final State state, final Pos pos, final Agent agent) {
-        final int visionRadius = agent.getParameters().getParameter(
-                VISIONRADIUS, Integer.class)
-                .orElseThrow(() -> new IllegalArgumentException("Agent " + agent + " has no visionRadius parameter"))
-                .getValue();
-        final double threshold = agent.getParameters().getParameter(
-                THRESHOLD, Double.class)
-                .orElseThrow(() -> new IllegalArgumentException("Agent " + agent + " has no threshold parameter"))
-                .getValue();
+        final int visionRadius = agent.getParameters().getInt(VISIONRADIUS_SLOT);
+        final double threshold = agent.getParameters().getDouble(THRESHOLD_SLOT);
 
-        final Set<Agent> neighbors = getNeighborgs(state, visionRadius, pos, agent);
-        final double ratio = getRatio(neighbors, agent);
+        final int[] counts = countNeighbors(state, visionRadius, pos, agent);
+        final double ratio = counts[1] / (double) counts[0];
 
-        final boolean isThresholdSatisfied = neighbors.isEmpty() || ratio >= threshold;
-        final double actualRatio = neighbors.isEmpty() ? 0d : ratio;
+        final boolean isThresholdSatisfied = counts[0] == 0 || ratio >= threshold;
+        final double actualRatio = counts[0] == 0 ? 0d : ratio;
 
         return new Pair<>(isThresholdSatisfied, actualRatio);
     }
 
-    private static PosImpl getNewRandomPosition(final State state) {
-        PosImpl newPos = new PosImpl(R.nextInt(state.getDimensions().getFirst()),
-                R.nextInt(state.getDimensions().getSecond()));
-        while (!state.isFree(newPos)) {
-            newPos = new PosImpl(R.nextInt(state.getDimensions().getFirst()),
-                    R.nextInt(state.getDimensions().getSecond()));
-        }
-        return newPos;
-    }
-
     /**
      * Creates a new agent for the Schelling Segregation Model.
      * 
@@ -93,6 +93,7 @@ public final class SchellingsAgentFactory implements AgentFactory {
     public Agent getSchellingSegregationModelAgent(final String type, final Double threshold,
             final Integer visionRadius) {
         final AgentBuilder b = new AgentBuilderImpl();
+        final SplitMixRandom random = r.split();
 
         b.addParameter(new ParameterImpl<>(THRESHOLD, threshold, true));
         b.addParameter(new ParameterImpl<>(VISIONRADIUS, visionRadius, true));
@@ -100,7 +101,7 @@ public final class SchellingsAgentFactory implements AgentFactory {
             final Agent agent = state.getAgentAt(pos).get();
             final Pair<Boolean, Double> ret = thresholdSatisfied(state, pos, agent);
             if (Boolean.FALSE.equals(ret.getFirst())) {
-                state.moveAgent(pos, getNewRandomPosition(state));
+                state.getRandomFreePos(random).ifPresent(p -> state.moveAgent(pos, p));
             }
             return state;
         });
@@ -112,6 +113,7 @@ public final class SchellingsAgentFactory implements AgentFactory {
 
     @Override
     public Agent createAgent() {
+        final SplitMixRandom random = r.split();
         return new AgentBuilderImpl()
 
                 .addParameter(new ParameterImpl<>(THRESHOLD, Double.class, new ParameterDomainImpl<>(
@@ -122,9 +124,9 @@ public final class SchellingsAgentFactory implements AgentFactory {
                 .addStrategy((state, pos) -> {
                     final Agent agent = state.getAgentAt(pos).get();
                     final Pair<Boolean, Double> ret = thresholdSatisfied(state, pos, agent);
-                    agent.getParameters().setParameter(CURRENT_RATIO, ret.getSecond());
+                    agent.getParameters().setDouble(CURRENT_RATIO_SLOT, ret.getSecond());
                     if (Boolean.FALSE.equals(ret.getFirst())) {
-                        state.moveAgent(pos, getNewRandomPosition(state));
+                        state.getRandomFreePos(random).ifPresent(p -> state.moveAgent(pos, p));
                     }
                     return state;
                 })
@@ -19,8 +19,8 @@ public final class SimpleAgentFactory implements AgentFactory {
     public Agent createAgent() {
         final AgentBuilder builder = new AgentBuilderImpl();
         builder.addStrategy((state, pos) -> {
-            final Pos newPos = new PosImpl((pos.getX() + 1)
-                    % state.getDimensions().getFirst(), (pos.getY() + 1) % state.getDimensions().getSecond());
+            final Pos newPos = new PosImpl((pos.x() + 1)
+                    % state.getDimensions().getFirst(), (pos.y() + 1) % state.getDimensions().getSecond());
             state.moveAgent(pos, newPos);
             return state;
         });
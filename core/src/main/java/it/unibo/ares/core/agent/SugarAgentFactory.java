@@ -2,6 +2,10 @@ package it.unibo.ares.core.agent;
 
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.State;
 
 /**
  * Represents a factory for creating Sugar agents.
@@ -15,6 +19,28 @@ public final class SugarAgentFactory implements AgentFactory {
      * SugarAgents.
      */
     public static final String SUGAR = "S";
+    /**
+     * The sugar currently held by a Sugar agent.
+     */
+    static final ParameterSlot<Integer> SUGAR_AMOUNT = ParameterSlot.of("sugarAmount", Integer.class);
+    private static final ParameterSlot<Integer> GROWTH_RATE = ParameterSlot.of("growthRate", Integer.class);
+    private static final ParameterSlot<Integer> MAX_SUGAR = ParameterSlot.of("maxSugar", Integer.class);
+
+    /**
+     * Tells whether the sugar agent at a position is full: growing changes
+     * nothing until a consumer, which eats only from the cells next to it,
+     * takes some of its sugar.
+     *
+     * @param state the state of the simulation
+     * @param pos   the position of the sugar agent
+     * @return true if the agent holds as much sugar as it can
+     */
+    public static boolean isSaturated(final State state, final Pos pos) {
+        final Parameters parameters = state.getAgentAt(pos)
+                .orElseThrow(() -> new IllegalStateException("No agents at that pos"))
+                .getParameters();
+        return parameters.getInt(SUGAR_AMOUNT) >= parameters.getInt(MAX_SUGAR);
+    }
 
     private Agent createSugarAgent() {
         final AgentBuilder builder = new AgentBuilderImpl();
@@ -33,34 +59,13 @@ public final class SugarAgentFactory implements AgentFactory {
                 true));
 
         builder.addStrategy((state, pos) -> {
-            final int sugarAmount = state.getAgentAt(pos)
-                    .orElseThrow(() -> new IllegalStateException("No agents at that pos"))
-                    .getParameters()
-                    .getParameter("sugarAmount", Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Agent has no sugarAmount parameter"))
-                    .getValue();
-
-            final int growthRate = state.getAgentAt(pos)
-                    .orElseThrow(() -> new IllegalStateException("No agents at that pos"))
-                    .getParameters()
-                    .getParameter("growthRate", Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Agent has no growthRate parameter"))
-                    .getValue();
-
-            final int maxSuger = state.getAgentAt(pos)
+            final Parameters parameters = state.getAgentAt(pos)
                     .orElseThrow(() -> new IllegalStateException("No agents at that pos"))
-                    .getParameters()
-                    .getParameter("maxSugar", Integer.class)
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Agent has no growthRate parameter"))
-                    .getValue();
+                    .getParameters();
 
             // Grow sugar
-            state.getAgentAt(pos)
-                    .ifPresent(agent -> agent.getParameters().setParameter("sugarAmount",
-                            Math.min(sugarAmount + growthRate, maxSuger)));
+            parameters.setInt(SUGAR_AMOUNT, Math.min(parameters.getInt(SUGAR_AMOUNT) + parameters.getInt(GROWTH_RATE),
+                    parameters.getInt(MAX_SUGAR)));
 
             return state;
         });
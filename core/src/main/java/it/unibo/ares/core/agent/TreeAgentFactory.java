@@ -2,6 +2,7 @@ package it.unibo.ares.core.agent;
 
 import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
 
 /**
  * A factory class for creating Tree agents.
@@ -11,6 +12,7 @@ public class TreeAgentFactory implements AgentFactory {
         private static final long serialVersionUID = 1L;
         private static final String FUEL = "fuel";
         private static final String FLAMM = "flammability";
+        private static final ParameterSlot<Double> FLAMM_SLOT = ParameterSlot.of(FLAMM, Double.class);
 
         /**
          * Verify if a Tree agent can be burnt.
@@ -19,13 +21,7 @@ public class TreeAgentFactory implements AgentFactory {
          * @return True if flammable, false either way.
          */
         public static Boolean isFlammable(final Agent a) {
-                final Double flammable = a.getParameters()
-                                .getParameter(FLAMM, Double.class)
-                                .orElseThrow(() -> new IllegalArgumentException(
-                                                "Agent " + a + " has no flammable parameter"))
-                                .getValue();
-
-                return flammable > 0;
+                return a.getParameters().getDouble(FLAMM_SLOT) > 0;
         }
 
         /**
@@ -0,0 +1,65 @@
+package it.unibo.ares.core.agent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The registry of the types of the agents, mapping every type name to a small
+ * integer code so that types can be compared with {@code ==} and shipped as
+ * arrays of integers. Codes are assigned in order of first use, starting from
+ * 0, and are valid only inside the running JVM.
+ */
+public final class TypeCodes {
+    /**
+     * The code of agents without a type.
+     */
+    public static final int NO_TYPE = -1;
+    private static final Map<String, Integer> CODES = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = new CopyOnWriteArrayList<>();
+
+    private TypeCodes() {
+    }
+
+    /**
+     * Returns the code of a type, assigning a new one the first time the type
+     * is seen.
+     *
+     * @param type the name of the type, may be null
+     * @return the code of the type, {@link #NO_TYPE} if the type is null
+     */
+    public static int of(final String type) {
+        if (type == null) {
+            return NO_TYPE;
+        }
+        final Integer code = CODES.get(type);
+        return code == null ? register(type) : code;
+    }
+
+    private static synchronized int register(final String type) {
+        return CODES.computeIfAbsent(type, t -> {
+            NAMES.add(t);
+            return NAMES.size() - 1;
+        });
+    }
+
+    /**
+     * @param code the code of a type
+     * @return the name of the type
+     * @throws IllegalArgumentException if the code has not been assigned
+     */
+    public static String nameOf(final int code) {
+        if (code < 0 || code >= NAMES.size()) {
+            throw new IllegalArgumentException("Unknown type code " + code);
+        }
+        return NAMES.get(code);
+    }
+
+    /**
+     * @return the names of the types, indexed by their code
+     */
+    public static String[] names() {
+        return NAMES.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,114 @@
+package it.unibo.ares.core.agent.columnar;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.State;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A view of an agent of a {@link Population} as an {@link Agent}. The view
+ * holds only the population and the id of the agent; the agent is ticked by
+ * the strategy of its population and cannot change type.
+ */
+final class ColumnarAgent implements Agent {
+    private static final long serialVersionUID = 1L;
+    private final Population population;
+    private final long id;
+
+    ColumnarAgent(final Population population, final long id) {
+        this.population = population;
+        this.id = id;
+    }
+
+    private int row() {
+        final int row = population.rowOf(id);
+        if (row < 0) {
+            throw new IllegalStateException("Agent " + getId() + " has been removed");
+        }
+        return row;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public State tick(final State state, final Pos pos) {
+        throw new UnsupportedOperationException("Columnar agents are ticked by their population");
+    }
+
+    /**
+     * Returns a copy of the parameters of the agent, changes must be made
+     * through {@link #setParameter(String, Serializable)}.
+     *
+     * @return the parameters of the agent
+     */
+    @Override
+    public Parameters getParameters() {
+        return population.snapshot(row());
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void setParameter(final String key, final T value) {
+        population.setParameter(row(), key, value);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public String getId() {
+        return population.getType() + ":" + id;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public String getType() {
+        return population.getType();
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTypeCode() {
+        return population.getCode();
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void setType(final String type) {
+        throw new UnsupportedOperationException("Columnar agents cannot change type");
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ColumnarAgent other = (ColumnarAgent) obj;
+        return population == other.population && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(population.getType(), id);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarAgent [" + getId() + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package it.unibo.ares.core.agent.columnar;
+
+import java.io.Serializable;
+
+/**
+ * The behaviour of all the agents of a {@link Population}, run once per tick
+ * as a loop over the rows of the population instead of once per agent.
+ */
+@FunctionalInterface
+public interface ColumnarStrategy extends Serializable {
+
+    /**
+     * Performs a tick of every agent of the population.
+     * Agents removed during the tick are replaced by the last row of the
+     * population, so loops that remove agents should visit the rows from the
+     * last one.
+     *
+     * @param world      the world holding the population
+     * @param population the agents to tick
+     */
+    void tick(ColumnarWorld world, Population population);
+}
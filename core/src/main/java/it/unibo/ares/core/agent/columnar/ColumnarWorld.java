@@ -0,0 +1,310 @@
+package it.unibo.ares.core.agent.columnar;
+
+import it.unibo.ares.core.agent.TypeCodes;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.ColumnarState;
+import it.unibo.ares.core.utils.state.State;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
+
+/**
+ * A grid whose agents are stored by column, one {@link Population} per type,
+ * as an alternative to {@link State} for models
+ * with millions of agents. Besides the columns of the populations, the world
+ * keeps a single integer per cell with the type code and the row of its
+ * agent, so an agent costs a few primitive values instead of an object graph.
+ * Ticking the world runs the strategy of every population, in the order the
+ * populations were added, on the live world.
+ * A model runs on a world through {@link #asState()}, see
+ * {@link it.unibo.ares.core.model.ModelBuilder#addColumnarInitFunction}.
+ */
+public final class ColumnarWorld implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * The bits of the occupant of a cell holding the code of its type, the
+     * others hold its row.
+     */
+    private static final int TYPE_BITS = 6;
+    private static final int MAX_TYPES = 1 << TYPE_BITS;
+    private static final int TYPE_MASK = MAX_TYPES - 1;
+    private static final int FREE = -1;
+    private final int width;
+    private final int height;
+    private final int[] occupants;
+    private final List<Population> populations = new ArrayList<>();
+    private final Map<String, Population> byType = new HashMap<>();
+    private final State view;
+    private int freeCount;
+    /**
+     * The agents added, removed or moved since the last tick started.
+     */
+    private int changes;
+
+    /**
+     * Creates an empty world.
+     *
+     * @param width  the width of the grid
+     * @param height the height of the grid
+     * @throws IllegalArgumentException if the dimensions are not positive
+     */
+    public ColumnarWorld(final int width, final int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.occupants = new int[Math.multiplyExact(width, height)];
+        Arrays.fill(occupants, FREE);
+        this.freeCount = occupants.length;
+        this.view = new ColumnarState(this);
+    }
+
+    /**
+     * Finds the world a state is a view of.
+     *
+     * @param state a state
+     * @return the world, empty if the state is not the view of a world
+     */
+    public static Optional<ColumnarWorld> of(final State state) {
+        return state instanceof ColumnarState
+                ? Optional.of(((ColumnarState) state).getWorld())
+                : Optional.empty();
+    }
+
+    /**
+     * Returns the world as a {@link State}, for the simulation to show and
+     * for code that works with single agents. The state is the world itself,
+     * not a copy: it changes when the world ticks, and it cannot be copied.
+     *
+     * @return the view of the world
+     */
+    public State asState() {
+        return view;
+    }
+
+    /**
+     * Adds the population of a type.
+     *
+     * @param type     the type of the agents
+     * @param template the parameters every new agent starts with
+     * @param strategy the behaviour of the agents
+     * @return the empty population
+     * @throws IllegalArgumentException if the type already has a population or
+     *                                  there are too many types
+     */
+    public Population addPopulation(final String type, final Parameters template, final ColumnarStrategy strategy) {
+        if (byType.containsKey(type)) {
+            throw new IllegalArgumentException("Population " + type + " already exists");
+        }
+        if (populations.size() == MAX_TYPES) {
+            throw new IllegalArgumentException("A world cannot hold more than " + MAX_TYPES + " types");
+        }
+        final Population population = new Population(this, type, populations.size(), template, strategy);
+        populations.add(population);
+        byType.put(type, population);
+        return population;
+    }
+
+    /**
+     * @param type the type of the agents
+     * @return the population of the type, if any
+     */
+    public Optional<Population> getPopulation(final String type) {
+        return Optional.ofNullable(byType.get(type));
+    }
+
+    /**
+     * @return the populations, in the order they are ticked
+     */
+    public List<Population> getPopulations() {
+        return Collections.unmodifiableList(populations);
+    }
+
+    /**
+     * @return the width of the grid
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the grid
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true if the cell is inside the grid
+     */
+    public boolean isInside(final int x, final int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true if the cell is inside the grid and has no agent
+     */
+    public boolean isFree(final int x, final int y) {
+        return isInside(x, y) && occupants[y * width + x] == FREE;
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the population of the agent in the cell, if any
+     */
+    public Optional<Population> getOccupant(final int x, final int y) {
+        if (!isInside(x, y) || occupants[y * width + x] == FREE) {
+            return Optional.empty();
+        }
+        return Optional.of(populations.get(occupants[y * width + x] & TYPE_MASK));
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the code of the type of the agent in the cell, as given by
+     *         {@link TypeCodes}, or {@link TypeCodes#NO_TYPE} if the cell is
+     *         free or outside the grid
+     */
+    public int getOccupantCode(final int x, final int y) {
+        return isInside(x, y) && occupants[y * width + x] != FREE
+                ? populations.get(occupants[y * width + x] & TYPE_MASK).getCode()
+                : TypeCodes.NO_TYPE;
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the row of the agent in the cell within its population, -1 if
+     *         the cell is free or outside the grid
+     */
+    public int getOccupantRow(final int x, final int y) {
+        return isInside(x, y) && occupants[y * width + x] != FREE
+                ? occupants[y * width + x] >>> TYPE_BITS
+                : -1;
+    }
+
+    /**
+     * @return the number of agents of every population
+     */
+    public int agentCount() {
+        return populations.stream().mapToInt(Population::size).sum();
+    }
+
+    /**
+     * @return the number of free cells
+     */
+    public int freeCount() {
+        return freeCount;
+    }
+
+    /**
+     * Draws a free cell, every free cell having the same probability.
+     *
+     * @param random the source of randomness
+     * @return the index {@code y * width + x} of the cell, -1 if there are no
+     *         free cells
+     */
+    public int randomFreeCell(final RandomGenerator random) {
+        if (freeCount == 0) {
+            return -1;
+        }
+        int cell;
+        do {
+            cell = random.nextInt(occupants.length);
+        } while (occupants[cell] != FREE);
+        return cell;
+    }
+
+    /**
+     * @return how many agents were added, removed or moved during the last
+     *         tick, so far if it is in progress
+     */
+    public int changesInLastTick() {
+        return changes;
+    }
+
+    /**
+     * Performs a tick of every population.
+     */
+    public void tick() {
+        changes = 0;
+        for (int i = 0; i < populations.size(); i++) {
+            final Population population = populations.get(i);
+            population.getStrategy().tick(this, population);
+        }
+    }
+
+    /**
+     * @return the positions of all the agents, packed by
+     *         {@link Pos#pack(int, int)}, population after population
+     */
+    public long[] getPositionKeys() {
+        final long[] keys = new long[agentCount()];
+        int next = 0;
+        for (final Population population : populations) {
+            for (int row = 0; row < population.size(); row++) {
+                keys[next++] = Pos.pack(population.getX(row), population.getY(row));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return the code of the type of all the agents, as given by
+     *         {@link TypeCodes}, in the order of {@link #getPositionKeys()}
+     */
+    public int[] getTypeCodes() {
+        final int[] codes = new int[agentCount()];
+        int next = 0;
+        for (final Population population : populations) {
+            Arrays.fill(codes, next, next + population.size(), population.getCode());
+            next += population.size();
+        }
+        return codes;
+    }
+
+    /**
+     * @return the index of a free cell
+     * @throws IllegalArgumentException if the cell is outside the grid or
+     *                                  occupied
+     */
+    int freeCell(final int x, final int y) {
+        if (!isFree(x, y)) {
+            throw new IllegalArgumentException("Cell " + x + ", " + y + " is outside the world or occupied");
+        }
+        return y * width + x;
+    }
+
+    void occupy(final int cell, final int index, final int row) {
+        if (occupants[cell] == FREE) {
+            freeCount--;
+        }
+        occupants[cell] = row << TYPE_BITS | index;
+    }
+
+    void release(final int cell) {
+        if (occupants[cell] != FREE) {
+            freeCount++;
+        }
+        occupants[cell] = FREE;
+    }
+
+    void changed() {
+        changes++;
+    }
+}
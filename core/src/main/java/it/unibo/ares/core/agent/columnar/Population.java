@@ -0,0 +1,456 @@
+package it.unibo.ares.core.agent.columnar;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.TypeCodes;
+import it.unibo.ares.core.utils.parameters.Parameter;
+import it.unibo.ares.core.utils.parameters.ParameterSchema;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.parameters.SchemaParameters;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The agents of a type stored by column: the cell of every agent and the
+ * value of every integer, double and other parameter are kept in one array
+ * each, indexed by the row of the agent. Rows are dense, removing an agent
+ * moves the last row in its place; every agent also has an id that does not
+ * change while it is alive. An id is made of a slot, recycled once its agent
+ * is removed so that the slots never outnumber the largest population, and
+ * of the generation of the slot, so that ids of removed agents stay invalid.
+ * The parameters of the agents share the schema of the template they were
+ * created from, and new agents start with the values of the template.
+ */
+@SuppressFBWarnings(value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2" },
+        justification = "Columns are exposed on purpose, to be read and written in tight loops")
+public final class Population implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+    private final ColumnarWorld world;
+    private final String type;
+    private final int code;
+    /**
+     * The position of the population in the world, which the cells of the
+     * world store instead of the code of the type.
+     */
+    private final int index;
+    private final ParameterSchema schema;
+    private final SchemaParameters template;
+    private final ColumnarStrategy strategy;
+    private final int[] intDefaults;
+    private final double[] doubleDefaults;
+    private final Serializable[] objectDefaults;
+    private int size;
+    private int[] cells;
+    /**
+     * The slot of the agent at every row.
+     */
+    private int[] slots;
+    /**
+     * The row of the agent holding every slot, -1 if the slot is free.
+     */
+    private int[] rows;
+    /**
+     * How many agents have held every slot before the current one.
+     */
+    private int[] generations;
+    /**
+     * The slots released by removed agents, to be taken before new ones.
+     */
+    private int[] freeSlots;
+    private int freeCount;
+    private int nextSlot;
+    private final int[][] ints;
+    private final double[][] doubles;
+    private final Serializable[][] objects;
+
+    Population(final ColumnarWorld world, final String type, final int index, final Parameters template,
+            final ColumnarStrategy strategy) {
+        this.world = world;
+        this.type = type;
+        this.code = TypeCodes.of(type);
+        this.index = index;
+        this.template = new SchemaParameters(template);
+        this.schema = this.template.getSchema();
+        this.strategy = strategy;
+        this.intDefaults = new int[schema.getIntSlots()];
+        this.doubleDefaults = new double[schema.getDoubleSlots()];
+        this.objectDefaults = new Serializable[schema.getObjectSlots()];
+        schema.getParameters().forEach(this::readDefault);
+        this.cells = new int[INITIAL_CAPACITY];
+        this.slots = new int[INITIAL_CAPACITY];
+        this.rows = new int[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.ints = new int[intDefaults.length][INITIAL_CAPACITY];
+        this.doubles = new double[doubleDefaults.length][INITIAL_CAPACITY];
+        this.objects = new Serializable[objectDefaults.length][INITIAL_CAPACITY];
+    }
+
+    private <T extends Serializable> void readDefault(final Parameter<T> parameter) {
+        final ParameterSlot<T> slot = ParameterSlot.of(parameter.getKey(), parameter.getType());
+        final int column = schema.columnOf(slot);
+        template.getParameter(parameter.getKey()).flatMap(Parameter::getOptionalValue).ifPresent(v -> {
+            if (v instanceof Integer) {
+                intDefaults[column] = (Integer) v;
+            } else if (v instanceof Double) {
+                doubleDefaults[column] = (Double) v;
+            } else {
+                objectDefaults[column] = v;
+            }
+        });
+    }
+
+    /**
+     * @return the type of the agents
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the code of the type of the agents, as given by
+     *         {@link TypeCodes}
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the schema of the parameters of the agents
+     */
+    public ParameterSchema getSchema() {
+        return schema;
+    }
+
+    ColumnarStrategy getStrategy() {
+        return strategy;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the number of agents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an agent in a free cell of the world.
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the row of the new agent
+     * @throws IllegalArgumentException if the cell is outside the world or
+     *                                  occupied
+     */
+    public int add(final int x, final int y) {
+        final int cell = world.freeCell(x, y);
+        if (size == cells.length) {
+            grow();
+        }
+        final int row = size++;
+        final int slot = takeSlot();
+        cells[row] = cell;
+        slots[row] = slot;
+        rows[slot] = row;
+        for (int c = 0; c < ints.length; c++) {
+            ints[c][row] = intDefaults[c];
+        }
+        for (int c = 0; c < doubles.length; c++) {
+            doubles[c][row] = doubleDefaults[c];
+        }
+        for (int c = 0; c < objects.length; c++) {
+            objects[c][row] = objectDefaults[c];
+        }
+        world.occupy(cell, index, row);
+        world.changed();
+        return row;
+    }
+
+    private int takeSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            generations = Arrays.copyOf(generations, generations.length * 2);
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        return nextSlot++;
+    }
+
+    private void grow() {
+        final int capacity = cells.length * 2;
+        cells = Arrays.copyOf(cells, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        for (int c = 0; c < ints.length; c++) {
+            ints[c] = Arrays.copyOf(ints[c], capacity);
+        }
+        for (int c = 0; c < doubles.length; c++) {
+            doubles[c] = Arrays.copyOf(doubles[c], capacity);
+        }
+        for (int c = 0; c < objects.length; c++) {
+            objects[c] = Arrays.copyOf(objects[c], capacity);
+        }
+    }
+
+    /**
+     * Removes an agent, the last row takes its place.
+     *
+     * @param row the row of the agent
+     */
+    public void remove(final int row) {
+        checkRow(row);
+        world.release(cells[row]);
+        world.changed();
+        final int slot = slots[row];
+        rows[slot] = -1;
+        generations[slot]++;
+        freeSlots[freeCount++] = slot;
+        final int last = --size;
+        if (row != last) {
+            cells[row] = cells[last];
+            slots[row] = slots[last];
+            rows[slots[row]] = row;
+            for (final int[] column : ints) {
+                column[row] = column[last];
+            }
+            for (final double[] column : doubles) {
+                column[row] = column[last];
+            }
+            for (final Serializable[] column : objects) {
+                column[row] = column[last];
+            }
+            world.occupy(cells[row], index, row);
+        }
+        for (final Serializable[] column : objects) {
+            column[last] = null;
+        }
+    }
+
+    /**
+     * Moves an agent to a free cell of the world.
+     *
+     * @param row the row of the agent
+     * @param x   the x coordinate of the destination
+     * @param y   the y coordinate of the destination
+     * @throws IllegalArgumentException if the destination is outside the world
+     *                                  or occupied
+     */
+    public void move(final int row, final int x, final int y) {
+        checkRow(row);
+        final int cell = world.freeCell(x, y);
+        world.release(cells[row]);
+        cells[row] = cell;
+        world.occupy(cell, index, row);
+        world.changed();
+    }
+
+    private void checkRow(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IllegalArgumentException("Row " + row + " does not exist in population " + type);
+        }
+    }
+
+    /**
+     * @param row the row of the agent
+     * @return the x coordinate of the agent
+     */
+    public int getX(final int row) {
+        return cells[row] % world.getWidth();
+    }
+
+    /**
+     * @param row the row of the agent
+     * @return the y coordinate of the agent
+     */
+    public int getY(final int row) {
+        return cells[row] / world.getWidth();
+    }
+
+    /**
+     * @param row the row of the agent
+     * @return the id of the agent, the generation of its slot in the high 32
+     *         bits and the slot in the low 32 bits
+     */
+    public long getId(final int row) {
+        final int slot = slots[row];
+        return (long) generations[slot] << Integer.SIZE | slot;
+    }
+
+    /**
+     * @param id the id of an agent
+     * @return the row of the agent, -1 if it has been removed
+     */
+    public int rowOf(final long id) {
+        final int slot = (int) id;
+        return slot >= 0 && slot < nextSlot && generations[slot] == (int) (id >>> Integer.SIZE)
+                ? rows[slot]
+                : -1;
+    }
+
+    /**
+     * @return the number of slots ever allocated for ids, at most the largest
+     *         size the population has reached
+     */
+    int slotCount() {
+        return nextSlot;
+    }
+
+    /**
+     * Returns the column of an integer parameter, holding the value of the
+     * agent at every row. The column is replaced when the population grows,
+     * so it must not be kept across additions.
+     *
+     * @param slot the parameter
+     * @return the values of the parameter
+     * @throws IllegalArgumentException if the agents have no such parameter
+     */
+    public int[] intColumn(final ParameterSlot<Integer> slot) {
+        return ints[schema.columnOf(slot)];
+    }
+
+    /**
+     * Returns the column of a double parameter, holding the value of the
+     * agent at every row. The column is replaced when the population grows,
+     * so it must not be kept across additions.
+     *
+     * @param slot the parameter
+     * @return the values of the parameter
+     * @throws IllegalArgumentException if the agents have no such parameter
+     */
+    public double[] doubleColumn(final ParameterSlot<Double> slot) {
+        return doubles[schema.columnOf(slot)];
+    }
+
+    /**
+     * @param slot the parameter
+     * @param row  the row of the agent
+     * @return the value of the parameter for the agent
+     */
+    public int getInt(final ParameterSlot<Integer> slot, final int row) {
+        return intColumn(slot)[row];
+    }
+
+    /**
+     * @param slot  the parameter
+     * @param row   the row of the agent
+     * @param value the new value of the parameter for the agent
+     */
+    public void setInt(final ParameterSlot<Integer> slot, final int row, final int value) {
+        intColumn(slot)[row] = value;
+    }
+
+    /**
+     * @param slot the parameter
+     * @param row  the row of the agent
+     * @return the value of the parameter for the agent
+     */
+    public double getDouble(final ParameterSlot<Double> slot, final int row) {
+        return doubleColumn(slot)[row];
+    }
+
+    /**
+     * @param slot  the parameter
+     * @param row   the row of the agent
+     * @param value the new value of the parameter for the agent
+     */
+    public void setDouble(final ParameterSlot<Double> slot, final int row, final double value) {
+        doubleColumn(slot)[row] = value;
+    }
+
+    /**
+     * @param <T>  the type of the parameter
+     * @param slot the parameter
+     * @param row  the row of the agent
+     * @return the value of the parameter for the agent, null if not set
+     */
+    public <T extends Serializable> T get(final ParameterSlot<T> slot, final int row) {
+        return slot.getType().cast(objects[schema.columnOf(slot)][row]);
+    }
+
+    /**
+     * @param <T>   the type of the parameter
+     * @param slot  the parameter
+     * @param row   the row of the agent
+     * @param value the new value of the parameter for the agent
+     */
+    public <T extends Serializable> void set(final ParameterSlot<T> slot, final int row, final T value) {
+        objects[schema.columnOf(slot)][row] = slot.getType().cast(value);
+    }
+
+    /**
+     * Returns a view of an agent as an {@link Agent}, for code that works
+     * with single agents. The view follows the agent when its row changes.
+     *
+     * @param row the row of the agent
+     * @return the view of the agent
+     */
+    public Agent getAgent(final int row) {
+        checkRow(row);
+        return new ColumnarAgent(this, getId(row));
+    }
+
+    /**
+     * Copies the values of the parameters of an agent in a new collection.
+     *
+     * @param row the row of the agent
+     * @return the parameters of the agent
+     */
+    Parameters snapshot(final int row) {
+        final Parameters parameters = template.copy();
+        schema.getParameters().forEach(p -> write(parameters, p, row));
+        return parameters;
+    }
+
+    private <T extends Serializable> void write(final Parameters parameters, final Parameter<T> parameter,
+            final int row) {
+        final ParameterSlot<T> slot = ParameterSlot.of(parameter.getKey(), parameter.getType());
+        final int column = schema.columnOf(slot);
+        final Serializable value;
+        if (Integer.class.equals(parameter.getType())) {
+            value = ints[column][row];
+        } else if (Double.class.equals(parameter.getType())) {
+            value = doubles[column][row];
+        } else {
+            value = objects[column][row];
+        }
+        if (value != null) {
+            parameters.set(slot, parameter.getType().cast(value));
+        }
+    }
+
+    /**
+     * Sets a parameter of an agent by key, checking its domain.
+     *
+     * @param row   the row of the agent
+     * @param key   the key of the parameter
+     * @param value the value of the parameter
+     */
+    <T extends Serializable> void setParameter(final int row, final String key, final T value) {
+        final Parameter<?> parameter = schema.getParameters().stream()
+                .filter(p -> p.getKey().equals(key) && p.getType().equals(value.getClass()))
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Parameter " + key + " does not exist or not of type " + value.getClass().getName()));
+        @SuppressWarnings("unchecked")
+        final Parameter<T> typed = (Parameter<T>) parameter;
+        if (typed.getDomain().isPresent() && !typed.getDomain().get().isValueValid(value)) {
+            throw new IllegalArgumentException("Value is not inside the domain: " + key);
+        }
+        final int column = schema.columnOf(ParameterSlot.of(key, value.getClass()));
+        if (value instanceof Integer) {
+            ints[column][row] = (Integer) value;
+        } else if (value instanceof Double) {
+            doubles[column][row] = (Double) value;
+        } else {
+            objects[column][row] = value;
+        }
+    }
+}
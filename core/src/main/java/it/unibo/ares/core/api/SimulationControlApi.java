@@ -51,6 +51,42 @@ public interface SimulationControlApi {
      */
     void setTickRate(String id, Integer tickRate);
 
+    /**
+     * set whether the simulation runs freely: it ticks as fast as possible
+     * on a thread of its own, and its subscriber receives the latest state at
+     * most once per tick rate.
+     *
+     * @param id          the id of the simulation
+     * @param freeRunning true to run freely, false to tick at the tick rate
+     */
+    void setFreeRunning(String id, boolean freeRunning);
+
+    /**
+     * get whether the simulation runs freely.
+     *
+     * @param id the id of the simulation
+     * @return true if the simulation runs freely
+     */
+    boolean isFreeRunning(String id);
+
+    /**
+     * Advances a paused simulation as fast as possible, without waiting for
+     * its tick rate, until the given number of ticks have passed, the
+     * simulation is over or the time budget runs out. The subscriber of the
+     * simulation receives the data only every sampling interval and at the
+     * end, which is much cheaper than building it at every tick.
+     *
+     * @param id               the id of the simulation
+     * @param ticks            how many ticks to advance by
+     * @param timeBudget       the wall-clock time in ms it can take, 0 for no
+     *                         limit
+     * @param samplingInterval every how many ticks the subscriber receives the
+     *                         data, 0 to receive it only at the end
+     * @return how many ticks the simulation advanced by
+     * @throws IllegalStateException if the simulation is running
+     */
+    long advanceSimulation(String id, long ticks, long timeBudget, int samplingInterval);
+
     /**
      * Save the simulation to a file.
      * 
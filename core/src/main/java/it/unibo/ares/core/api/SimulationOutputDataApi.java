@@ -17,6 +17,40 @@ public interface SimulationOutputDataApi {
      */
     Map<Pos, String> getData();
 
+    /**
+     * Gets the positions of the agents, each one packed in a long by
+     * {@link Pos#pack(int, int)}. This is a compact alternative to
+     * {@link #getData()}.
+     *
+     * @return the packed positions of the agents.
+     */
+    long[] getPositionKeys();
+
+    /**
+     * Gets the types of the agents, in the same order of
+     * {@link #getPositionKeys()}.
+     *
+     * @return the types of the agents.
+     */
+    String[] getTypes();
+
+    /**
+     * Gets the codes of the types of the agents, in the same order of
+     * {@link #getPositionKeys()}. This is a compact alternative to
+     * {@link #getTypes()}.
+     *
+     * @return the type codes of the agents.
+     */
+    int[] getTypeCodes();
+
+    /**
+     * Gets the name of the type of every code returned by
+     * {@link #getTypeCodes()}, indexed by the code.
+     *
+     * @return the names of the types.
+     */
+    String[] getTypeDictionary();
+
     /**
      * Gets the id of the simulation.
      *
@@ -0,0 +1,117 @@
+package it.unibo.ares.core.controller;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.utils.parameters.Parameter;
+import it.unibo.ares.core.utils.parameters.ParameterSchema;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.parameters.SchemaParameters;
+import it.unibo.ares.core.utils.state.State;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parameters of the agents of an initialized model, grouped by type.
+ * The agents of a type read the parameters set by the user from defaults
+ * shared by the whole type, so setting a parameter of a type and checking
+ * that every parameter has been set cost one operation per type instead of
+ * one per agent. The agents are visited only once, when the defaults are
+ * bound to them.
+ */
+final class AgentTypeDefaults {
+    /**
+     * The defaults of every type, one for each schema of the agents of the
+     * type.
+     */
+    private final Map<String, Map<ParameterSchema, SchemaParameters>> defaults = new HashMap<>();
+    /**
+     * The agents that must be updated one by one: those whose parameters do
+     * not support defaults and those with a value of their own for a
+     * parameter the user can set, which would hide the defaults.
+     */
+    private final Map<String, List<Parameters>> individuals = new HashMap<>();
+    /**
+     * The parameters settable by the user that some agent of the type has
+     * not set yet.
+     */
+    private final Map<String, Set<String>> missing = new HashMap<>();
+    private final Map<String, Parameters> representatives = new HashMap<>();
+
+    /**
+     * Binds the defaults of their type to all the agents of a state.
+     *
+     * @param state the state holding the agents
+     */
+    AgentTypeDefaults(final State state) {
+        state.forEachAgent((pos, agent) -> bind(agent));
+    }
+
+    private void bind(final Agent agent) {
+        final String type = agent.getType();
+        final Parameters parameters = agent.getParameters();
+        representatives.putIfAbsent(type, parameters);
+        final Set<String> unset = missing.computeIfAbsent(type, t -> new HashSet<>());
+        parameters.getParametersToset().forEach(p -> unset.add(p.getKey()));
+        if (parameters instanceof SchemaParameters) {
+            final SchemaParameters schemaParameters = (SchemaParameters) parameters;
+            schemaParameters.setDefaults(defaults.computeIfAbsent(type, t -> new HashMap<>())
+                    .computeIfAbsent(schemaParameters.getSchema(), SchemaParameters::new));
+            if (parameters.getParameters().stream()
+                    .filter(Parameter::userSettable)
+                    .anyMatch(Parameter::isSetted)) {
+                individuals.computeIfAbsent(type, t -> new ArrayList<>()).add(parameters);
+            }
+        } else {
+            individuals.computeIfAbsent(type, t -> new ArrayList<>()).add(parameters);
+        }
+    }
+
+    /**
+     * @return the types of the agents
+     */
+    Set<String> getTypes() {
+        return Collections.unmodifiableSet(representatives.keySet());
+    }
+
+    /**
+     * @param type the type of the agents
+     * @return the parameters of one of the agents of the type
+     * @throws IllegalArgumentException if there are no agents of the type
+     */
+    Parameters getRepresentative(final String type) {
+        if (!representatives.containsKey(type)) {
+            throw new IllegalArgumentException("There are no agents of type " + type);
+        }
+        return representatives.get(type);
+    }
+
+    /**
+     * Sets a parameter of all the agents of a type.
+     *
+     * @param <T>   the type of the value
+     * @param type  the type of the agents
+     * @param key   the key of the parameter
+     * @param value the value of the parameter
+     * @throws IllegalArgumentException if the agents have no such parameter or
+     *                                  the value is not valid
+     */
+    <T extends Serializable> void set(final String type, final String key, final T value) {
+        defaults.getOrDefault(type, Map.of()).values().forEach(d -> d.setParameter(key, value));
+        individuals.getOrDefault(type, List.of()).forEach(p -> p.setParameter(key, value));
+        missing.getOrDefault(type, new HashSet<>()).remove(key);
+    }
+
+    /**
+     * @return true if every agent has a value for all the parameters that the
+     *         user can set
+     */
+    boolean isComplete() {
+        return missing.values().stream().allMatch(Set::isEmpty);
+    }
+}
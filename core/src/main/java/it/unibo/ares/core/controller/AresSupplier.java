@@ -151,6 +151,22 @@ public final class AresSupplier implements InitializationApi, SimulationControlA
         controller.setTickRate(id, tickRate);
     }
 
+    @Override
+    public void setFreeRunning(final String id, final boolean freeRunning) {
+        controller.setFreeRunning(id, freeRunning);
+    }
+
+    @Override
+    public boolean isFreeRunning(final String id) {
+        return controller.isFreeRunning(id);
+    }
+
+    @Override
+    public long advanceSimulation(final String id, final long ticks, final long timeBudget,
+            final int samplingInterval) {
+        return controller.advanceSimulation(id, ticks, timeBudget, samplingInterval);
+    }
+
     @Override
     public String saveSimulation(final String id) {
         controller.pauseSimulation(id);
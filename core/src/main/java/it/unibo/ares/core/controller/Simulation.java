@@ -2,6 +2,7 @@ package it.unibo.ares.core.controller;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.io.Serializable;
 
 import it.unibo.ares.core.model.Model;
@@ -43,7 +44,8 @@ interface Simulation extends Serializable {
      * 
      * @param simulationSessionId The user simulation session ids of the simulation
      *                            to tick.
-     * @return A future containing the output of the simulation.
+     * @return A future containing the output of the simulation, empty if it
+     *         is not time to tick or the previous tick is still in progress.
      */
     CompletableFuture<Optional<SimulationOutputData>> tick(String simulationSessionId);
 
@@ -52,10 +54,46 @@ interface Simulation extends Serializable {
      * 
      * @param simulationSessionId The user simulation session ids of the simulation
      *                            to tick.
-     * @return A future containing the output of the simulation.
+     * @return The output of the simulation, empty if it is not time to tick or
+     *         a tick is still in progress.
      */
     Optional<SimulationOutputData> tickSync(String simulationSessionId);
 
+    /**
+     * Advances a paused simulation as fast as possible, without waiting for
+     * the tick rate, until the given number of ticks of model time have
+     * passed, the simulation is over or the time budget runs out. The output
+     * data is produced only every sampling interval and at the end.
+     *
+     * @param simulationSessionId The user simulation session ids of the simulation
+     *                            to advance.
+     * @param ticks               how many ticks to advance by.
+     * @param timeBudget          the wall-clock time in ms it can take, 0 for no
+     *                            limit.
+     * @param samplingInterval    every how many ticks the output data is given
+     *                            to the sampler, 0 to give it only at the end.
+     * @param sampler             the consumer of the output data.
+     * @return how many ticks the simulation advanced by.
+     * @throws IllegalStateException    if the simulation is running.
+     * @throws IllegalArgumentException if a value is negative.
+     */
+    long advance(String simulationSessionId, long ticks, long timeBudget, int samplingInterval,
+            Consumer<SimulationOutputData> sampler);
+
+    /**
+     * Sets whether the simulation runs freely: while it is running it ticks
+     * as fast as possible on a thread of its own, and ticking it only
+     * samples the latest state, at most once per tick rate.
+     *
+     * @param freeRunning true to run freely, false to tick at the tick rate
+     */
+    void setFreeRunning(boolean freeRunning);
+
+    /**
+     * @return true if the simulation runs freely.
+     */
+    boolean isFreeRunning();
+
     /**
      * get the tick rate.
      * 
@@ -1,12 +1,18 @@
 package it.unibo.ares.core.controller;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import it.unibo.ares.core.agent.columnar.ColumnarWorld;
 import it.unibo.ares.core.model.Model;
-import it.unibo.ares.core.utils.Pair;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.statistics.Statistics;
 
@@ -14,17 +20,34 @@ import it.unibo.ares.core.utils.statistics.Statistics;
  * A simulation is a class that contains the state of the simulation and the
  * model of the simulation.
  */
+@SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED",
+        justification = "Il thread e l'ultimo campione vengono ricreati quando la simulazione riparte")
 final class SimulationImpl implements Simulation {
 
     private static final long serialVersionUID = 1L;
-    private State state;
+    /**
+     * The threads the simulations tick on in asynchronous mode, shared by all
+     * of them: a simulation never has more than one tick in progress, so it
+     * takes at most one thread.
+     */
+    private static final ExecutorService TICK_POOL = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), task -> {
+                final Thread thread = new Thread(task, "ares-tick");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private volatile State state;
     private final Model model;
-    private boolean running; // may be sincronized if we want to make it usable to await termination
-    private boolean calculating;
+    private volatile boolean running; // may be sincronized if we want to make it usable to await termination
+    private transient AtomicBoolean calculating;
     private int tickCount;
-    private boolean isOver;
+    private volatile boolean isOver;
     // IN ms
     private Integer tickRate;
+    private volatile boolean freeRunning;
+    private transient volatile Thread worker;
+    private transient volatile boolean frameRequested;
+    private transient SimulationOutputData frame;
 
     /**
      * Creates a new simulation with the given state and model.
@@ -36,11 +59,19 @@ final class SimulationImpl implements Simulation {
     SimulationImpl(final State state, final Model model, final Integer tickRate) {
         this.state = state;
         this.model = model;
-        calculating = false;
         this.tickRate = tickRate;
+        this.calculating = new AtomicBoolean();
         isOver = false;
     }
 
+    /**
+     * A saved simulation is loaded with no tick in progress.
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.calculating = new AtomicBoolean();
+    }
+
     @Override
     public State getState() {
         return this.state;
@@ -59,6 +90,7 @@ final class SimulationImpl implements Simulation {
     @Override
     public void pause() {
         this.running = false;
+        stopWorker();
     }
 
     @Override
@@ -68,26 +100,49 @@ final class SimulationImpl implements Simulation {
 
     private SimulationOutputData mapStateToSimulationData(final State state, final String simulationSessionId,
             final boolean finished) {
-        return new SimulationOutputData(state.getAgents().stream()
-                .collect(Collectors.toMap(
-                        Pair::getFirst,
-                        pair -> pair.getSecond().getType(),
-                        (existingValue, newValue) -> newValue,
-                        HashMap::new)),
-                simulationSessionId, state.getDimensions().getFirst(), state.getDimensions().getSecond(),
+        final Optional<ColumnarWorld> world = ColumnarWorld.of(state);
+        final long[] positions;
+        final int[] types;
+        if (world.isPresent()) {
+            // the columns are read as they are, without a view of every agent
+            positions = world.get().getPositionKeys();
+            types = world.get().getTypeCodes();
+        } else {
+            final int count = state.agentCount();
+            positions = new long[count];
+            types = new int[count];
+            final int[] next = new int[1];
+            state.forEachAgent((pos, agent) -> {
+                positions[next[0]] = pos.toKey();
+                types[next[0]] = agent.getTypeCode();
+                next[0]++;
+            });
+        }
+        final String[] dictionary = SimulationOutputData.localizeTypeCodes(types);
+        return new SimulationOutputData(positions, types, dictionary, simulationSessionId, state.getDimensions().getFirst(), state.getDimensions().getSecond(),
                 finished, getStatistics(state));
     }
 
     private boolean tickSim() {
+        return tickSim(Long.MAX_VALUE);
+    }
+
+    /**
+     * Ticks the model once, covering at most the given number of ticks.
+     */
+    private boolean tickSim(final long maxLength) {
         final State oldState = this.state;
-        this.state = this.model.tick(this.state);
+        this.state = this.model.tick(this.state, maxLength);
         this.isOver = this.model.isOver(oldState, this.state);
         return isOver;
     }
 
+    private boolean isDue() {
+        return tickCount * (int) AresSupplier.getInstance().getTickRate() >= tickRate;
+    }
+
     private boolean shouldTick() {
-        final int elapsed = tickCount * (int) AresSupplier.getInstance().getTickRate();
-        if (elapsed >= tickRate) {
+        if (isDue()) {
             tickCount = 0;
             return true;
         } else {
@@ -96,6 +151,86 @@ final class SimulationImpl implements Simulation {
         }
     }
 
+    /**
+     * Ticks the simulation until it is paused, over or no longer free
+     * running. The output data is mapped only at the first tick boundary
+     * after the sampler asks for it, and once more when the simulation is
+     * over, so that its last state is always shown.
+     */
+    private void runFreely(final String simulationSessionId) {
+        while (this.running && this.freeRunning && !this.isOver) {
+            tickSim();
+            if (this.frameRequested && !this.isOver) {
+                this.frameRequested = false;
+                offerFrame(mapStateToSimulationData(this.state, simulationSessionId, false));
+            }
+        }
+        if (this.isOver) {
+            offerFrame(mapStateToSimulationData(this.state, simulationSessionId, true));
+        }
+    }
+
+    private synchronized void offerFrame(final SimulationOutputData data) {
+        this.frame = data;
+    }
+
+    private synchronized Optional<SimulationOutputData> takeFrame() {
+        final Optional<SimulationOutputData> sample = Optional.ofNullable(this.frame);
+        this.frame = null;
+        return sample;
+    }
+
+    /**
+     * Stops the free running thread and drops the frame it published last,
+     * which would otherwise be shown once the simulation runs freely again,
+     * unless it is the frame of the end of the simulation.
+     */
+    private void stopWorker() {
+        awaitWorker();
+        this.frameRequested = false;
+        if (!this.isOver) {
+            takeFrame();
+        }
+    }
+
+    private synchronized void startWorker(final String simulationSessionId) {
+        if (this.worker == null || !this.worker.isAlive()) {
+            this.worker = new Thread(() -> runFreely(simulationSessionId), "ares-free-run-" + simulationSessionId);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+    }
+
+    /**
+     * Waits for the free running thread to stop, once it has been told to.
+     */
+    private void awaitWorker() {
+        final Thread current = this.worker;
+        if (current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Samples the latest state of a free running simulation, starting its
+     * thread if needed. A frame is asked for one call before it is due, so
+     * the thread maps it at the tick boundary closest to when it is shown.
+     */
+    private Optional<SimulationOutputData> sample(final String simulationSessionId) {
+        if (!isOver && !this.calculating.get()) {
+            startWorker(simulationSessionId);
+        }
+        final boolean due = shouldTick();
+        if (isDue()) {
+            this.frameRequested = true;
+        }
+        return due ? takeFrame() : Optional.empty();
+    }
+
     private Statistics getStatistics(final State s) {
         return model.getStatistics(s);
     }
@@ -105,24 +240,22 @@ final class SimulationImpl implements Simulation {
         if (!this.running) {
             throw new IllegalStateException("Simulation is not running");
         }
-        if (this.calculating) {
-            throw new IllegalStateException("Simulation is already calculating");
+        if (this.freeRunning) {
+            return CompletableFuture.completedFuture(sample(simulationSessionId));
         }
-
-        if (!shouldTick() || isOver) {
+        // a tick still in progress absorbs this one, the next one starts when it is over
+        if (this.calculating.get() || !shouldTick() || isOver || !this.calculating.compareAndSet(false, true)) {
             return CompletableFuture.completedFuture(Optional.empty());
         }
 
-        final CompletableFuture<Optional<SimulationOutputData>> future = new CompletableFuture<>();
-
-        new Thread(() -> {
-            this.calculating = true;
-            final boolean over = tickSim();
-            future.complete(Optional.of(mapStateToSimulationData(this.state, simulationSessionId, over)));
-            this.calculating = false;
-        }).start();
-
-        return future;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                final boolean over = tickSim();
+                return Optional.of(mapStateToSimulationData(this.state, simulationSessionId, over));
+            } finally {
+                this.calculating.set(false);
+            }
+        }, TICK_POOL);
     }
 
     @Override
@@ -130,20 +263,69 @@ final class SimulationImpl implements Simulation {
         if (!this.running) {
             throw new IllegalStateException("Simulation is not running");
         }
-        if (this.calculating) {
+        if (this.freeRunning) {
+            return sample(simulationSessionId);
+        }
+        if (this.calculating.get() || !shouldTick() || isOver || !this.calculating.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+
+        try {
+            final boolean over = tickSim();
+            return Optional.of(mapStateToSimulationData(this.state, simulationSessionId, over));
+        } finally {
+            this.calculating.set(false);
+        }
+    }
+
+    @Override
+    public long advance(final String simulationSessionId, final long ticks, final long timeBudget,
+            final int samplingInterval, final Consumer<SimulationOutputData> sampler) {
+        if (this.running) {
+            throw new IllegalStateException("Simulation must be paused to be advanced");
+        }
+        if (ticks < 0 || timeBudget < 0 || samplingInterval < 0) {
+            throw new IllegalArgumentException("Ticks, time budget and sampling interval cannot be negative");
+        }
+        if (!this.calculating.compareAndSet(false, true)) {
             throw new IllegalStateException("Simulation is already calculating");
         }
+        try {
+            return advanceBy(simulationSessionId, ticks, timeBudget, samplingInterval, sampler);
+        } finally {
+            this.calculating.set(false);
+        }
+    }
 
-        if (!shouldTick() || isOver) {
-            return Optional.empty();
+    private long advanceBy(final String simulationSessionId, final long ticks, final long timeBudget,
+            final int samplingInterval, final Consumer<SimulationOutputData> sampler) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        long done = 0;
+        while (done < ticks && !isOver && (timeBudget == 0 || System.nanoTime() - deadline < 0)) {
+            final long before = done;
+            // a tick of a discrete-event model can cover more than one tick, but not past the budget
+            tickSim(ticks - done);
+            done += this.model.getLastTickLength();
+            if (samplingInterval > 0 && done < ticks && !isOver
+                    && done / samplingInterval != before / samplingInterval) {
+                sampler.accept(mapStateToSimulationData(this.state, simulationSessionId, false));
+            }
         }
+        sampler.accept(mapStateToSimulationData(this.state, simulationSessionId, isOver));
+        return done;
+    }
 
-        this.calculating = true;
-        final boolean over = tickSim();
-        final SimulationOutputData data = mapStateToSimulationData(this.state, simulationSessionId, over);
-        this.calculating = false;
+    @Override
+    public void setFreeRunning(final boolean freeRunning) {
+        this.freeRunning = freeRunning;
+        if (!freeRunning) {
+            stopWorker();
+        }
+    }
 
-        return Optional.of(data);
+    @Override
+    public boolean isFreeRunning() {
+        return this.freeRunning;
     }
 
     @Override
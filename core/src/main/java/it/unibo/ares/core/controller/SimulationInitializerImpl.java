@@ -1,6 +1,5 @@
 package it.unibo.ares.core.controller;
 
-import it.unibo.ares.core.agent.Agent;
 import it.unibo.ares.core.utils.Pair;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.state.State;
@@ -12,12 +11,11 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import it.unibo.ares.core.model.SimpleModelFactory;
 import it.unibo.ares.core.model.SugarscapeModelFactory;
 import it.unibo.ares.core.model.BoidsModelFactory;
+import it.unibo.ares.core.model.ColumnarSchellingModelFactory;
 import it.unibo.ares.core.model.FireSpreadModelFactory;
 import it.unibo.ares.core.model.VirusModelFactory;
 import it.unibo.ares.core.model.Model;
@@ -32,6 +30,7 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
     private static final int DEFAULTTICKRATE = 500;
     private final ConcurrentMap<String, Model> intilizingModels;
     private final ConcurrentMap<String, Pair<State, Model>> initializedModels;
+    private final ConcurrentMap<String, AgentTypeDefaults> agentTypes;
     private final Map<String, Supplier<Model>> modelsSupplier;
 
     /**
@@ -46,6 +45,7 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
         final ModelFactory vf = new VirusModelFactory();
         final ModelFactory smf = new SimpleModelFactory();
         final ModelFactory ssm = new SugarscapeModelFactory();
+        final ModelFactory csf = new ColumnarSchellingModelFactory();
         modelsSupplier.put(sf.getModelId(), sf::getModel);
         modelsSupplier.put(bf.getModelId(), bf::getModel);
         modelsSupplier.put(ff.getModelId(), ff::getModel);
@@ -53,17 +53,10 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
         modelsSupplier.put(vf.getModelId(), vf::getModel);
         modelsSupplier.put(smf.getModelId(), smf::getModel);
         modelsSupplier.put(ssm.getModelId(), ssm::getModel);
+        modelsSupplier.put(csf.getModelId(), csf::getModel);
         this.intilizingModels = new ConcurrentHashMap<>();
         this.initializedModels = new ConcurrentHashMap<>();
-    }
-
-    private <T extends Serializable> void setAgentParameter(final String initializationId, final String key,
-            final T value, final Predicate<Agent> predicate) {
-        this.initializedModels.get(
-                initializationId).getFirst().getAgents().stream()
-                .map(Pair::getSecond)
-                .filter(predicate::test)
-                .forEach(ag -> ag.setParameter(key, value));
+        this.agentTypes = new ConcurrentHashMap<>();
     }
 
     /**
@@ -120,14 +113,9 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
                         initializationId).initilize(),
                         intilizingModels.get(initializationId)));
         this.intilizingModels.remove(initializationId);
-        return this.initializedModels.get(
-                initializationId)
-                .getFirst()
-                .getAgents()
-                .stream()
-                .map(Pair::getSecond)
-                .map(Agent::getType)
-                .collect(Collectors.toSet());
+        return this.agentTypes.computeIfAbsent(initializationId,
+                id -> new AgentTypeDefaults(this.initializedModels.get(id).getFirst()))
+                .getTypes();
     }
 
     /**
@@ -138,7 +126,7 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
             final String agentType,
             final String key,
             final T value) {
-        setAgentParameter(initializationId, key, value, ag -> ag.getType().equals(agentType));
+        this.agentTypes.get(initializationId).set(agentType, key, value);
     }
 
     /**
@@ -146,12 +134,7 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
      */
     @Override
     public Parameters getAgentParametersSimplified(final String initializationId, final String agentId) {
-        return this.initializedModels.get(initializationId).getFirst().getAgents().stream()
-                .map(Pair::getSecond)
-                .filter(ag -> ag.getType().equals(agentId))
-                .map(Agent::getParameters)
-                .findAny()
-                .orElseThrow();
+        return this.agentTypes.get(initializationId).getRepresentative(agentId);
     }
 
     /**
@@ -162,14 +145,12 @@ public final class SimulationInitializerImpl extends SimulationInitializer {
         if (!this.initializedModels.containsKey(initializationId)) {
             throw new IllegalArgumentException("The model has not been initialized");
         }
-        if (initializedModels.get(initializationId).getFirst().getAgents()
-                .stream()
-                .map(Pair::getSecond)
-                .map(Agent::getParameters)
-                .map(Parameters::getParametersToset)
-                .anyMatch(s -> !s.isEmpty())) {
+        final AgentTypeDefaults types = this.agentTypes.computeIfAbsent(initializationId,
+                id -> new AgentTypeDefaults(this.initializedModels.get(id).getFirst()));
+        if (!types.isComplete()) {
             throw new IllegalArgumentException("Some agent parameters are not set");
         }
+        this.agentTypes.remove(initializationId);
         final Pair<State, Model> model = this.initializedModels.remove(initializationId);
         return new Pair<>(initializationId,
                 new SimulationImpl(model.getFirst(),
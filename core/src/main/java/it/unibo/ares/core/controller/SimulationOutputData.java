@@ -1,10 +1,16 @@
 package it.unibo.ares.core.controller;
 
+import it.unibo.ares.core.agent.TypeCodes;
 import it.unibo.ares.core.api.SimulationOutputDataApi;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
 import it.unibo.ares.core.utils.statistics.Statistics;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -12,7 +18,11 @@ import java.util.Map;
  *
  */
 public final class SimulationOutputData implements SimulationOutputDataApi {
-    private final Map<Pos, String> data;
+    private final long[] positions;
+    private final int[] typeCodes;
+    private final String[] dictionary;
+    private String[] types;
+    private Map<Pos, String> data;
     private final String simulationId;
     private final Integer width;
     private final Integer height;
@@ -31,7 +41,52 @@ public final class SimulationOutputData implements SimulationOutputDataApi {
      */
     public SimulationOutputData(final Map<Pos, String> data, final String simulationId, final Integer width,
             final Integer height, final boolean finished, final Statistics statistics) {
-        this.data = Collections.unmodifiableMap(data);
+        this(data.keySet().stream().mapToLong(Pos::toKey).toArray(), data.values().toArray(String[]::new),
+                simulationId, width, height, finished, statistics);
+    }
+
+    /**
+     * Creates a new SimulationOutputData from the packed positions of the
+     * agents and their types.
+     *
+     * @param positions    the positions of the agents, packed by
+     *                     {@link Pos#pack(int, int)}
+     * @param types        the type of the agent at the same index in positions
+     * @param simulationId the id of the simulation
+     * @param width        the width of the simulation output
+     * @param height       the height of the simulation output
+     * @param finished     weather the sim is over
+     * @param statistics   the statistics for this iteration
+     */
+    public SimulationOutputData(final long[] positions, final String[] types, final String simulationId,
+            final Integer width, final Integer height, final boolean finished, final Statistics statistics) {
+        this(positions, encode(types), dictionaryOf(types), simulationId, width, height, finished, statistics);
+    }
+
+    /**
+     * Creates a new SimulationOutputData from the packed positions of the
+     * agents and the codes of their types.
+     *
+     * @param positions    the positions of the agents, packed by
+     *                     {@link Pos#pack(int, int)}
+     * @param typeCodes    the code of the type of the agent at the same index in
+     *                     positions
+     * @param dictionary   the name of the type of every code
+     * @param simulationId the id of the simulation
+     * @param width        the width of the simulation output
+     * @param height       the height of the simulation output
+     * @param finished     weather the sim is over
+     * @param statistics   the statistics for this iteration
+     */
+    public SimulationOutputData(final long[] positions, final int[] typeCodes, final String[] dictionary,
+            final String simulationId, final Integer width, final Integer height, final boolean finished,
+            final Statistics statistics) {
+        if (positions.length != typeCodes.length) {
+            throw new IllegalArgumentException("Positions and types must have the same length");
+        }
+        this.positions = Arrays.copyOf(positions, positions.length);
+        this.typeCodes = Arrays.copyOf(typeCodes, typeCodes.length);
+        this.dictionary = Arrays.copyOf(dictionary, dictionary.length);
         this.simulationId = simulationId;
         this.width = width;
         this.height = height;
@@ -39,16 +94,101 @@ public final class SimulationOutputData implements SimulationOutputDataApi {
         this.statistics = statistics;
     }
 
+    private String nameOf(final int code) {
+        return code < 0 ? null : dictionary[code];
+    }
+
+    /**
+     * Renumbers, in place, codes assigned by {@link TypeCodes} to the types
+     * that appear in a frame, so that the dictionary of the frame holds only
+     * those types instead of every type the JVM has seen.
+     *
+     * @param codes the codes of the types of the agents, {@link TypeCodes#NO_TYPE}
+     *              for agents without a type
+     * @return the name of every new code
+     */
+    static String[] localizeTypeCodes(final int[] codes) {
+        int max = TypeCodes.NO_TYPE;
+        for (final int code : codes) {
+            max = Math.max(max, code);
+        }
+        final int[] local = new int[max + 1];
+        Arrays.fill(local, TypeCodes.NO_TYPE);
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) {
+            final int code = codes[i];
+            if (code != TypeCodes.NO_TYPE) {
+                if (local[code] == TypeCodes.NO_TYPE) {
+                    local[code] = names.size();
+                    names.add(TypeCodes.nameOf(code));
+                }
+                codes[i] = local[code];
+            }
+        }
+        return names.toArray(String[]::new);
+    }
+
+    private static String[] dictionaryOf(final String[] types) {
+        return Arrays.stream(types).distinct().toArray(String[]::new);
+    }
+
+    private static int[] encode(final String[] types) {
+        final List<String> dictionary = Arrays.asList(dictionaryOf(types));
+        return Arrays.stream(types).mapToInt(dictionary::indexOf).toArray();
+    }
+
     /**
      * Gets the data of the simulation.
      *
      * @return the data of the simulation.
      */
     @Override
-    public Map<Pos, String> getData() {
+    public synchronized Map<Pos, String> getData() {
+        if (data == null) {
+            final Map<Pos, String> map = new HashMap<>();
+            for (int i = 0; i < positions.length; i++) {
+                map.put(new PosImpl(Pos.unpackX(positions[i]), Pos.unpackY(positions[i])), nameOf(typeCodes[i]));
+            }
+            data = Collections.unmodifiableMap(map);
+        }
         return data;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getPositionKeys() {
+        return Arrays.copyOf(positions, positions.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String[] getTypes() {
+        if (types == null) {
+            types = Arrays.stream(typeCodes).mapToObj(this::nameOf).toArray(String[]::new);
+        }
+        return Arrays.copyOf(types, types.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getTypeCodes() {
+        return Arrays.copyOf(typeCodes, typeCodes.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getTypeDictionary() {
+        return Arrays.copyOf(dictionary, dictionary.length);
+    }
+
     /**
      * Gets the id of the simulation.
      *
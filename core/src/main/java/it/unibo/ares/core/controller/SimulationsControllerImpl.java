@@ -102,6 +102,23 @@ final class SimulationsControllerImpl extends SimulationsController {
         simulations.get(id).setTickRate(tickRate);
     }
 
+    @Override
+    public void setFreeRunning(final String id, final boolean freeRunning) {
+        simulations.get(id).setFreeRunning(freeRunning);
+    }
+
+    @Override
+    public boolean isFreeRunning(final String id) {
+        return simulations.get(id).isFreeRunning();
+    }
+
+    @Override
+    public long advanceSimulation(final String id, final long ticks, final long timeBudget,
+            final int samplingInterval) {
+        return simulations.get(id).advance(id, ticks, timeBudget, samplingInterval,
+                d -> processor.submit(new Identifier<>(d.getSimulationId(), d)));
+    }
+
     @Override
     public String saveSimulation(final String id) {
         return manager.save(simulations.remove(id));
@@ -0,0 +1,390 @@
+package it.unibo.ares.core.model;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.Entity;
+import it.unibo.ares.core.utils.lambda.SerializableBiFunction;
+import it.unibo.ares.core.utils.lambda.SerializableBiPredicate;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.state.ForwardingState;
+import it.unibo.ares.core.utils.state.State;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Ticks only the agents that have something to do.
+ * Agents whose type has a {@link Dormancy} go to sleep when it says so, and
+ * are woken up when a cell within their wake radius is written, when an agent
+ * within the radius ticks, or when their alarm goes off. An agent woken up
+ * during a tick is ticked in the same tick if it comes later in the order of
+ * the cells, so as long as a sleeping agent would do nothing the result is
+ * the same as ticking every agent.
+ * The agents are visited row by row, the order of the states stored in flat
+ * arrays. The scheduler remembers the state returned by the last tick and
+ * starts over, with every agent awake, when it is given another state.
+ * Given a {@link TileScheduler}, the awake agents are ticked in parallel tiles
+ * instead; agents woken up during such a tick are ticked from the next one.
+ * Agents whose type has a tick period in {@link TickPeriods} sleep between
+ * the ticks they are due at, and nothing else wakes them up.
+ * The alarms are a calendar of the ticks in which some agent has something to
+ * do: when skipping idle ticks, a tick in which no agent would be awake moves
+ * the clock straight to the next alarm, since nothing happens before it, or
+ * as far as the caller allows. This is not a full event queue: the clock only
+ * jumps when every agent sleeps, and while some agent is awake the ticks go
+ * one by one, scanning the awake agents at each of them.
+ */
+final class ActivityScheduler {
+    private final Map<Integer, Dormancy> rules;
+    private final TickPeriods periods;
+    private final boolean skipIdle;
+    private final int maxRadius;
+    private final Map<Integer, Sleeper> sleeping = new HashMap<>();
+    private final TreeMap<Long, List<Integer>> alarms = new TreeMap<>();
+    private State last;
+    private int width;
+    private int height;
+    private long ticks;
+    private BitSet awake = new BitSet();
+    private BitSet changed = new BitSet();
+
+    /**
+     * @param rules when the agents can sleep, by type code
+     */
+    ActivityScheduler(final Map<Integer, Dormancy> rules) {
+        this(rules, new TickPeriods(), false);
+    }
+
+    /**
+     * @param rules    when the agents can sleep, by type code
+     * @param periods  how often the agents of each type tick
+     * @param skipIdle whether a tick skips the ticks in which every agent
+     *                 would be sleeping
+     */
+    ActivityScheduler(final Map<Integer, Dormancy> rules, final TickPeriods periods, final boolean skipIdle) {
+        this.rules = new HashMap<>(rules);
+        this.periods = periods;
+        this.skipIdle = skipIdle;
+        this.maxRadius = rules.values().stream().mapToInt(Dormancy::getWakeRadius).max().orElse(0);
+    }
+
+    private int cellOf(final Pos pos) {
+        return pos.y() * width + pos.x();
+    }
+
+    private boolean isInside(final Pos pos) {
+        return pos.x() >= 0 && pos.x() < width && pos.y() >= 0 && pos.y() < height;
+    }
+
+    private void restart(final State state) {
+        width = state.getDimensions().getFirst();
+        height = state.getDimensions().getSecond();
+        sleeping.clear();
+        alarms.clear();
+        awake = new BitSet();
+        state.forEachAgent((pos, agent) -> awake.set(cellOf(pos)));
+    }
+
+    /**
+     * Wakes up the agents sleeping close enough to a cell.
+     */
+    private void wakeAround(final int cell) {
+        if (sleeping.isEmpty()) {
+            return;
+        }
+        final int x = cell % width;
+        final int y = cell / width;
+        for (int dy = Math.max(-maxRadius, -y); dy <= Math.min(maxRadius, height - 1 - y); dy++) {
+            for (int dx = Math.max(-maxRadius, -x); dx <= Math.min(maxRadius, width - 1 - x); dx++) {
+                final int neighbor = cell + dy * width + dx;
+                final Sleeper sleeper = sleeping.get(neighbor);
+                if (sleeper != null && Math.max(Math.abs(dx), Math.abs(dy)) <= sleeper.radius) {
+                    sleeping.remove(neighbor);
+                    awake.set(neighbor);
+                }
+            }
+        }
+    }
+
+    private synchronized void written(final Pos pos) {
+        if (isInside(pos)) {
+            final int cell = cellOf(pos);
+            changed.set(cell);
+            wakeAround(cell);
+        }
+    }
+
+    private void ringAlarms() {
+        while (!alarms.isEmpty() && alarms.firstKey() <= ticks) {
+            final Entry<Long, List<Integer>> due = alarms.pollFirstEntry();
+            for (final int cell : due.getValue()) {
+                final Sleeper sleeper = sleeping.get(cell);
+                if (sleeper != null && sleeper.wakeAt == due.getKey()) {
+                    sleeping.remove(cell);
+                    awake.set(cell);
+                }
+            }
+        }
+    }
+
+    private void sleep(final int cell, final int radius, final long delay) {
+        final long wakeAt = delay > 0 ? ticks + delay : -1;
+        sleeping.put(cell, new Sleeper(radius, wakeAt));
+        if (wakeAt > 0) {
+            alarms.computeIfAbsent(wakeAt, t -> new ArrayList<>()).add(cell);
+        }
+    }
+
+    /**
+     * Ticks the agents that are awake on the copy of the state to be written.
+     *
+     * @param state    the state at the beginning of the tick, not written
+     * @param newState the copy of the state written by the agents
+     * @return how many ticks the clock moved forward, more than one if idle
+     *         ticks were skipped
+     */
+    long tick(final State state, final State newState) {
+        return tick(state, newState, Optional.empty(), -1, Long.MAX_VALUE);
+    }
+
+    /**
+     * Ticks the agents that are awake on the copy of the state to be written,
+     * in parallel tiles when possible.
+     *
+     * @param state     the state at the beginning of the tick, not written
+     * @param newState  the copy of the state written by the agents
+     * @param tiles     the scheduler of the parallel tiles, empty to tick in
+     *                  the calling thread
+     * @param radius    how far from its cell an agent can read or write
+     * @param maxLength the most ticks the clock can move forward, at least
+     *                  one: a skip stops there even if no alarm goes off
+     * @return how many ticks the clock moved forward, more than one if idle
+     *         ticks were skipped
+     */
+    long tick(final State state, final State newState, final Optional<TileScheduler> tiles, final int radius,
+            final long maxLength) {
+        if (state != last) {
+            restart(state);
+        }
+        final long start = ticks;
+        ticks++;
+        if (skipIdle && awake.isEmpty() && !alarms.isEmpty() && alarms.firstKey() > ticks) {
+            ticks = start + Math.max(1, Math.min(maxLength, alarms.firstKey() - start));
+        }
+        ringAlarms();
+        changed = new BitSet();
+        if (tiles.isEmpty() || !tickInTiles(state, newState, tiles.get(), radius)) {
+            final State recorder = new Recorder(newState, this);
+            for (int cell = awake.nextSetBit(0); cell >= 0; cell = awake.nextSetBit(cell + 1)) {
+                final Pos pos = new PosImpl(cell % width, cell / width);
+                final Optional<Agent> agent = state.getAgentAt(pos);
+                // the ticks are numbered from 0 by the periods
+                if (agent.isPresent() && periods.isDue(agent.get().getTypeCode(), ticks - 1)) {
+                    TileScheduler.tickIfPresent(newState, recorder, pos, agent.get());
+                    wakeAround(cell);
+                }
+            }
+        }
+        // the agents that ticked and those in cells written during the tick decide whether to sleep
+        awake.or(changed);
+        final BitSet next = new BitSet();
+        for (int cell = awake.nextSetBit(0); cell >= 0; cell = awake.nextSetBit(cell + 1)) {
+            final Pos pos = new PosImpl(cell % width, cell / width);
+            final Optional<Agent> agent = newState.getAgentAt(pos);
+            sleeping.remove(cell);
+            if (agent.isPresent()) {
+                final int type = agent.get().getTypeCode();
+                final Dormancy dormancy = rules.get(type);
+                if (!periods.isEveryTick(type)) {
+                    final long delay = periods.untilDue(type, ticks - 1);
+                    if (delay == 1) {
+                        next.set(cell);
+                    } else {
+                        // only the alarm wakes up an agent with a period
+                        sleep(cell, -1, delay);
+                    }
+                } else if (dormancy == null) {
+                    next.set(cell);
+                } else {
+                    final int delay = dormancy.sleepFor(newState, pos);
+                    if (delay == 0) {
+                        next.set(cell);
+                    } else {
+                        sleep(cell, dormancy.getWakeRadius(), delay);
+                    }
+                }
+            }
+        }
+        awake = next;
+        last = newState;
+        return ticks - start;
+    }
+
+    private boolean tickInTiles(final State state, final State newState, final TileScheduler tiles,
+            final int radius) {
+        final List<Pos> positions = new ArrayList<>();
+        final List<Agent> agents = new ArrayList<>();
+        for (int cell = awake.nextSetBit(0); cell >= 0; cell = awake.nextSetBit(cell + 1)) {
+            final Pos pos = new PosImpl(cell % width, cell / width);
+            final Optional<Agent> agent = state.getAgentAt(pos);
+            if (agent.isPresent() && periods.isDue(agent.get().getTypeCode(), ticks - 1)) {
+                positions.add(pos);
+                agents.add(agent.get());
+            }
+        }
+        if (!tiles.tick(newState, radius, positions, agents, shared -> new Recorder(shared, this))) {
+            return false;
+        }
+        positions.forEach(pos -> wakeAround(cellOf(pos)));
+        return true;
+    }
+
+    /**
+     * @return how many ticks the clock moved forward since the scheduler was
+     *         created
+     */
+    long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return how many agents are sleeping
+     */
+    int sleepingCount() {
+        return sleeping.size();
+    }
+
+    /**
+     * When the agents of a type can sleep and what wakes them up.
+     */
+    static final class Dormancy implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final SerializableBiFunction<State, Pos, Integer> nextEvent;
+        private final int wakeRadius;
+
+        /**
+         * @param dormant    whether the agent at a position can sleep
+         * @param wakeRadius how far a change wakes the agent up
+         * @param wakeAfter  how many ticks the agent sleeps at most, 0 to
+         *                   sleep until something wakes it up
+         * @throws IllegalArgumentException if a value is negative
+         */
+        Dormancy(final SerializableBiPredicate<State, Pos> dormant, final int wakeRadius, final int wakeAfter) {
+            this(untilWoken(dormant, wakeAfter), wakeRadius);
+            if (wakeAfter < 0) {
+                throw new IllegalArgumentException("Wake radius and period cannot be negative");
+            }
+        }
+
+        /**
+         * @param nextEvent  in how many ticks the agent at a position acts
+         *                   again: 0 to stay awake, a negative number to sleep
+         *                   until something wakes it up
+         * @param wakeRadius how far a change wakes the agent up
+         * @throws IllegalArgumentException if the radius is negative
+         */
+        Dormancy(final SerializableBiFunction<State, Pos, Integer> nextEvent, final int wakeRadius) {
+            if (wakeRadius < 0) {
+                throw new IllegalArgumentException("Wake radius and period cannot be negative");
+            }
+            this.nextEvent = nextEvent;
+            this.wakeRadius = wakeRadius;
+        }
+
+        private static SerializableBiFunction<State, Pos, Integer> untilWoken(
+                final SerializableBiPredicate<State, Pos> dormant, final int wakeAfter) {
+            final int delay = wakeAfter > 0 ? wakeAfter : -1;
+            return (state, pos) -> dormant.test(state, pos) ? delay : 0;
+        }
+
+        int sleepFor(final State state, final Pos pos) {
+            return nextEvent.apply(state, pos);
+        }
+
+        int getWakeRadius() {
+            return wakeRadius;
+        }
+    }
+
+    /**
+     * A sleeping agent.
+     */
+    private static final class Sleeper {
+        private final int radius;
+        private final long wakeAt;
+
+        private Sleeper(final int radius, final long wakeAt) {
+            this.radius = radius;
+            this.wakeAt = wakeAt;
+        }
+    }
+
+    /**
+     * A view of the new state that tells the scheduler which cells are
+     * written.
+     */
+    @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED",
+            justification = "La vista esiste solo durante un tick e non viene serializzata")
+    private static final class Recorder extends ForwardingState {
+        private static final long serialVersionUID = 1L;
+        private final transient ActivityScheduler scheduler;
+
+        private Recorder(final State state, final ActivityScheduler scheduler) {
+            super(state);
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void addAgent(final Pos pos, final Agent agent) {
+            delegate().addAgent(pos, agent);
+            scheduler.written(pos);
+        }
+
+        @Override
+        public void removeAgent(final Pos pos, final Agent agent) {
+            delegate().removeAgent(pos, agent);
+            scheduler.written(pos);
+        }
+
+        @Override
+        public void moveAgent(final Pos from, final Pos to) {
+            delegate().moveAgent(from, to);
+            scheduler.written(from);
+            scheduler.written(to);
+        }
+
+        @Override
+        public Agent morphAgent(final Pos pos, final Agent prototype) {
+            final Agent spawned = delegate().morphAgent(pos, prototype);
+            scheduler.written(pos);
+            return spawned;
+        }
+
+        @Override
+        public void addEntity(final Pos pos, final Entity entity) {
+            delegate().addEntity(pos, entity);
+            scheduler.written(pos);
+        }
+
+        @Override
+        public void removeEntity(final Pos pos, final Entity entity) {
+            delegate().removeEntity(pos, entity);
+            scheduler.written(pos);
+        }
+
+        @Override
+        public void moveEntity(final Pos from, final Pos to) {
+            delegate().moveEntity(from, to);
+            scheduler.written(from);
+            scheduler.written(to);
+        }
+    }
+}
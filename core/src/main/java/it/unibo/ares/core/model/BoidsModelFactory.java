@@ -7,6 +7,7 @@ import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 import java.util.List;
@@ -35,14 +36,16 @@ public final class BoidsModelFactory implements ModelFactory {
         if (size * size < total) {
             throw new IllegalArgumentException("The number of agents is greater than the size of the grid");
         }
-        final State state = new StateImpl(size, size);
+        final State state = new StateImpl(size, size, total);
         final List<Pos> validPositions = IntStream.range(0, size).boxed()
                 .flatMap(i -> IntStream.range(0, size).mapToObj(j -> new PosImpl(i, j)))
                 .map(Pos.class::cast)
                 .toList();
 
-        final UniquePositionGetter getter = new UniquePositionGetter(validPositions);
-        final BoidsAgentFactory boidsAgentFactory = new BoidsAgentFactory();
+        final SplitMixRandom random = new SplitMixRandom(parameters.getParameter(Model.SEEDKEY, Long.class)
+                .orElseThrow(IllegalAccessException::new).getValue());
+        final UniquePositionGetter getter = new UniquePositionGetter(validPositions, random.split());
+        final BoidsAgentFactory boidsAgentFactory = new BoidsAgentFactory(random.split());
         Stream
                 .generate(boidsAgentFactory::createAgent)
                 .limit(total)
@@ -83,6 +86,7 @@ public final class BoidsModelFactory implements ModelFactory {
                                 "Missing parameters for the model initialization");
                     }
                 })
+                .enableDoubleBuffering()
                 .build();
 
     }
@@ -0,0 +1,182 @@
+package it.unibo.ares.core.model;
+
+import it.unibo.ares.core.agent.SchellingsAgentFactory;
+import it.unibo.ares.core.agent.columnar.ColumnarStrategy;
+import it.unibo.ares.core.agent.columnar.ColumnarWorld;
+import it.unibo.ares.core.agent.columnar.Population;
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.parameters.ParameterDomainImpl;
+import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.parameters.ParametersImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
+import it.unibo.ares.core.utils.statistics.Statistics;
+
+import java.io.Serializable;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+
+/**
+ * Generate an instance of the schelling segregation model running on the
+ * columnar runtime, for populations too large to be held one object per
+ * agent. The agents behave as in {@link SchellingModelFactory}, but the
+ * tolerance threshold and the vision radius are shared by all the agents and
+ * set as parameters of the model; every population moves its unhappy agents
+ * in one loop over its columns.
+ */
+public final class ColumnarSchellingModelFactory implements ModelFactory {
+
+    private static final long serialVersionUID = 1L;
+    private static final String MODEL_ID = "Schelling (columnar)";
+    private static final String[] TYPES = { "A", "B" };
+    private static final ParameterSlot<Double> CURRENT_RATIO_SLOT = ParameterSlot.of(
+            SchellingsAgentFactory.CURRENT_RATIO, Double.class);
+
+    @Override
+    public String getModelId() {
+        return MODEL_ID;
+    }
+
+    private static <T extends Serializable> T get(final Parameters parameters, final String key,
+            final Class<T> type) {
+        return parameters.getParameter(key, type)
+                .orElseThrow(() -> new IllegalArgumentException("Missing parameter " + key))
+                .getValue();
+    }
+
+    private static ColumnarWorld initializer(final Parameters parameters) {
+        final int size = get(parameters, Model.SIZEKEY, Integer.class);
+        final int[] counts = {
+            get(parameters, "numeroAgentiTipoA", Integer.class),
+            get(parameters, "numeroAgentiTipoB", Integer.class),
+        };
+        if ((long) size * size < (long) counts[0] + counts[1]) {
+            throw new IllegalArgumentException("The number of agents is greater than the size of the grid");
+        }
+        final double threshold = get(parameters, "threshold", Double.class);
+        final int visionRadius = get(parameters, "visionRadius", Integer.class);
+        final SplitMixRandom random = new SplitMixRandom(get(parameters, Model.SEEDKEY, Long.class));
+        final ColumnarWorld world = new ColumnarWorld(size, size);
+        final Parameters template = new ParametersImpl();
+        template.addParameter(new ParameterImpl<>(SchellingsAgentFactory.CURRENT_RATIO, 0d, false));
+        for (int t = 0; t < TYPES.length; t++) {
+            final Population population = world.addPopulation(TYPES[t], template,
+                    strategy(threshold, visionRadius, random.split()));
+            for (int i = 0; i < counts[t]; i++) {
+                final int cell = world.randomFreeCell(random);
+                population.add(cell % size, cell / size);
+            }
+        }
+        return world;
+    }
+
+    private static ColumnarStrategy strategy(final double threshold, final int visionRadius,
+            final SplitMixRandom random) {
+        return (world, population) -> {
+            final double[] ratios = population.doubleColumn(CURRENT_RATIO_SLOT);
+            final int code = population.getCode();
+            for (int row = 0; row < population.size(); row++) {
+                final int x = population.getX(row);
+                final int y = population.getY(row);
+                int neighbours = 0;
+                int same = 0;
+                for (int dy = -visionRadius; dy <= visionRadius; dy++) {
+                    for (int dx = -visionRadius; dx <= visionRadius; dx++) {
+                        final int other = world.getOccupantCode(x + dx, y + dy);
+                        if ((dx != 0 || dy != 0) && other >= 0) {
+                            neighbours++;
+                            if (other == code) {
+                                same++;
+                            }
+                        }
+                    }
+                }
+                final double ratio = neighbours == 0 ? 0d : same / (double) neighbours;
+                ratios[row] = ratio;
+                if (neighbours > 0 && ratio < threshold) {
+                    final int cell = world.randomFreeCell(random);
+                    if (cell >= 0) {
+                        population.move(row, cell % world.getWidth(), cell / world.getWidth());
+                    }
+                }
+            }
+        };
+    }
+
+    private static DoubleSummaryStatistics ratios(final ColumnarWorld world, final String type) {
+        final DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        world.getPopulation(type).ifPresent(population -> {
+            final double[] ratios = population.doubleColumn(CURRENT_RATIO_SLOT);
+            for (int row = 0; row < population.size(); row++) {
+                statistics.accept(ratios[row]);
+            }
+        });
+        return statistics;
+    }
+
+    private static String average(final DoubleSummaryStatistics statistics) {
+        return statistics.getCount() > 0 ? String.valueOf(statistics.getAverage()) : "";
+    }
+
+    private static Statistics statistics(final ColumnarWorld world) {
+        final DoubleSummaryStatistics va = ratios(world, TYPES[0]);
+        final DoubleSummaryStatistics vb = ratios(world, TYPES[1]);
+        final DoubleSummaryStatistics vTot = new DoubleSummaryStatistics();
+        vTot.combine(va);
+        vTot.combine(vb);
+        final List<Pair<String, String>> values = List.of(new Pair<>("Avg total ratio:", average(vTot)),
+                new Pair<>("Avg A ratio:", average(va)),
+                new Pair<>("Avg B ratio:", average(vb)));
+        return () -> values;
+    }
+
+    /**
+     * Returns a columnar schelling model, before calling initialize you
+     * should set:
+     * numeroAgentiTipoA (integer)
+     * numeroAgentiTipoB (integer)
+     * threshold (double)
+     * visionRadius (integer)
+     * size (integer).
+     *
+     * @return a columnar schelling model
+     */
+    @Override
+    public Model getModel() {
+        return new ModelBuilderImpl()
+                .addParameter(new ParameterImpl<>("numeroAgentiTipoA", Integer.class,
+                        new ParameterDomainImpl<>(
+                                "Numero di agenti del primo tipo (0-n)",
+                                (Integer i) -> i >= 0),
+                        true))
+                .addParameter(new ParameterImpl<>("numeroAgentiTipoB", Integer.class,
+                        new ParameterDomainImpl<>(
+                                "Numero di agenti del secondo tipo (0-n)",
+                                (Integer i) -> i >= 0),
+                        true))
+                .addParameter(new ParameterImpl<>("threshold", Double.class,
+                        new ParameterDomainImpl<>(
+                                "Treshold di tolleranza degli agenti (0.0-1.0)",
+                                (Double d) -> d >= 0.0 && d <= 1.0),
+                        true))
+                .addParameter(new ParameterImpl<>("visionRadius", Integer.class,
+                        new ParameterDomainImpl<>(
+                                "Raggio di visione degli agenti (1-n)",
+                                (Integer i) -> i > 0),
+                        true))
+                .addParameter(new ParameterImpl<>(
+                        Model.SIZEKEY, Integer.class,
+                        new ParameterDomainImpl<>(
+                                "Dimensione della griglia (1-n)",
+                                (Integer i) -> i > 0),
+                        true))
+                // the world is ticked in place: it is over when no agent moved in the last tick
+                .addExitFunction((o, n) -> ColumnarWorld.of(n).map(w -> w.changesInLastTick() == 0).orElse(true))
+                .addColumnarInitFunction(ColumnarSchellingModelFactory::initializer)
+                .addStatisticsGenerator(s -> ColumnarWorld.of(s)
+                        .map(ColumnarSchellingModelFactory::statistics)
+                        .orElse(List::of))
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package it.unibo.ares.core.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The thread pools the models tick their agents on, shared by all the models
+ * with the same parallelism.
+ */
+final class EnginePools {
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private EnginePools() {
+    }
+
+    /**
+     * @param parallelism the number of threads, 0 for one per processor
+     * @return the number of threads
+     * @throws IllegalArgumentException if the parallelism is negative
+     */
+    static int threads(final int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism cannot be negative");
+        }
+        return parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @param parallelism the number of threads, 0 for one per processor
+     * @return the pool with that many threads
+     * @throws IllegalArgumentException if the parallelism is negative
+     */
+    static ForkJoinPool of(final int parallelism) {
+        return POOLS.computeIfAbsent(threads(parallelism), ForkJoinPool::new);
+    }
+}
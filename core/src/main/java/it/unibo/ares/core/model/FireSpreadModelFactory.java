@@ -9,6 +9,7 @@ import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 
@@ -61,14 +62,16 @@ public class FireSpreadModelFactory implements ModelFactory {
         }
         final Double veg = parameters.getParameter("vegetation", Double.class).get().getValue();
         final Integer nt = (int) ((total - nf) * veg);
-        final State state = new StateImpl(size, size);
+        final State state = new StateImpl(size, size, StateImpl.Storage.PERSISTENT);
         final List<Pos> validPositions = IntStream.range(0, size).boxed()
                 .flatMap(i -> IntStream.range(0, size).mapToObj(j -> new PosImpl(i, j)))
                 .map(Pos.class::cast)
                 .toList();
-        final UniquePositionGetter getter = new UniquePositionGetter(validPositions);
+        final SplitMixRandom random = new SplitMixRandom(parameters.getParameter(Model.SEEDKEY, Long.class)
+                .orElseThrow(IllegalAccessException::new).getValue());
+        final UniquePositionGetter getter = new UniquePositionGetter(validPositions, random.split());
 
-        final FireAgentFactory fireAgentFactory = new FireAgentFactory();
+        final FireAgentFactory fireAgentFactory = new FireAgentFactory(random.split());
         Stream
                 .generate(fireAgentFactory::createAgent)
                 .limit(nf)
@@ -107,9 +110,7 @@ public class FireSpreadModelFactory implements ModelFactory {
                         new ParameterDomainImpl<>("Dimensione della griglia (1-n)",
                                 (Integer n) -> n > 0),
                         true))
-                .addExitFunction((o, n) -> n.getAgents().stream()
-                        .map(a -> a.getSecond().getType()).distinct()
-                        .allMatch(t -> !"F".equals(t)))
+                .addExitFunction((o, n) -> n.countByType("F") == 0)
                 .addInitFunction(t -> {
                     try {
                         return fireSpreadInitializer(t);
@@ -118,6 +119,10 @@ public class FireSpreadModelFactory implements ModelFactory {
                                 "Missing parameters for the model initialization");
                     }
                 })
+                .enableDoubleBuffering()
+                // alberi e agenti estinti non fanno nulla, cambiano solo quando il fuoco li trasforma
+                .addTickPeriod("T", 0, 0)
+                .addTickPeriod("E", 0, 0)
                 .build();
     }
 }
@@ -14,6 +14,12 @@ public interface Model extends Serializable {
      * Key that anyone should use to represent the size of the board.
      */
     String SIZEKEY = "size";
+    /**
+     * Key of the seed of the random generators of the model, every model has
+     * one: simulations initialized with the same parameters and seed evolve
+     * in the same way.
+     */
+    String SEEDKEY = "seed";
 
     /**
      * Performs a tick of the model, updating the simulation enviroment state based
@@ -24,6 +30,31 @@ public interface Model extends Serializable {
      */
     State tick(State state);
 
+    /**
+     * Performs a tick of the model that covers at most the given number of
+     * ticks of model time, so a model that skips idle ticks stops short of
+     * the next event rather than going past the limit.
+     *
+     * @param state     the current state of the enviroment
+     * @param maxLength the most ticks of model time the tick can cover, at
+     *                  least one
+     * @return the updated state of the enviroment
+     */
+    default State tick(State state, long maxLength) {
+        return tick(state);
+    }
+
+    /**
+     * Tells how many ticks of model time the last call to {@link #tick(State)}
+     * or {@link #tick(State, long)} covered: one, unless the model skips the
+     * ticks in which no agent acts.
+     *
+     * @return the number of ticks covered by the last tick
+     */
+    default long getLastTickLength() {
+        return 1;
+    }
+
     /**
      * Gets the parameters of the model.
      *
@@ -58,7 +89,8 @@ public interface Model extends Serializable {
     State initilize();
 
     /**
-     * Ritorna le eventuali statistiche.
+     * Ritorna le eventuali statistiche, calcolate subito: restano valide anche
+     * dopo che un tick successivo ha riscritto lo stato.
      * 
      * @param s lo stato su cui calcolarle
      * @return the statistics
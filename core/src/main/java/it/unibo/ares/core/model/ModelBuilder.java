@@ -1,9 +1,12 @@
 package it.unibo.ares.core.model;
 
+import it.unibo.ares.core.agent.columnar.ColumnarWorld;
+import it.unibo.ares.core.utils.lambda.SerializableBiFunction;
 import it.unibo.ares.core.utils.lambda.SerializableBiPredicate;
 import it.unibo.ares.core.utils.lambda.SerializableFunction;
 import it.unibo.ares.core.utils.parameters.Parameter;
 import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.statistics.StatisticsGenerator;
 
@@ -54,6 +57,24 @@ interface ModelBuilder extends Serializable {
      */
     ModelBuilder addInitFunction(SerializableFunction<Parameters, State> initFunction);
 
+    /**
+     * Makes the model run on the columnar runtime: the initial state is the
+     * view of the {@link ColumnarWorld} built by the function, and a tick
+     * runs the strategies of its populations in place instead of ticking
+     * agents on a copy of the state. The exit function is therefore given the
+     * same state, after the tick, twice; it can ask the world what changed
+     * through {@link ColumnarWorld#changesInLastTick()}. The options about how
+     * single agents tick, such as double buffering, the interaction radius,
+     * the update mode, parallelism, dormancy, discrete events and tick
+     * periods, cannot be combined with it.
+     * The parameters of the agents are copies of their columns, so what the
+     * user sets should be a parameter of the model read by the strategies.
+     *
+     * @param initFunction builds the world of the model from its parameters
+     * @return the model builder itself
+     */
+    ModelBuilder addColumnarInitFunction(SerializableFunction<Parameters, ColumnarWorld> initFunction);
+
     /**
      * Aggiunge il generatore per permettere al modello di generare statistiche.
      * 
@@ -61,4 +82,121 @@ interface ModelBuilder extends Serializable {
      * @return the model builder itself
      */
     ModelBuilder addStatisticsGenerator(StatisticsGenerator generator);
+
+    /**
+     * Makes the model tick on two buffers: the state returned by a tick is
+     * written over the storage of the state given to the previous tick instead
+     * of a brand new copy. The state passed to a tick therefore stays valid
+     * only until the following tick, which is all the simulation needs to
+     * check whether it is over; the statistics of a state are computed when
+     * they are asked for, so they do not depend on the state afterwards.
+     *
+     * @return the model builder itself
+     */
+    ModelBuilder enableDoubleBuffering();
+
+    /**
+     * Declares how far from its cell an agent of the model can read or write
+     * the state during its tick, which lets the engine tick agents far enough
+     * apart at the same time. The radius is computed on the state at the
+     * beginning of every tick, so it can depend on the parameters of the
+     * agents; a negative radius makes the tick sequential.
+     * Agents must also not share any mutable state outside the cells within
+     * the radius, such as a source of randomness.
+     *
+     * @param radius the function computing the interaction radius.
+     * @return the model builder itself
+     */
+    ModelBuilder addInteractionRadius(SerializableFunction<State, Integer> radius);
+
+    /**
+     * Sets how the agents of a model with an interaction radius are ticked in
+     * parallel, instead of reading the engine options from the
+     * configuration.
+     *
+     * @param parallelism the number of threads, 1 to tick sequentially and 0
+     *                    for one per processor.
+     * @param partitions  the number of tiles the grid is split into, 0 to
+     *                    choose it from the number of threads.
+     * @return the model builder itself
+     * @throws IllegalArgumentException if a value is negative.
+     */
+    ModelBuilder enableParallelism(int parallelism, int partitions);
+
+    /**
+     * Sets how the agents see each other's changes during a tick, by default
+     * {@link UpdateMode#SEQUENTIAL}. In the synchronous modes the
+     * interaction radius is not used.
+     *
+     * @param mode the update mode.
+     * @return the model builder itself
+     */
+    ModelBuilder setUpdateMode(UpdateMode mode);
+
+    /**
+     * Lets the agents of a type sleep while they have nothing to do, so that
+     * the sequential tick visits only the agents that are awake. After an
+     * agent of the type ticked, or a cell close to it changed, the predicate
+     * tells whether it can sleep; a sleeping agent is woken up when a cell
+     * within the wake radius is written or an agent within the radius ticks,
+     * and ticks again in the same tick if it comes later in the order of the
+     * cells. An agent can sleep only if ticking it would change nothing as
+     * long as nothing happens within the radius.
+     *
+     * @param type       the type of the agents.
+     * @param dormant    whether the agent at a position of a state can sleep.
+     * @param wakeRadius how far from the agent a change wakes it up.
+     * @param wakeAfter  how many ticks the agent sleeps at most, 0 to sleep
+     *                   until something wakes it up.
+     * @return the model builder itself
+     * @throws IllegalArgumentException if the radius or the period is
+     *                                  negative.
+     */
+    ModelBuilder addDormancy(String type, SerializableBiPredicate<State, Pos> dormant, int wakeRadius,
+            int wakeAfter);
+
+    /**
+     * Lets the agents of a type schedule when they act next, like
+     * {@link #addDormancy}: after an agent of the type ticked, or a cell close
+     * to it changed, the function tells in how many ticks it has something to
+     * do, and the agent sleeps until then unless something within the wake
+     * radius wakes it up earlier. The ticks in between must change nothing.
+     *
+     * @param type       the type of the agents.
+     * @param nextEvent  in how many ticks the agent at a position of a state
+     *                   acts again: 0 to stay awake, a negative number to
+     *                   sleep until something wakes it up.
+     * @param wakeRadius how far from the agent a change wakes it up.
+     * @return the model builder itself
+     * @throws IllegalArgumentException if the radius is negative.
+     */
+    ModelBuilder addSchedule(String type, SerializableBiFunction<State, Pos, Integer> nextEvent, int wakeRadius);
+
+    /**
+     * Lets the model skip the idle ticks: when no agent is awake at the
+     * beginning of a tick, the tick jumps straight to the first tick in which
+     * some agent is scheduled to act, or as far as
+     * {@link Model#tick(State, long)} allows, as told by
+     * {@link Model#getLastTickLength()}. While some agent is awake the model
+     * still goes tick by tick. Only the sequential update uses the calendar of
+     * the agents, the other ones tick every agent.
+     *
+     * @return the model builder itself
+     */
+    ModelBuilder enableDiscreteEvents();
+
+    /**
+     * Makes the agents of a type tick only every given number of ticks,
+     * whatever the update mode. The ticks of the model are numbered from 0
+     * and the agents tick at the phase, then every period; with a period of
+     * 0 they never tick. The other agents still tick at every tick.
+     *
+     * @param type   the type of the agents.
+     * @param period every how many ticks the agents tick, 0 for never.
+     * @param phase  the first tick the agents tick at, less than the period.
+     * @return the model builder itself
+     * @throws IllegalArgumentException if a value is negative or the phase
+     *                                  is not less than a positive period.
+     */
+    ModelBuilder addTickPeriod(String type, int period, int phase);
 }
@@ -1,21 +1,29 @@
 package it.unibo.ares.core.model;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.TypeCodes;
+import it.unibo.ares.core.agent.columnar.ColumnarWorld;
+import it.unibo.ares.core.utils.configservice.ConfigServiceImpl;
 import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.lambda.SerializableBiFunction;
 import it.unibo.ares.core.utils.lambda.SerializableBiPredicate;
 import it.unibo.ares.core.utils.lambda.SerializableFunction;
 import it.unibo.ares.core.utils.parameters.Parameter;
+import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.parameters.ParametersImpl;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.statistics.Statistics;
 import it.unibo.ares.core.utils.statistics.StatisticsGenerator;
 
 import java.io.Serializable;
 import java.util.Collections;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @SuppressFBWarnings(value = {
         "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR"
@@ -28,6 +36,15 @@ final class ModelBuilderImpl implements ModelBuilder {
     private SerializableBiPredicate<State, State> exitfFunction;
     private SerializableFunction<Parameters, State> initFunction;
     private transient StatisticsGenerator generator;
+    private boolean doubleBuffered;
+    private SerializableFunction<State, Integer> interactionRadius;
+    private Integer parallelism;
+    private Integer partitions;
+    private UpdateMode updateMode;
+    private Map<String, ActivityScheduler.Dormancy> dormancies;
+    private boolean discreteEvents;
+    private TickPeriods periods;
+    private boolean columnar;
 
     ModelBuilderImpl() {
         reset();
@@ -39,6 +56,15 @@ final class ModelBuilderImpl implements ModelBuilder {
         this.exitfFunction = null;
         this.initFunction = null;
         this.generator = null;
+        this.doubleBuffered = false;
+        this.interactionRadius = null;
+        this.parallelism = null;
+        this.partitions = null;
+        this.updateMode = UpdateMode.SEQUENTIAL;
+        this.dormancies = new HashMap<>();
+        this.discreteEvents = false;
+        this.periods = new TickPeriods();
+        this.columnar = false;
     }
 
     @Override
@@ -74,22 +100,142 @@ final class ModelBuilderImpl implements ModelBuilder {
         if (initFunction == null) {
             throw new IllegalStateException("Init function not set");
         }
+        if (columnar && (doubleBuffered || interactionRadius != null || updateMode != UpdateMode.SEQUENTIAL
+                || parallelism != null || discreteEvents || !dormancies.isEmpty() || !periods.isEmpty())) {
+            throw new IllegalStateException("The columnar runtime ticks populations, not single agents");
+        }
+        if (parameters.getParameter(Model.SEEDKEY, Long.class).isEmpty()) {
+            parameters.addParameter(new ParameterImpl<>(Model.SEEDKEY, SplitMixRandom.randomSeed(), false));
+        }
+        final boolean useBuffers = doubleBuffered;
+        final SerializableFunction<State, Integer> radius = interactionRadius;
+        final UpdateMode mode = updateMode;
+        final boolean skipIdle = discreteEvents;
+        final TickPeriods tickPeriods = periods;
+        final boolean populations = columnar;
+        final Map<Integer, ActivityScheduler.Dormancy> rules = new HashMap<>();
+        dormancies.forEach((type, dormancy) -> rules.put(TypeCodes.of(type), dormancy));
+        final int threads;
+        final int tiles;
+        if (radius == null && mode != UpdateMode.SYNCHRONOUS_CONCURRENT) {
+            threads = 1;
+            tiles = 0;
+        } else {
+            threads = parallelism == null ? ConfigServiceImpl.getInstance().getParallelism() : parallelism;
+            tiles = partitions == null ? ConfigServiceImpl.getInstance().getPartitions() : partitions;
+        }
         return new Model() {
+            private transient State backBuffer;
+            private transient TileScheduler scheduler;
+            private transient TwoPhaseUpdate twoPhase;
+            private transient ActivityScheduler activity;
+            private long lastTickLength = 1;
+            private long clock;
+
+            private boolean isDue(final int type) {
+                return tickPeriods.isDue(type, clock);
+            }
+
+            private void tickSequentially(final State state, final State newState, final long maxLength) {
+                if (rules.isEmpty() && tickPeriods.isEmpty()) {
+                    // the old state is never written during the tick, it can be visited in place
+                    state.forEachAgent((pos, agent) -> TileScheduler.tickIfPresent(newState, newState, pos, agent));
+                    return;
+                }
+                tickActive(state, newState, maxLength);
+            }
+
+            /**
+             * Ticks only the agents that are awake, in parallel tiles when the
+             * model allows it, skipping at most the given number of ticks.
+             */
+            private void tickActive(final State state, final State newState, final long maxLength) {
+                if (activity == null) {
+                    activity = new ActivityScheduler(rules, tickPeriods, skipIdle);
+                }
+                lastTickLength = activity.tick(state, newState, tileScheduler(),
+                        radius == null ? -1 : radius.apply(state), maxLength);
+            }
+
+            private Optional<TileScheduler> tileScheduler() {
+                if (threads == 1 || radius == null) {
+                    return Optional.empty();
+                }
+                if (scheduler == null) {
+                    scheduler = new TileScheduler(threads, tiles);
+                }
+                return Optional.of(scheduler);
+            }
+
+            private void tickInTwoPhases(final State state, final State newState) {
+                if (twoPhase == null) {
+                    twoPhase = new TwoPhaseUpdate(mode == UpdateMode.SYNCHRONOUS_CONCURRENT && threads != 1
+                            ? Optional.of(EnginePools.of(threads))
+                            : Optional.empty());
+                }
+                twoPhase.tick(state, newState, this::isDue);
+            }
+
+            private boolean tickInParallel(final State state, final State newState) {
+                return tileScheduler()
+                        .map(s -> s.tick(state, newState, radius.apply(state), this::isDue))
+                        .orElse(false);
+            }
+
+            private State nextBuffer(final State state) {
+                if (!useBuffers) {
+                    return state.copy();
+                }
+                State next = backBuffer;
+                if (next == null || next == state) {
+                    next = state.copy();
+                } else {
+                    try {
+                        state.copyInto(next);
+                    } catch (final IllegalArgumentException e) {
+                        next = state.copy();
+                    }
+                }
+                backBuffer = state;
+                return next;
+            }
 
             @Override
             public State tick(final State state) {
-                final Set<Pair<Pos, Agent>> agents = state.getAgents();
-                final State newState = state.copy();
-                for (final Pair<Pos, Agent> pair : agents) {
-                    final Agent agent = pair.getSecond();
-                    final Pos pos = pair.getFirst();
-                    if (newState.getAgentAt(pos).isPresent() && newState.getAgentAt(pos).get().equals(agent)) {
-                        agent.tick(newState, pos);
-                    }
+                return tick(state, Long.MAX_VALUE);
+            }
+
+            @Override
+            public State tick(final State state, final long maxLength) {
+                if (maxLength < 1) {
+                    throw new IllegalArgumentException("A tick must cover at least one tick");
+                }
+                lastTickLength = 1;
+                if (populations) {
+                    ColumnarWorld.of(state)
+                            .orElseThrow(() -> new IllegalArgumentException("The state is not a columnar world"))
+                            .tick();
+                    clock++;
+                    return state;
                 }
+                final State newState = nextBuffer(state);
+                if (mode != UpdateMode.SEQUENTIAL) {
+                    tickInTwoPhases(state, newState);
+                } else if (!rules.isEmpty()) {
+                    // sleeping agents must stay asleep, also when ticking in parallel
+                    tickActive(state, newState, maxLength);
+                } else if (!tickInParallel(state, newState)) {
+                    tickSequentially(state, newState, maxLength);
+                }
+                clock += lastTickLength;
                 return newState;
             }
 
+            @Override
+            public long getLastTickLength() {
+                return lastTickLength;
+            }
+
             @Override
             public Parameters getParameters() {
                 return parameters;
@@ -112,7 +258,12 @@ final class ModelBuilderImpl implements ModelBuilder {
 
             @Override
             public Statistics getStatistics(final State s) {
-                return generator == null ? Collections::emptyList : generator.generate(s);
+                if (generator == null) {
+                    return Collections::emptyList;
+                }
+                // with double buffering the state is overwritten two ticks later, so the values are taken now
+                final List<Pair<String, String>> values = List.copyOf(generator.generate(s).getStatistics());
+                return () -> values;
             }
 
         };
@@ -124,14 +275,94 @@ final class ModelBuilderImpl implements ModelBuilder {
             throw new IllegalArgumentException("Init function cannot be null");
         }
         this.initFunction = initFunction;
+        this.columnar = false;
 
         return this;
     }
 
+    @Override
+    public ModelBuilder addColumnarInitFunction(final SerializableFunction<Parameters, ColumnarWorld> initFunction) {
+        if (initFunction == null) {
+            throw new IllegalArgumentException("Init function cannot be null");
+        }
+        this.initFunction = p -> initFunction.apply(p).asState();
+        this.columnar = true;
+        return this;
+    }
+
     @Override
     public ModelBuilder addStatisticsGenerator(final StatisticsGenerator generator) {
         this.generator = generator;
         return this;
     }
 
+    @Override
+    public ModelBuilder enableDoubleBuffering() {
+        this.doubleBuffered = true;
+        return this;
+    }
+
+    @Override
+    public ModelBuilder addInteractionRadius(final SerializableFunction<State, Integer> radius) {
+        if (radius == null) {
+            throw new IllegalArgumentException("Interaction radius cannot be null");
+        }
+        this.interactionRadius = radius;
+        return this;
+    }
+
+    @Override
+    public ModelBuilder enableParallelism(final int parallelism, final int partitions) {
+        if (parallelism < 0 || partitions < 0) {
+            throw new IllegalArgumentException("Parallelism and partitions cannot be negative");
+        }
+        this.parallelism = parallelism;
+        this.partitions = partitions;
+        return this;
+    }
+
+    @Override
+    public ModelBuilder setUpdateMode(final UpdateMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Update mode cannot be null");
+        }
+        this.updateMode = mode;
+        return this;
+    }
+
+    @Override
+    public ModelBuilder addDormancy(final String type, final SerializableBiPredicate<State, Pos> dormant,
+            final int wakeRadius, final int wakeAfter) {
+        if (type == null || dormant == null) {
+            throw new IllegalArgumentException("Type and dormancy predicate cannot be null");
+        }
+        this.dormancies.put(type, new ActivityScheduler.Dormancy(dormant, wakeRadius, wakeAfter));
+        return this;
+    }
+
+    @Override
+    public ModelBuilder addSchedule(final String type, final SerializableBiFunction<State, Pos, Integer> nextEvent,
+            final int wakeRadius) {
+        if (type == null || nextEvent == null) {
+            throw new IllegalArgumentException("Type and schedule cannot be null");
+        }
+        this.dormancies.put(type, new ActivityScheduler.Dormancy(nextEvent, wakeRadius));
+        return this;
+    }
+
+    @Override
+    public ModelBuilder enableDiscreteEvents() {
+        this.discreteEvents = true;
+        return this;
+    }
+
+    @Override
+    public ModelBuilder addTickPeriod(final String type, final int period, final int phase) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        this.periods.set(TypeCodes.of(type), period, phase);
+        return this;
+    }
+
 }
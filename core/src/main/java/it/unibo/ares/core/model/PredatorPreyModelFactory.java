@@ -9,6 +9,7 @@ import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 
@@ -43,13 +44,15 @@ public final class PredatorPreyModelFactory implements ModelFactory {
         if (size * size < numAgentsPrey + numAgentsPredator) {
             throw new IllegalArgumentException("The number of agents is greater than the size of the grid");
         }
-        final State state = new StateImpl(size, size);
+        final State state = new StateImpl(size, size, (long) numAgentsPrey + numAgentsPredator);
 
         final List<Pos> validPositions = IntStream.range(0, size).boxed()
                 .flatMap(i -> IntStream.range(0, size).mapToObj(j -> new PosImpl(i, j)))
                 .collect(Collectors.toList());
 
-        final UniquePositionGetter getter = new UniquePositionGetter(validPositions);
+        final SplitMixRandom random = new SplitMixRandom(parameters.getParameter(Model.SEEDKEY, Long.class)
+                .orElseThrow(IllegalAccessException::new).getValue());
+        final UniquePositionGetter getter = new UniquePositionGetter(validPositions, random.split());
         final AgentFactory predatorFactory = new PredatorAgentFactory();
         final AgentFactory preyFactory = new PreyAgentFactory();
 
@@ -79,8 +82,7 @@ public final class PredatorPreyModelFactory implements ModelFactory {
                                 (Integer n) -> n >= 0),
                         true))
                 .addExitFunction(
-                        (o, n) -> n.getAgents().stream().map(a -> a.getSecond().getType())
-                                .distinct().count() < 2 || o.equals(n))
+                        (o, n) -> n.getAgentTypes().size() < 2 || o.equals(n))
                 .addInitFunction(t -> {
                     try {
                         return predatorPreyInitializer(t);
@@ -89,6 +91,8 @@ public final class PredatorPreyModelFactory implements ModelFactory {
                                 "Missing parameters for the model initialization");
                     }
                 })
+                .enableDoubleBuffering()
+                .setUpdateMode(UpdateMode.SYNCHRONOUS_CONCURRENT)
                 .build();
     }
 }
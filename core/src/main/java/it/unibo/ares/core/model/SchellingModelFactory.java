@@ -12,14 +12,15 @@ import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 import it.unibo.ares.core.utils.statistics.Statistics;
 import it.unibo.ares.core.utils.statistics.StatisticsGenerator;
 
+import java.util.DoubleSummaryStatistics;
 import java.util.List;
 import java.util.Optional;
-import java.util.OptionalDouble;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -39,50 +40,35 @@ public final class SchellingModelFactory implements ModelFactory {
         GENERATOR = s -> new Statistics() {
             @Override
             public List<Pair<String, String>> getStatistics() {
-                final OptionalDouble vTot = s.getAgents().stream().parallel()
-                        .map(Pair::getSecond)
-                        .map(Agent::getParameters)
-                        .map(p -> p.getParameter(SchellingsAgentFactory.CURRENT_RATIO,
-                                Double.class))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .map(Parameter::getOptionalValue)
-                        .filter(Optional::isPresent)
-                        .mapToDouble(Optional::get)
-                        .average();
-                final OptionalDouble va = s.getAgents().stream().parallel()
-                        .map(Pair::getSecond)
-                        .filter(a -> "A".equals(a.getType()))
-                        .map(Agent::getParameters)
-                        .map(p -> p.getParameter(SchellingsAgentFactory.CURRENT_RATIO,
-                                Double.class))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .map(Parameter::getOptionalValue)
-                        .filter(Optional::isPresent)
-                        .mapToDouble(Optional::get).average();
-
-                final OptionalDouble vb = s.getAgents().stream().parallel()
-                        .map(Pair::getSecond)
-                        .filter(a -> "B".equals(a.getType()))
-                        .map(Agent::getParameters)
-                        .map(p -> p.getParameter(SchellingsAgentFactory.CURRENT_RATIO,
-                                Double.class))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .map(Parameter::getOptionalValue)
-                        .filter(Optional::isPresent)
-                        .mapToDouble(Optional::get).average();
-                final String out = vTot.isPresent() ? String.valueOf(vTot.getAsDouble()) : "";
-                final String outA = va.isPresent() ? String.valueOf(va.getAsDouble()) : "";
-                final String outB = vb.isPresent() ? String.valueOf(vb.getAsDouble()) : "";
-                return List.of(new Pair<>("Avg total ratio:", out),
-                        new Pair<>("Avg A ratio:", outA),
-                        new Pair<>("Avg B ratio:", outB));
+                final DoubleSummaryStatistics va = ratios(s, "A");
+                final DoubleSummaryStatistics vb = ratios(s, "B");
+                final DoubleSummaryStatistics vTot = new DoubleSummaryStatistics();
+                vTot.combine(va);
+                vTot.combine(vb);
+                return List.of(new Pair<>("Avg total ratio:", average(vTot)),
+                        new Pair<>("Avg A ratio:", average(va)),
+                        new Pair<>("Avg B ratio:", average(vb)));
             }
         };
     }
 
+    private static DoubleSummaryStatistics ratios(final State state, final String type) {
+        return state.getAgentsByType(type).stream()
+                .map(Pair::getSecond)
+                .map(Agent::getParameters)
+                .map(p -> p.getParameter(SchellingsAgentFactory.CURRENT_RATIO, Double.class))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(Parameter::getOptionalValue)
+                .filter(Optional::isPresent)
+                .mapToDouble(Optional::get)
+                .summaryStatistics();
+    }
+
+    private static String average(final DoubleSummaryStatistics statistics) {
+        return statistics.getCount() > 0 ? String.valueOf(statistics.getAverage()) : "";
+    }
+
     @Override
     public String getModelId() {
         return MODEL_ID;
@@ -104,14 +90,16 @@ public final class SchellingModelFactory implements ModelFactory {
         if (size * size < total) {
             throw new IllegalArgumentException("The number of agents is greater than the size of the grid");
         }
-        final State state = new StateImpl(size, size);
+        final State state = new StateImpl(size, size, (long) na + nb);
         final List<Pos> validPositions = IntStream.range(0, size).boxed()
                 .flatMap(i -> IntStream.range(0, size).mapToObj(j -> new PosImpl(i, j)))
                 .map(Pos.class::cast)
                 .toList();
 
-        final UniquePositionGetter getter = new UniquePositionGetter(validPositions);
-        final AgentFactory schellingFactory = new SchellingsAgentFactory();
+        final SplitMixRandom random = new SplitMixRandom(parameters.getParameter(Model.SEEDKEY, Long.class)
+                .orElseThrow(IllegalAccessException::new).getValue());
+        final UniquePositionGetter getter = new UniquePositionGetter(validPositions, random.split());
+        final AgentFactory schellingFactory = new SchellingsAgentFactory(random.split());
         final List<Agent> agents = Stream
                 .generate(schellingFactory::createAgent)
                 .limit(total)
@@ -154,8 +142,12 @@ public final class SchellingModelFactory implements ModelFactory {
                                 "Dimensione della griglia (1-n)",
                                 (Integer i) -> i > 0),
                         true))
-                .addExitFunction((o, n) -> o.getAgents().stream()
-                        .allMatch(p -> n.getAgents().stream().anyMatch(p::equals)))
+                .addExitFunction((o, n) -> {
+                    final boolean[] unchanged = {true};
+                    o.forEachAgent((pos, agent) -> unchanged[0] &= n.getAgentAt(pos)
+                            .map(agent::equals).orElse(false));
+                    return unchanged[0];
+                })
                 .addInitFunction(t -> {
                     try {
                         return schellingInitializer(t);
@@ -165,6 +157,8 @@ public final class SchellingModelFactory implements ModelFactory {
                     }
                 })
                 .addStatisticsGenerator(GENERATOR)
+                .enableDoubleBuffering()
+                .setUpdateMode(UpdateMode.SYNCHRONOUS_CONCURRENT)
                 .build();
     }
 
@@ -8,6 +8,7 @@ import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 import java.util.List;
@@ -41,13 +42,15 @@ public final class SugarscapeModelFactory implements ModelFactory {
         if (size * size < numAgentsConsumer + numAgentsSugar) {
             throw new IllegalArgumentException("The number of agents is greater than the size of the grid");
         }
-        final StateImpl state = new StateImpl(size, size);
+        final StateImpl state = new StateImpl(size, size, (long) numAgentsConsumer + numAgentsSugar);
 
         final List<Pos> validPositions = IntStream.range(0, size).boxed()
                 .flatMap(i -> IntStream.range(0, size).mapToObj(j -> new PosImpl(i, j)))
                 .collect(Collectors.toList());
 
-        final UniquePositionGetter getter = new UniquePositionGetter(validPositions);
+        final SplitMixRandom random = new SplitMixRandom(parameters.getParameter(Model.SEEDKEY, Long.class)
+                .orElseThrow(IllegalAccessException::new).getValue());
+        final UniquePositionGetter getter = new UniquePositionGetter(validPositions, random.split());
         final SugarAgentFactory sugarFactory = new SugarAgentFactory();
         final ConsumerAgentFactory consumerFactory = new ConsumerAgentFactory();
 
@@ -79,8 +82,7 @@ public final class SugarscapeModelFactory implements ModelFactory {
                                 (Integer n) -> n >= 0),
                         true))
                 .addExitFunction(
-                        (o, n) -> n.getAgents().stream().map(a -> a.getSecond().getType())
-                                .distinct().count() == 1)
+                        (o, n) -> n.getAgentTypes().size() == 1)
                 .addInitFunction(params -> {
                     try {
                         return sugarscapeInitializer(params);
@@ -89,6 +91,9 @@ public final class SugarscapeModelFactory implements ModelFactory {
                                 "Missing parameters for the model initialization");
                     }
                 })
+                .enableDoubleBuffering()
+                .addInteractionRadius(ConsumerAgentFactory::getInteractionRadius)
+                .addDormancy(SugarAgentFactory.SUGAR, SugarAgentFactory::isSaturated, 1, 0)
                 .build();
     }
 }
@@ -0,0 +1,78 @@
+package it.unibo.ares.core.model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How often the agents of each type tick. The ticks of a model are numbered
+ * from 0: an agent whose type has period p and phase f ticks at the ticks f,
+ * f + p, f + 2p and so on, an agent whose type has period 0 never ticks and
+ * an agent of any other type ticks at every tick.
+ */
+final class TickPeriods implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final Map<Integer, Integer> periods = new HashMap<>();
+    private final Map<Integer, Integer> phases = new HashMap<>();
+
+    /**
+     * Sets the period and the phase of a type.
+     *
+     * @param typeCode the code of the type
+     * @param period   every how many ticks the agents tick, 0 for never
+     * @param phase    the first tick the agents tick at, less than the period
+     * @throws IllegalArgumentException if a value is negative or the phase is
+     *                                  not less than a positive period
+     */
+    void set(final int typeCode, final int period, final int phase) {
+        if (period < 0 || phase < 0 || period > 0 && phase >= period) {
+            throw new IllegalArgumentException("The phase must be between 0 and the period, which cannot be negative");
+        }
+        periods.put(typeCode, period);
+        phases.put(typeCode, phase);
+    }
+
+    /**
+     * @return true if every agent ticks at every tick
+     */
+    boolean isEmpty() {
+        return periods.isEmpty();
+    }
+
+    /**
+     * @param typeCode the code of the type
+     * @return true if the agents of the type tick at every tick
+     */
+    boolean isEveryTick(final int typeCode) {
+        return !periods.containsKey(typeCode);
+    }
+
+    /**
+     * @param typeCode the code of the type
+     * @param tick     the number of the tick
+     * @return true if the agents of the type tick at the given tick
+     */
+    boolean isDue(final int typeCode, final long tick) {
+        final Integer period = periods.get(typeCode);
+        if (period == null) {
+            return true;
+        }
+        final int phase = phases.get(typeCode);
+        return period > 0 && tick >= phase && (tick - phase) % period == 0;
+    }
+
+    /**
+     * @param typeCode the code of the type
+     * @param tick     the number of the tick
+     * @return how many ticks after the given one the agents of the type tick
+     *         next, -1 if they never do
+     */
+    long untilDue(final int typeCode, final long tick) {
+        final int period = periods.getOrDefault(typeCode, 1);
+        if (period == 0) {
+            return -1;
+        }
+        final int phase = phases.getOrDefault(typeCode, 0);
+        return tick < phase ? phase - tick : period - (tick - phase) % period;
+    }
+}
@@ -0,0 +1,192 @@
+package it.unibo.ares.core.model;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.State;
+import it.unibo.ares.core.utils.state.SynchronizedState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Ticks the agents of a state in parallel.
+ * The grid is split into square tiles coloured like a checkerboard with four
+ * colours, so that two tiles of the same colour are always separated by a
+ * whole tile of another colour. The colours are ticked one after the other
+ * and the tiles of a colour at the same time, each by a thread of the pool.
+ * Tiles are at least twice the interaction radius of the model wide, so the
+ * agents ticked at the same time never read or write the same cells, and the
+ * agents of a tile are ticked in the order they are visited: the result is
+ * the same as ticking the tiles one by one, whatever the number of threads.
+ */
+final class TileScheduler {
+    private static final int COLOURS = 4;
+    /**
+     * How many tiles of every colour each thread gets when the number of
+     * partitions is chosen automatically, to even out crowded tiles.
+     */
+    private static final int TILES_PER_THREAD = 4;
+    private final ForkJoinPool pool;
+    private final int partitions;
+
+    /**
+     * @param parallelism the number of threads, 0 for one per processor
+     * @param partitions  the number of tiles the grid is split into, 0 to
+     *                    choose it from the number of threads
+     * @throws IllegalArgumentException if a value is negative
+     */
+    TileScheduler(final int parallelism, final int partitions) {
+        if (parallelism < 0 || partitions < 0) {
+            throw new IllegalArgumentException("Parallelism and partitions cannot be negative");
+        }
+        this.pool = EnginePools.of(parallelism);
+        this.partitions = partitions == 0
+                ? EnginePools.threads(parallelism) * TILES_PER_THREAD * COLOURS
+                : partitions;
+    }
+
+    /**
+     * Ticks an agent if it is still where it was at the beginning of the tick,
+     * that is if no other agent removed, moved or replaced it.
+     *
+     * @param newState the state being written by the tick
+     * @param target   the state given to the agent, the new state or a view
+     *                 of it
+     * @param pos      the position of the agent at the beginning of the tick
+     * @param agent    the agent
+     */
+    static void tickIfPresent(final State newState, final State target, final Pos pos, final Agent agent) {
+        if (newState.getAgentAt(pos).isPresent() && newState.getAgentAt(pos).get().equals(agent)) {
+            agent.tick(target, pos);
+        }
+    }
+
+    /**
+     * Ticks the agents of a state on the copy to be written.
+     *
+     * @param state    the state at the beginning of the tick, not written
+     * @param newState the copy of the state written by the agents
+     * @param radius   how far from its cell an agent can read or write
+     * @return false if the agents were not ticked, because the grid is too
+     *         small to be split or the new state cannot be shared between
+     *         threads
+     */
+    boolean tick(final State state, final State newState, final int radius) {
+        return tick(state, newState, radius, type -> true);
+    }
+
+    /**
+     * Ticks the agents of a state whose type is due on the copy to be
+     * written.
+     *
+     * @param state    the state at the beginning of the tick, not written
+     * @param newState the copy of the state written by the agents
+     * @param radius   how far from its cell an agent can read or write
+     * @param due      whether the agents of a type, by code, tick
+     * @return false if the agents were not ticked, because the grid is too
+     *         small to be split or the new state cannot be shared between
+     *         threads
+     */
+    boolean tick(final State state, final State newState, final int radius, final IntPredicate due) {
+        if (!canSplit(newState, radius)) {
+            return false;
+        }
+        final List<Pos> positions = new ArrayList<>();
+        final List<Agent> agents = new ArrayList<>();
+        state.forEachAgent((pos, agent) -> {
+            if (due.test(agent.getTypeCode())) {
+                positions.add(pos);
+                agents.add(agent);
+            }
+        });
+        return tick(newState, radius, positions, agents, UnaryOperator.identity());
+    }
+
+    private int sideOf(final State state, final int radius) {
+        final int width = state.getDimensions().getFirst();
+        final int height = state.getDimensions().getSecond();
+        return Math.max(2 * radius + 1, (int) Math.ceil(Math.sqrt((double) width * height / partitions)));
+    }
+
+    private boolean canSplit(final State state, final int radius) {
+        if (radius < 0 || !state.supportsConcurrentReads()) {
+            return false;
+        }
+        final int side = sideOf(state, radius);
+        return state.getDimensions().getFirst() > side || state.getDimensions().getSecond() > side;
+    }
+
+    /**
+     * Ticks the given agents on the copy to be written, through a view of it.
+     *
+     * @param newState  the copy of the state written by the agents
+     * @param radius    how far from its cell an agent can read or write
+     * @param positions the positions of the agents at the beginning of the
+     *                  tick, in the order they are ticked within a tile
+     * @param agents    the agent at the same index in positions
+     * @param view      wraps the thread-safe new state in the state given to
+     *                  the agents, which must be safe to share as well
+     * @return false if the agents were not ticked, because the grid is too
+     *         small to be split or the new state cannot be shared between
+     *         threads
+     */
+    boolean tick(final State newState, final int radius, final List<Pos> positions, final List<Agent> agents,
+            final UnaryOperator<State> view) {
+        if (!canSplit(newState, radius)) {
+            return false;
+        }
+        final int side = sideOf(newState, radius);
+        final int columns = (newState.getDimensions().getFirst() + side - 1) / side;
+        final int rows = (newState.getDimensions().getSecond() + side - 1) / side;
+        final Tile[] tiles = new Tile[columns * rows];
+        for (int i = 0; i < positions.size(); i++) {
+            final Pos pos = positions.get(i);
+            final int index = pos.y() / side * columns + pos.x() / side;
+            if (tiles[index] == null) {
+                tiles[index] = new Tile();
+            }
+            tiles[index].add(pos, agents.get(i));
+        }
+        final State shared = view.apply(new SynchronizedState(newState));
+        for (int colour = 0; colour < COLOURS; colour++) {
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int row = colour / 2; row < rows; row += 2) {
+                for (int column = colour % 2; column < columns; column += 2) {
+                    final Tile tile = tiles[row * columns + column];
+                    if (tile != null) {
+                        tasks.add(ForkJoinTask.adapt(() -> tile.tick(newState, shared)));
+                    }
+                }
+            }
+            if (tasks.size() == 1) {
+                tasks.get(0).invoke();
+            } else if (!tasks.isEmpty()) {
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The agents of a tile, in the order they were visited.
+     */
+    private static final class Tile {
+        private final List<Pos> positions = new ArrayList<>();
+        private final List<Agent> agents = new ArrayList<>();
+
+        private void add(final Pos pos, final Agent agent) {
+            positions.add(pos);
+            agents.add(agent);
+        }
+
+        private void tick(final State newState, final State shared) {
+            for (int i = 0; i < positions.size(); i++) {
+                tickIfPresent(newState, shared, positions.get(i), agents.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package it.unibo.ares.core.model;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.Entity;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.ForwardingState;
+import it.unibo.ares.core.utils.state.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ticks the agents of a state in two phases, as required by
+ * {@link UpdateMode#SYNCHRONOUS}.
+ * In the first phase every agent ticks on a view of the state at the
+ * beginning of the tick, which records the changes asked by the agent instead
+ * of making them. In the second phase the changes are made on the new state in
+ * the order the agents were visited; a change that is no longer possible is
+ * dropped, so the first agent to move to a cell gets it and an agent removed
+ * by another one does nothing else. Likewise an agent that has already moved
+ * away is no longer where the others saw it, so removing or replacing it
+ * does nothing.
+ * Agents are referred to by the position they had at the beginning of the
+ * tick, which is the position they see during the first phase.
+ */
+final class TwoPhaseUpdate {
+    /**
+     * How many agents decide one after the other in a task of the pool.
+     */
+    private static final int AGENTS_PER_TASK = 256;
+    private final Optional<ForkJoinPool> pool;
+
+    /**
+     * @param pool the pool the agents decide on, empty to decide in the
+     *             calling thread
+     */
+    TwoPhaseUpdate(final Optional<ForkJoinPool> pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Ticks the agents of a state on the copy to be written.
+     *
+     * @param state    the state at the beginning of the tick, not written
+     * @param newState the copy of the state the changes are made on
+     */
+    void tick(final State state, final State newState) {
+        tick(state, newState, type -> true);
+    }
+
+    /**
+     * Ticks the agents of a state whose type is due on the copy to be
+     * written.
+     *
+     * @param state    the state at the beginning of the tick, not written
+     * @param newState the copy of the state the changes are made on
+     * @param due      whether the agents of a type, by code, tick
+     */
+    void tick(final State state, final State newState, final IntPredicate due) {
+        final List<Pos> positions = new ArrayList<>();
+        final List<Agent> agents = new ArrayList<>();
+        state.forEachAgent((pos, agent) -> {
+            if (due.test(agent.getTypeCode())) {
+                positions.add(pos);
+                agents.add(agent);
+            }
+        });
+        final List<Proposal> proposals = new ArrayList<>();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int start = 0; start < positions.size(); start += AGENTS_PER_TASK) {
+            final int from = start;
+            final int to = Math.min(start + AGENTS_PER_TASK, positions.size());
+            final Proposal proposal = new Proposal(state);
+            proposals.add(proposal);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                for (int i = from; i < to; i++) {
+                    agents.get(i).tick(proposal, positions.get(i));
+                }
+            }));
+        }
+        if (pool.isPresent() && tasks.size() > 1) {
+            pool.get().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } else {
+            tasks.forEach(ForkJoinTask::invoke);
+        }
+        final Commit commit = new Commit(state, newState);
+        proposals.forEach(p -> p.intents.forEach(i -> i.accept(commit)));
+    }
+
+    /**
+     * Makes the recorded changes on the new state, keeping track of where the
+     * agents of the old state have moved.
+     */
+    private static final class Commit {
+        private final State state;
+        private final State newState;
+        private final Map<Pos, Pos> moved = new HashMap<>();
+
+        private Commit(final State state, final State newState) {
+            this.state = state;
+            this.newState = newState;
+        }
+
+        /**
+         * @return where the agent that was at the given position is now, empty
+         *         if it has been removed or replaced
+         */
+        private Optional<Pos> locate(final Pos pos) {
+            final Pos current = moved.getOrDefault(pos, pos);
+            final Optional<Agent> agent = state.getAgentAt(pos);
+            return agent.isPresent() && agent.equals(newState.getAgentAt(current))
+                    ? Optional.of(current)
+                    : Optional.empty();
+        }
+
+        /**
+         * @return the given position if the agent that was there is still
+         *         there, empty if it has moved, been removed or replaced
+         */
+        private Optional<Pos> stayed(final Pos pos) {
+            return moved.containsKey(pos) ? Optional.empty() : locate(pos);
+        }
+
+        private boolean isFreeForAgent(final Pos pos) {
+            return newState.isInside(pos) && newState.getAgentAt(pos).isEmpty();
+        }
+
+        private void moveAgent(final Pos from, final Pos to) {
+            locate(from).ifPresent(current -> {
+                if (!current.equals(to) && isFreeForAgent(to)) {
+                    newState.moveAgent(current, to);
+                    moved.put(from, to);
+                }
+            });
+        }
+
+        private void removeAgent(final Pos pos) {
+            stayed(pos).ifPresent(current -> newState.removeAgent(current, newState.getAgentAt(current).get()));
+        }
+
+        private void addAgent(final Pos pos, final Agent agent) {
+            if (isFreeForAgent(pos)) {
+                newState.addAgent(pos, agent);
+            }
+        }
+
+        private void replaceAgent(final Pos pos, final Agent spawned) {
+            stayed(pos).ifPresent(current -> {
+                newState.removeAgent(current, newState.getAgentAt(current).get());
+                newState.addAgent(current, spawned);
+            });
+        }
+
+        private void addEntity(final Pos pos, final Entity entity) {
+            if (newState.isInside(pos) && newState.getEntityAt(pos).isEmpty()) {
+                newState.addEntity(pos, entity);
+            }
+        }
+
+        private void removeEntity(final Pos pos, final Entity entity) {
+            if (newState.getEntityAt(pos).equals(Optional.of(entity))) {
+                newState.removeEntity(pos, entity);
+            }
+        }
+
+        private void moveEntity(final Pos from, final Pos to) {
+            if (newState.getEntityAt(from).isPresent() && newState.isInside(to)
+                    && newState.getEntityAt(to).isEmpty()) {
+                newState.moveEntity(from, to);
+            }
+        }
+    }
+
+    /**
+     * A view of the state at the beginning of the tick that records the
+     * changes asked by the agents.
+     */
+    @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED",
+            justification = "Le proposte esistono solo durante un tick e non vengono serializzate")
+    private static final class Proposal extends ForwardingState {
+        private static final long serialVersionUID = 1L;
+        private final transient List<Consumer<Commit>> intents = new ArrayList<>();
+
+        private Proposal(final State state) {
+            super(state);
+        }
+
+        private Agent agentAt(final Pos pos) {
+            return delegate().getAgentAt(pos)
+                    .orElseThrow(() -> new IllegalArgumentException("No agent at position " + pos));
+        }
+
+        private void assertInside(final Pos pos) {
+            if (!delegate().isInside(pos)) {
+                throw new IllegalArgumentException("Position " + pos + " is not inside the board");
+            }
+        }
+
+        @Override
+        public void addAgent(final Pos pos, final Agent agent) {
+            assertInside(pos);
+            intents.add(c -> c.addAgent(pos, agent));
+        }
+
+        @Override
+        public void removeAgent(final Pos pos, final Agent agent) {
+            if (!agentAt(pos).equals(agent)) {
+                throw new IllegalArgumentException("The agent is not at position " + pos);
+            }
+            intents.add(c -> c.removeAgent(pos));
+        }
+
+        @Override
+        public void moveAgent(final Pos from, final Pos to) {
+            agentAt(from);
+            assertInside(to);
+            intents.add(c -> c.moveAgent(from, to));
+        }
+
+        @Override
+        public Agent morphAgent(final Pos pos, final Agent prototype) {
+            agentAt(pos);
+            final Agent spawned = prototype.spawn();
+            intents.add(c -> c.replaceAgent(pos, spawned));
+            return spawned;
+        }
+
+        @Override
+        public void addEntity(final Pos pos, final Entity entity) {
+            assertInside(pos);
+            intents.add(c -> c.addEntity(pos, entity));
+        }
+
+        @Override
+        public void removeEntity(final Pos pos, final Entity entity) {
+            intents.add(c -> c.removeEntity(pos, entity));
+        }
+
+        @Override
+        public void moveEntity(final Pos from, final Pos to) {
+            assertInside(to);
+            intents.add(c -> c.moveEntity(from, to));
+        }
+
+        @Override
+        public Optional<Pos> getRandomFreePos(final RandomGenerator random) {
+            // the index of the free cells is built the first time it is needed
+            synchronized (delegate()) {
+                return delegate().getRandomFreePos(random);
+            }
+        }
+
+        @Override
+        public Optional<Pos> getNearestFreePos(final Pos pos) {
+            synchronized (delegate()) {
+                return delegate().getNearestFreePos(pos);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package it.unibo.ares.core.model;
+
+/**
+ * How the agents of a model see each other's changes during a tick.
+ */
+public enum UpdateMode {
+    /**
+     * The agents tick one after the other on the new state, each seeing the
+     * changes made by the agents ticked before it.
+     */
+    SEQUENTIAL,
+    /**
+     * Every agent decides what to do looking at the state at the beginning of
+     * the tick, then the decisions are applied in the order the agents were
+     * visited; a decision that is no longer possible, such as moving to a
+     * cell taken by an agent that decided before, is dropped. Agents can
+     * change their own parameters right away, but must not change those of
+     * other agents.
+     */
+    SYNCHRONOUS,
+    /**
+     * Like {@link #SYNCHRONOUS}, with the decisions taken at the same time on
+     * the pool of the engine. The strategies must not share any mutable
+     * state, such as a source of randomness, and must not read the
+     * parameters that other agents change.
+     */
+    SYNCHRONOUS_CONCURRENT
+}
@@ -13,6 +13,7 @@ import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 
@@ -78,10 +79,12 @@ public final class VirusModelFactory implements ModelFactory {
                 .toList();
 
         // Create a new state and populate it with agents at valid positions
-        final State state = new StateImpl(size, size);
-        final UniquePositionGetter getter = new UniquePositionGetter(validPositions);
-        final PVirusAgentFactory factoryP = new PVirusAgentFactory();
-        final IVirusAgentFactory factoryI = new IVirusAgentFactory();
+        final State state = new StateImpl(size, size, (long) p + pInfected);
+        final SplitMixRandom random = new SplitMixRandom(parameters.getParameter(Model.SEEDKEY, Long.class)
+                .orElseThrow(IllegalAccessException::new).getValue());
+        final UniquePositionGetter getter = new UniquePositionGetter(validPositions, random.split());
+        final PVirusAgentFactory factoryP = new PVirusAgentFactory(random.split());
+        final IVirusAgentFactory factoryI = new IVirusAgentFactory(random.split());
         for (int i = 0; i < p; i++) {
             final Agent agent = factoryP.createAgent();
             state.addAgent(getter.next(), agent);
@@ -127,8 +130,12 @@ public final class VirusModelFactory implements ModelFactory {
                                 "Dimensione della griglia (1-n)",
                                 (Integer i) -> i > 0),
                         true))
-                .addExitFunction((o, n) -> o.getAgents().stream()
-                        .allMatch(p -> n.getAgents().stream().anyMatch(p::equals)))
+                .addExitFunction((o, n) -> {
+                    final boolean[] unchanged = {true};
+                    o.forEachAgent((pos, agent) -> unchanged[0] &= n.getAgentAt(pos)
+                            .map(agent::equals).orElse(false));
+                    return unchanged[0];
+                })
                 .addInitFunction(t -> {
                     try {
                         return virusInitializer(t);
@@ -137,6 +144,8 @@ public final class VirusModelFactory implements ModelFactory {
                                 "Missing parameters for the model initialization");
                     }
                 })
+                .enableDoubleBuffering()
+                .setUpdateMode(UpdateMode.SYNCHRONOUS)
                 .build();
     }
 }
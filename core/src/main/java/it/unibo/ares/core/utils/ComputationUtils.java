@@ -1,21 +1,40 @@
 package it.unibo.ares.core.utils;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
 import it.unibo.ares.core.utils.directionvector.DirectionVector;
 import it.unibo.ares.core.utils.directionvector.DirectionVectorImpl;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
-import it.unibo.ares.core.utils.state.State;
-import it.unibo.ares.core.utils.state.StateImpl;
 
 /**
  * Utility class made to contains common static computation methods between
  * different agents.
  */
 public final class ComputationUtils {
+    /**
+     * Number of directions cone masks are quantized to, one per degree.
+     */
+    private static final int DIRECTION_BUCKETS = 360;
+    private static final double BUCKET_WIDTH = 2 * Math.PI / DIRECTION_BUCKETS;
+    /**
+     * Cones longer than this are computed on every request instead of being
+     * cached, their masks would take too much memory.
+     */
+    private static final int MAX_CACHED_DISTANCE = 32;
+    /**
+     * Tolerance on the angle test, so that cells lying exactly on the border
+     * of the cone are not excluded by rounding errors.
+     */
+    private static final double EPSILON = 1e-9;
+    private static final int KEY_SHIFT = 20;
+    private static final Map<Long, int[]> CONE_MASKS = new ConcurrentHashMap<>();
+
     private ComputationUtils() {
         throw new IllegalAccessError();
     }
@@ -32,14 +51,30 @@ public final class ComputationUtils {
      */
     public static boolean insideCone(final Pos pos, final Pos center, final DirectionVector dir, final Integer distance,
             final Integer angle) {
-        final double radAng = Math.toRadians(angle);
+        return insideCone(pos.x() - center.x(), pos.y() - center.y(),
+                dir.getNormalizedX(), dir.getNormalizedY(), distance, cosThreshold(angle));
+    }
 
-        final DirectionVector vectorToNewPoint = new DirectionVectorImpl(pos.diff(center).getX(),
-                pos.diff(center).getY());
-        final double dotProduct = dir.getNormalized().pointProduct(vectorToNewPoint.getNormalized());
-        final double radAngleBetween = Math.acos(dotProduct);
+    /**
+     * Returns the minimum cosine between the direction and a cell for the cell
+     * to be inside a cone of the given angle.
+     */
+    private static double cosThreshold(final int angle) {
+        if (angle >= 180) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return angle < 0 ? Double.POSITIVE_INFINITY : Math.cos(Math.toRadians(angle));
+    }
 
-        return radAngleBetween <= radAng && vectorToNewPoint.getMagnitude() <= distance;
+    private static boolean insideCone(final int dx, final int dy, final double dirX, final double dirY,
+            final int distance, final double cosThreshold) {
+        final double squaredMagnitude = (double) dx * dx + (double) dy * dy;
+        if (squaredMagnitude > (double) distance * distance) {
+            return false;
+        }
+        // like DirectionVectorImpl, the zero vector is given a magnitude of one
+        final double magnitude = squaredMagnitude == 0 ? 1 : Math.sqrt(squaredMagnitude);
+        return dirX * dx + dirY * dy >= cosThreshold * magnitude - EPSILON;
     }
 
     /**
@@ -61,7 +96,7 @@ public final class ComputationUtils {
      * @return The limited position.
      */
     public static Pos limit(final Pos pos, final Pair<Integer, Integer> size) {
-        return new PosImpl(limit(pos.getX(), size.getFirst()), limit(pos.getY(), size.getSecond()));
+        return new PosImpl(limit(pos.x(), size.getFirst()), limit(pos.y(), size.getSecond()));
     }
 
     /**
@@ -73,8 +108,8 @@ public final class ComputationUtils {
      * @return The new position of the agent.
      */
     public static Pos move(final Pos initialPos, final DirectionVector dir, final Integer stepSize) {
-        return new PosImpl(initialPos.getX() + dir.getNormalizedX() * stepSize,
-                initialPos.getY() + dir.getNormalizedY() * stepSize);
+        return new PosImpl(initialPos.x() + dir.getNormalizedX() * stepSize,
+                initialPos.y() + dir.getNormalizedY() * stepSize);
     }
 
     /**
@@ -83,7 +118,7 @@ public final class ComputationUtils {
      * @param r a random generator
      * @return The random direction.
      */
-    public static DirectionVectorImpl getRandomDirection(final Random r) {
+    public static DirectionVectorImpl getRandomDirection(final RandomGenerator r) {
         final int negBound = -10;
         final int posBound = 10;
         final int x = r.nextInt(negBound, posBound), y = r.nextInt(negBound, posBound);
@@ -95,6 +130,8 @@ public final class ComputationUtils {
 
     /**
      * Get all the close cells within the distance and an angle.
+     * The direction is approximated to the closest degree, so that the shape
+     * of the cone can be computed once and reused.
      * 
      * @param pos      the position
      * @param dir      the direction
@@ -106,15 +143,53 @@ public final class ComputationUtils {
             final Integer angle) {
         final int xSign = dir.getX() > 0 ? 1 : -1;
         final int ySign = dir.getY() > 0 ? 1 : -1;
+        final int width = Math.abs(pos.x() + xSign * (distance + 1));
+        final int height = Math.abs(pos.y() + ySign * (distance + 1));
 
-        final State a = new StateImpl(
-                Math.abs(pos.getX() + xSign * (distance + 1)),
-                Math.abs(pos.getY() + ySign * (distance + 1)));
+        final int[] offsets = coneOffsets(dir, distance, angle);
+        final Set<Pos> cells = new HashSet<>();
+        for (int i = 0; i < offsets.length; i += 2) {
+            final int x = pos.x() + offsets[i];
+            final int y = pos.y() + offsets[i + 1];
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                cells.add(new PosImpl(x, y));
+            }
+        }
+        return cells;
+    }
 
-        return a.getPosByPosAndRadius(pos, distance)
-                .stream()
-                .filter(p -> insideCone(p, pos, dir, distance, angle))
-                .collect(Collectors.toSet());
+    /**
+     * Returns the offsets of the cells of a cone, the center excluded, as
+     * consecutive dx, dy pairs.
+     */
+    private static int[] coneOffsets(final DirectionVector dir, final int distance, final int angle) {
+        final double dirX = dir.getNormalizedX();
+        final double dirY = dir.getNormalizedY();
+        // the zero direction gets its own bucket, -1
+        final int bucket = dirX == 0 && dirY == 0 ? -1
+                : Math.floorMod(Math.round(Math.atan2(dirY, dirX) / BUCKET_WIDTH), DIRECTION_BUCKETS);
+        if (distance > MAX_CACHED_DISTANCE || distance < 0) {
+            return buildConeMask(bucket, distance, angle);
+        }
+        final long key = ((long) distance << (2 * KEY_SHIFT)) | ((long) (angle & 0xFFFFF) << KEY_SHIFT) | (bucket + 1);
+        return CONE_MASKS.computeIfAbsent(key, k -> buildConeMask(bucket, distance, angle));
     }
 
+    private static int[] buildConeMask(final int bucket, final int distance, final int angle) {
+        final double dirX = bucket < 0 ? 0 : Math.cos(bucket * BUCKET_WIDTH);
+        final double dirY = bucket < 0 ? 0 : Math.sin(bucket * BUCKET_WIDTH);
+        final double cosThreshold = cosThreshold(angle);
+        final int side = 2 * Math.max(distance, 0) + 1;
+        final int[] buffer = new int[2 * side * side];
+        int size = 0;
+        for (int dx = -distance; dx <= distance; dx++) {
+            for (int dy = -distance; dy <= distance; dy++) {
+                if ((dx != 0 || dy != 0) && insideCone(dx, dy, dirX, dirY, distance, cosThreshold)) {
+                    buffer[size++] = dx;
+                    buffer[size++] = dy;
+                }
+            }
+        }
+        return Arrays.copyOf(buffer, size);
+    }
 }
@@ -1,14 +1,15 @@
 package it.unibo.ares.core.utils;
 
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Random;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
 /**
@@ -17,7 +18,7 @@ import java.util.stream.Stream;
  */
 public class UniquePositionGetter implements Iterator<Pos> {
     private final List<Pos> positions;
-    private final Random r;
+    private final RandomGenerator r;
     private final Set<Integer> extracted;
 
     /**
@@ -26,7 +27,17 @@ public class UniquePositionGetter implements Iterator<Pos> {
      * @param positions the list of positions to get the index.
      */
     public UniquePositionGetter(final List<Pos> positions) {
-        r = new Random();
+        this(positions, new SplitMixRandom());
+    }
+
+    /**
+     * Creates a new UniquePositionGetter drawing from the given generator.
+     *
+     * @param positions the list of positions to get the index.
+     * @param random    the random generator.
+     */
+    public UniquePositionGetter(final List<Pos> positions, final RandomGenerator random) {
+        r = random;
         this.positions = Collections.unmodifiableList(positions);
         this.extracted = new HashSet<>();
     }
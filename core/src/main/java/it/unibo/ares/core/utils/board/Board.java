@@ -6,6 +6,7 @@ import it.unibo.ares.core.utils.pos.Pos;
 import java.io.Serializable;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * A board is a 2D grid, we associate a generica entity of type V to a position
@@ -21,6 +22,20 @@ public interface Board<V extends Serializable> extends Serializable {
      */
     Set<Pair<Pos, V>> getEntities();
 
+    /**
+     * Performs an action on every entity of the board, together with its
+     * position, without collecting them. The board must not be changed while
+     * it is being visited.
+     *
+     * @param action the action to perform
+     */
+    void forEach(BiConsumer<Pos, V> action);
+
+    /**
+     * @return the number of entities on the board
+     */
+    int size();
+
     /**
      * Adds an entity to the specified position on the board.
      *
@@ -39,6 +54,16 @@ public interface Board<V extends Serializable> extends Serializable {
      */
     void removeEntity(Pos pos, V entity);
 
+    /**
+     * Replaces the entity at the specified position with another one, in a
+     * single write.
+     *
+     * @param pos    the position of the entity to replace
+     * @param entity the new entity
+     * @throws IllegalArgumentException if the position is not occupied
+     */
+    void replaceEntity(Pos pos, V entity);
+
     /**
      * Retrieves the entity at the specified position on the board, if any.
      *
@@ -47,4 +72,25 @@ public interface Board<V extends Serializable> extends Serializable {
      *         if no entity is present
      */
     Optional<V> getEntity(Pos pos);
+
+    /**
+     * Creates a copy of the board, the entities are not copied.
+     * Like {@link #copyInto(Board)}, copying can write to this board.
+     *
+     * @return a new board holding the same entities at the same positions
+     */
+    Board<V> copy();
+
+    /**
+     * Overwrites the content of the given board with the content of this one,
+     * reusing the storage of the target where possible.
+     * A board that shares its storage with its copies, such as
+     * {@link PersistentBoardImpl}, also marks its own storage as shared, so
+     * copying is a write to this board, though to none of its cells: it must
+     * not run at the same time as another write to it.
+     *
+     * @param target a board of the same kind and dimensions of this one
+     * @throws IllegalArgumentException if the target is not compatible
+     */
+    void copyInto(Board<V> target);
 }
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.io.Serializable;
 
@@ -27,6 +28,10 @@ public final class BoardImpl<V extends Serializable> implements Board<V> {
         this.entities = new HashMap<>();
     }
 
+    private BoardImpl(final Map<Pos, V> entities) {
+        this.entities = new HashMap<>(entities);
+    }
+
     /*
      * {@inheritDoc}
      */
@@ -37,6 +42,22 @@ public final class BoardImpl<V extends Serializable> implements Board<V> {
                 .collect(Collectors.toSet());
     }
 
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final BiConsumer<Pos, V> action) {
+        entities.forEach(action);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return entities.size();
+    }
+
     /*
      * {@inheritDoc}
      */
@@ -58,6 +79,16 @@ public final class BoardImpl<V extends Serializable> implements Board<V> {
         entities.remove(pos, entity);
     }
 
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceEntity(final Pos pos, final V entity) {
+        if (entities.replace(pos, entity) == null) {
+            throw new IllegalArgumentException("Position " + pos + " is not occupied");
+        }
+    }
+
     /*
      * {@inheritDoc}
      */
@@ -65,4 +96,25 @@ public final class BoardImpl<V extends Serializable> implements Board<V> {
     public Optional<V> getEntity(final Pos pos) {
         return Optional.ofNullable(entities.get(pos));
     }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Board<V> copy() {
+        return new BoardImpl<>(entities);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyInto(final Board<V> target) {
+        if (!(target instanceof BoardImpl)) {
+            throw new IllegalArgumentException("Cannot copy into a board of a different kind");
+        }
+        final BoardImpl<V> other = (BoardImpl<V>) target;
+        other.entities.clear();
+        other.entities.putAll(entities);
+    }
 }
@@ -0,0 +1,177 @@
+package it.unibo.ares.core.utils.board;
+
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosCache;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of the Board interface backed by a flat array.
+ * Every cell of a width x height grid has a slot at index {@code y * width + x},
+ * so reading or writing a position is a single array access.
+ * It is meant for grids that are small or densely populated.
+ *
+ * @param <V> the type of entities stored in the board
+ */
+public final class DenseBoardImpl<V extends Serializable> implements Board<V> {
+    private static final long serialVersionUID = 1L;
+    private final int width;
+    private final int height;
+    private final PosCache positions;
+    private final Serializable[] cells;
+    private int size;
+
+    /**
+     * Create a new board covering the given dimensions.
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     */
+    public DenseBoardImpl(final int width, final int height) {
+        this(width, height, new PosCache(width, height));
+    }
+
+    /**
+     * Create a new board covering the given dimensions, sharing the cache of
+     * the positions of the grid it belongs to.
+     *
+     * @param width     the width of the board
+     * @param height    the height of the board
+     * @param positions the positions of the grid
+     */
+    public DenseBoardImpl(final int width, final int height, final PosCache positions) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Dimensions must be non-negative");
+        }
+        this.width = width;
+        this.height = height;
+        this.positions = positions;
+        this.cells = new Serializable[Math.multiplyExact(width, height)];
+    }
+
+    private int indexOf(final Pos pos) {
+        final int x = pos.x();
+        final int y = pos.y();
+        return x >= 0 && x < width && y >= 0 && y < height ? y * width + x : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cellAt(final int index) {
+        return (V) cells[index];
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, V>> getEntities() {
+        final Set<Pair<Pos, V>> entities = new HashSet<>();
+        forEach((pos, entity) -> entities.add(new Pair<>(pos, entity)));
+        return entities;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final BiConsumer<Pos, V> action) {
+        int visited = 0;
+        for (int i = 0; i < cells.length && visited < size; i++) {
+            if (cells[i] != null) {
+                action.accept(positions.get(i % width, i / width), cellAt(i));
+                visited++;
+            }
+        }
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void addEntity(final Pos pos, final V entity) {
+        final int index = indexOf(pos);
+        if (index < 0) {
+            throw new IllegalArgumentException("Position " + pos + " is outside the board");
+        }
+        if (cells[index] != null) {
+            throw new IllegalArgumentException("Position " + pos + " is already occupied by " + cells[index]);
+        }
+        cells[index] = entity;
+        size++;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeEntity(final Pos pos, final V entity) {
+        final int index = indexOf(pos);
+        if (index < 0 || cells[index] == null) {
+            throw new IllegalArgumentException("Position " + pos + " is not occupied");
+        }
+        if (cells[index].equals(entity)) {
+            cells[index] = null;
+            size--;
+        }
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceEntity(final Pos pos, final V entity) {
+        final int index = indexOf(pos);
+        if (index < 0 || cells[index] == null) {
+            throw new IllegalArgumentException("Position " + pos + " is not occupied");
+        }
+        cells[index] = entity;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<V> getEntity(final Pos pos) {
+        final int index = indexOf(pos);
+        return index < 0 ? Optional.empty() : Optional.ofNullable(cellAt(index));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Board<V> copy() {
+        final DenseBoardImpl<V> copy = new DenseBoardImpl<>(width, height, positions);
+        copyInto(copy);
+        return copy;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyInto(final Board<V> target) {
+        if (!(target instanceof DenseBoardImpl)) {
+            throw new IllegalArgumentException("Cannot copy into a board of a different kind");
+        }
+        final DenseBoardImpl<V> other = (DenseBoardImpl<V>) target;
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Cannot copy into a board of different dimensions");
+        }
+        System.arraycopy(cells, 0, other.cells, 0, cells.length);
+        other.size = size;
+    }
+}
@@ -0,0 +1,228 @@
+package it.unibo.ares.core.utils.board;
+
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosCache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of the Board interface with structural sharing.
+ * The grid is split in chunks of {@value #CHUNK_SIDE} x {@value #CHUNK_SIDE}
+ * cells; a copy of the board shares all of its chunks with the original, and
+ * a chunk is duplicated only the first time either board writes to it. Copying
+ * costs one reference per chunk, so snapshots of a board are cheap as long as
+ * only a part of the grid changes between them.
+ * Since the chunks are then shared by both boards, {@link #copy()} and
+ * {@link #copyInto(Board)} write to the board being copied as well: its
+ * chunks stop being its own, and its next write to each of them duplicates
+ * it.
+ *
+ * @param <V> the type of entities stored in the board
+ */
+public final class PersistentBoardImpl<V extends Serializable> implements Board<V> {
+    /**
+     * The side of a chunk, in cells.
+     */
+    public static final int CHUNK_SIDE = 1 << 5;
+    private static final long serialVersionUID = 1L;
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK_MASK = CHUNK_SIDE - 1;
+    private final int width;
+    private final int height;
+    private final int chunksPerRow;
+    private final PosCache positions;
+    private final Serializable[][] chunks;
+    /**
+     * Whether the chunk at the same index belongs only to this board and can
+     * be written in place.
+     */
+    private final boolean[] owned;
+    private int size;
+
+    /**
+     * Create a new board covering the given dimensions.
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     */
+    public PersistentBoardImpl(final int width, final int height) {
+        this(width, height, new PosCache(width, height));
+    }
+
+    /**
+     * Create a new board covering the given dimensions, sharing the cache of
+     * the positions of the grid it belongs to.
+     *
+     * @param width     the width of the board
+     * @param height    the height of the board
+     * @param positions the positions of the grid
+     */
+    public PersistentBoardImpl(final int width, final int height, final PosCache positions) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Dimensions must be non-negative");
+        }
+        this.width = width;
+        this.height = height;
+        this.positions = positions;
+        this.chunksPerRow = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        final int chunkCount = Math.multiplyExact(chunksPerRow, (height + CHUNK_MASK) >> CHUNK_SHIFT);
+        this.chunks = new Serializable[chunkCount][];
+        this.owned = new boolean[chunkCount];
+    }
+
+    private boolean isInside(final int x, final int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int chunkIndex(final int x, final int y) {
+        return (y >> CHUNK_SHIFT) * chunksPerRow + (x >> CHUNK_SHIFT);
+    }
+
+    private static int cellIndex(final int x, final int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    private Serializable[] writableChunk(final int index) {
+        if (chunks[index] == null) {
+            chunks[index] = new Serializable[CHUNK_SIDE * CHUNK_SIDE];
+        } else if (!owned[index]) {
+            chunks[index] = chunks[index].clone();
+        }
+        owned[index] = true;
+        return chunks[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(final Serializable value) {
+        return (V) value;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, V>> getEntities() {
+        final Set<Pair<Pos, V>> entities = new HashSet<>();
+        forEach((pos, entity) -> entities.add(new Pair<>(pos, entity)));
+        return entities;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final BiConsumer<Pos, V> action) {
+        for (int c = 0; c < chunks.length; c++) {
+            if (chunks[c] != null) {
+                final int originX = (c % chunksPerRow) << CHUNK_SHIFT;
+                final int originY = (c / chunksPerRow) << CHUNK_SHIFT;
+                for (int i = 0; i < chunks[c].length; i++) {
+                    if (chunks[c][i] != null) {
+                        action.accept(positions.get(originX + (i & CHUNK_MASK), originY + (i >> CHUNK_SHIFT)),
+                                cast(chunks[c][i]));
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void addEntity(final Pos pos, final V entity) {
+        final int x = pos.x();
+        final int y = pos.y();
+        if (!isInside(x, y)) {
+            throw new IllegalArgumentException("Position " + pos + " is outside the board");
+        }
+        final Optional<V> current = getEntity(pos);
+        if (current.isPresent()) {
+            throw new IllegalArgumentException("Position " + pos + " is already occupied by " + current.get());
+        }
+        writableChunk(chunkIndex(x, y))[cellIndex(x, y)] = entity;
+        size++;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeEntity(final Pos pos, final V entity) {
+        final V current = getEntity(pos).orElseThrow(
+                () -> new IllegalArgumentException("Position " + pos + " is not occupied"));
+        if (current.equals(entity)) {
+            final int x = pos.x();
+            final int y = pos.y();
+            writableChunk(chunkIndex(x, y))[cellIndex(x, y)] = null;
+            size--;
+        }
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceEntity(final Pos pos, final V entity) {
+        if (getEntity(pos).isEmpty()) {
+            throw new IllegalArgumentException("Position " + pos + " is not occupied");
+        }
+        writableChunk(chunkIndex(pos.x(), pos.y()))[cellIndex(pos.x(), pos.y())] = entity;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<V> getEntity(final Pos pos) {
+        final int x = pos.x();
+        final int y = pos.y();
+        if (!isInside(x, y)) {
+            return Optional.empty();
+        }
+        final Serializable[] chunk = chunks[chunkIndex(x, y)];
+        return chunk == null ? Optional.empty() : Optional.ofNullable(cast(chunk[cellIndex(x, y)]));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Board<V> copy() {
+        final PersistentBoardImpl<V> copy = new PersistentBoardImpl<>(width, height, positions);
+        copyInto(copy);
+        return copy;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyInto(final Board<V> target) {
+        if (!(target instanceof PersistentBoardImpl)) {
+            throw new IllegalArgumentException("Cannot copy into a board of a different kind");
+        }
+        final PersistentBoardImpl<V> other = (PersistentBoardImpl<V>) target;
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Cannot copy into a board of different dimensions");
+        }
+        System.arraycopy(chunks, 0, other.chunks, 0, chunks.length);
+        Arrays.fill(owned, false);
+        Arrays.fill(other.owned, false);
+        other.size = size;
+    }
+}
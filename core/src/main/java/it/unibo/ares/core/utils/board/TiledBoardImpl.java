@@ -0,0 +1,191 @@
+package it.unibo.ares.core.utils.board;
+
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of the Board interface for large and mostly empty grids.
+ * The grid is split in square tiles of {@value #TILE_SIDE} x {@value #TILE_SIDE}
+ * cells: a tile is allocated the first time an entity is placed in it and it
+ * is released as soon as it becomes empty, so the memory used depends on
+ * where the entities are and not on the size of the grid.
+ *
+ * @param <V> the type of entities stored in the board
+ */
+public final class TiledBoardImpl<V extends Serializable> implements Board<V> {
+    /**
+     * The side of a tile, in cells.
+     */
+    public static final int TILE_SIDE = 1 << 5;
+    private static final long serialVersionUID = 1L;
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_MASK = TILE_SIDE - 1;
+    private final Map<Long, Tile> tiles;
+    private int size;
+
+    /**
+     * Create a new board.
+     */
+    public TiledBoardImpl() {
+        this.tiles = new HashMap<>();
+    }
+
+    private static long tileKey(final int x, final int y) {
+        return ((long) (x >> TILE_SHIFT) << Integer.SIZE) | ((y >> TILE_SHIFT) & 0xFFFF_FFFFL);
+    }
+
+    private static int cellIndex(final int x, final int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cellAt(final Tile tile, final int index) {
+        return (V) tile.cells[index];
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, V>> getEntities() {
+        final Set<Pair<Pos, V>> entities = new HashSet<>();
+        forEach((pos, entity) -> entities.add(new Pair<>(pos, entity)));
+        return entities;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final BiConsumer<Pos, V> action) {
+        tiles.forEach((key, tile) -> {
+            final int originX = (int) (key >> Integer.SIZE) << TILE_SHIFT;
+            final int originY = (int) (long) key << TILE_SHIFT;
+            for (int i = 0; i < tile.cells.length; i++) {
+                if (tile.cells[i] != null) {
+                    action.accept(new PosImpl(originX + (i & TILE_MASK), originY + (i >> TILE_SHIFT)),
+                            cellAt(tile, i));
+                }
+            }
+        });
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void addEntity(final Pos pos, final V entity) {
+        final int x = pos.x();
+        final int y = pos.y();
+        final Tile tile = tiles.computeIfAbsent(tileKey(x, y), k -> new Tile());
+        final int index = cellIndex(x, y);
+        if (tile.cells[index] != null) {
+            throw new IllegalArgumentException("Position " + pos + " is already occupied by " + tile.cells[index]);
+        }
+        tile.cells[index] = entity;
+        tile.count++;
+        size++;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeEntity(final Pos pos, final V entity) {
+        final int x = pos.x();
+        final int y = pos.y();
+        final long key = tileKey(x, y);
+        final Tile tile = tiles.get(key);
+        final int index = cellIndex(x, y);
+        if (tile == null || tile.cells[index] == null) {
+            throw new IllegalArgumentException("Position " + pos + " is not occupied");
+        }
+        if (tile.cells[index].equals(entity)) {
+            tile.cells[index] = null;
+            tile.count--;
+            size--;
+            if (tile.count == 0) {
+                tiles.remove(key);
+            }
+        }
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaceEntity(final Pos pos, final V entity) {
+        final Tile tile = tiles.get(tileKey(pos.x(), pos.y()));
+        final int index = cellIndex(pos.x(), pos.y());
+        if (tile == null || tile.cells[index] == null) {
+            throw new IllegalArgumentException("Position " + pos + " is not occupied");
+        }
+        tile.cells[index] = entity;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<V> getEntity(final Pos pos) {
+        final int x = pos.x();
+        final int y = pos.y();
+        final Tile tile = tiles.get(tileKey(x, y));
+        return tile == null ? Optional.empty() : Optional.ofNullable(cellAt(tile, cellIndex(x, y)));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Board<V> copy() {
+        final TiledBoardImpl<V> copy = new TiledBoardImpl<>();
+        copyInto(copy);
+        return copy;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyInto(final Board<V> target) {
+        if (!(target instanceof TiledBoardImpl)) {
+            throw new IllegalArgumentException("Cannot copy into a board of a different kind");
+        }
+        final TiledBoardImpl<V> other = (TiledBoardImpl<V>) target;
+        other.tiles.keySet().retainAll(tiles.keySet());
+        tiles.forEach((key, tile) -> other.tiles.computeIfAbsent(key, k -> new Tile()).copyFrom(tile));
+        other.size = size;
+    }
+
+    /**
+     * The cells of a single tile, in row-major order.
+     */
+    private static final class Tile implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Serializable[] cells = new Serializable[TILE_SIDE * TILE_SIDE];
+        private int count;
+
+        private void copyFrom(final Tile other) {
+            System.arraycopy(other.cells, 0, cells, 0, cells.length);
+            count = other.count;
+        }
+    }
+}
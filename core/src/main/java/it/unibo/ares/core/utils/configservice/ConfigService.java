@@ -11,4 +11,22 @@ public interface ConfigService {
      * @return true if the service is asynchronous, false otherwise.
      */
     Boolean isAsync();
+
+    /**
+     * Returns how many threads tick the agents of the models that declare how
+     * far their agents interact, 1 to tick them sequentially and 0 to use
+     * all the available processors.
+     *
+     * @return the size of the pool of the engine.
+     */
+    Integer getParallelism();
+
+    /**
+     * Returns how many tiles the grid is split into when ticking in parallel,
+     * 0 to choose from the size of the pool. Tiles never get smaller than
+     * the interaction radius of the model allows.
+     *
+     * @return the number of partitions of the grid.
+     */
+    Integer getPartitions();
 }
@@ -118,4 +118,14 @@ public final class ConfigServiceImpl implements ConfigService {
     public Boolean isAsync() {
         return read("simulation", "async", Boolean.class).map(Boolean::valueOf).orElse(false);
     }
+
+    @Override
+    public Integer getParallelism() {
+        return read("Engine", "parallelism", Integer.class).orElse(1);
+    }
+
+    @Override
+    public Integer getPartitions() {
+        return read("Engine", "partitions", Integer.class).orElse(0);
+    }
 }
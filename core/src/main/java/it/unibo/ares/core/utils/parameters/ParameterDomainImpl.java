@@ -1,6 +1,7 @@
 package it.unibo.ares.core.utils.parameters;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 import it.unibo.ares.core.utils.lambda.SerializablePredicate;
 
@@ -36,4 +37,29 @@ public final class ParameterDomainImpl<T extends Serializable> implements Parame
         return this.predicate.test(value);
     }
 
+    /**
+     * Due domini sono uguali se hanno la stessa descrizione e lo stesso
+     * predicato, così i parametri creati dallo stesso punto del codice
+     * possono condividere lo schema.
+     *
+     * @param obj l'oggetto da confrontare
+     * @return true se i domini sono uguali
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ParameterDomainImpl<?> other = (ParameterDomainImpl<?>) obj;
+        return Objects.equals(description, other.description) && predicate == other.predicate;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(description, System.identityHashCode(predicate));
+    }
+
 }
@@ -0,0 +1,282 @@
+package it.unibo.ares.core.utils.parameters;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shape of a collection of parameters: their keys, types, domains and
+ * whether the user can set them, without their values.
+ * Every parameter is assigned a slot in the storage of {@link SchemaParameters}:
+ * integers and doubles are kept in primitive arrays and every other type in an
+ * array of objects. Schemas are immutable, and collections with the same
+ * shape, such as the parameters of the agents of a type, share the same
+ * schema.
+ */
+public final class ParameterSchema implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Beyond this many distinct shapes new schemas are no longer shared.
+     */
+    private static final int MAX_SHARED = 1 << 10;
+    private static final Map<List<Object>, ParameterSchema> SHARED = new ConcurrentHashMap<>();
+    private final List<Declaration> declarations;
+    private final Map<String, Declaration> byKey;
+    private final int intSlots;
+    private final int doubleSlots;
+    private final int objectSlots;
+    /**
+     * The declarations already found for {@link ParameterSlot}s, indexed by
+     * the number of the slot. The array is replaced, never written, once
+     * published.
+     */
+    private transient volatile Declaration[] resolved;
+
+    private ParameterSchema(final List<Parameter<?>> parameters) {
+        final List<Declaration> list = new ArrayList<>(parameters.size());
+        this.byKey = new HashMap<>();
+        int ints = 0;
+        int doubles = 0;
+        int objects = 0;
+        for (final Parameter<?> parameter : parameters) {
+            final Kind kind = Kind.of(parameter.getType());
+            final int index = kind == Kind.INT ? ints++ : kind == Kind.DOUBLE ? doubles++ : objects++;
+            final Declaration declaration = new Declaration(this, parameter, kind, list.size(), index);
+            list.add(declaration);
+            byKey.put(parameter.getKey(), declaration);
+        }
+        this.declarations = Collections.unmodifiableList(list);
+        this.intSlots = ints;
+        this.doubleSlots = doubles;
+        this.objectSlots = objects;
+    }
+
+    /**
+     * Returns the schema of the given parameters, shared with every other
+     * collection of parameters with the same keys, types, domains and
+     * settability.
+     *
+     * @param parameters the parameters, their values are ignored
+     * @return the schema
+     * @throws IllegalArgumentException if two parameters have the same key
+     */
+    public static ParameterSchema of(final Collection<Parameter<?>> parameters) {
+        final List<Parameter<?>> sorted = new ArrayList<>(parameters);
+        sorted.sort(Comparator.comparing(Parameter::getKey));
+        final List<Object> shape = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            final Parameter<?> parameter = sorted.get(i);
+            if (i > 0 && parameter.getKey().equals(sorted.get(i - 1).getKey())) {
+                throw new IllegalArgumentException("Parameter " + parameter.getKey() + " already exists");
+            }
+            shape.add(Arrays.asList(parameter.getKey(), parameter.getType(), parameter.userSettable(),
+                    parameter.getDomain().orElse(null)));
+        }
+        final ParameterSchema existing = SHARED.get(shape);
+        if (existing != null) {
+            return existing;
+        }
+        final ParameterSchema schema = new ParameterSchema(sorted);
+        return SHARED.size() < MAX_SHARED ? SHARED.computeIfAbsent(shape, k -> schema) : schema;
+    }
+
+    /**
+     * Returns a schema with the parameters of this one and a new parameter,
+     * the slots of the existing parameters are unchanged.
+     *
+     * @param parameter the parameter to add, its value is ignored
+     * @return the extended schema
+     * @throws IllegalArgumentException if a parameter with the same key exists
+     */
+    ParameterSchema with(final Parameter<?> parameter) {
+        if (byKey.containsKey(parameter.getKey())) {
+            throw new IllegalArgumentException("Parameter " + parameter.getKey() + " already exists");
+        }
+        final List<Parameter<?>> parameters = new ArrayList<>();
+        declarations.forEach(d -> parameters.add(d.parameter));
+        parameters.add(parameter);
+        return new ParameterSchema(parameters);
+    }
+
+    /**
+     * @param key the key of the parameter
+     * @return the declaration of the parameter, if any
+     */
+    Optional<Declaration> find(final String key) {
+        return Optional.ofNullable(byKey.get(key));
+    }
+
+    /**
+     * Finds the parameter of a slot, looking its key up only the first time
+     * the slot is resolved against this schema.
+     *
+     * @param slot the slot of the parameter
+     * @return the declaration of the parameter
+     * @throws IllegalArgumentException if the schema has no such parameter
+     */
+    Declaration resolve(final ParameterSlot<?> slot) {
+        final int id = slot.getId();
+        final Declaration[] cache = resolved;
+        if (cache != null && id < cache.length && cache[id] != null) {
+            return cache[id];
+        }
+        final Declaration found = find(slot.getKey())
+                .filter(d -> d.getType().equals(slot.getType()))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Parameter " + slot.getKey() + " does not exist or not of type "
+                                + slot.getType().getName()));
+        synchronized (this) {
+            final Declaration[] current = resolved;
+            final Declaration[] next = current == null
+                    ? new Declaration[id + 1]
+                    : Arrays.copyOf(current, Math.max(current.length, id + 1));
+            next[id] = found;
+            resolved = next;
+        }
+        return found;
+    }
+
+    /**
+     * @return the declarations of the parameters, in slot order
+     */
+    List<Declaration> getDeclarations() {
+        return declarations;
+    }
+
+    /**
+     * @return the number of parameters
+     */
+    public int size() {
+        return declarations.size();
+    }
+
+    /**
+     * @return the parameters of the schema, without values, in slot order
+     */
+    public List<Parameter<?>> getParameters() {
+        final List<Parameter<?>> parameters = new ArrayList<>(declarations.size());
+        declarations.forEach(d -> parameters.add(d.parameter));
+        return parameters;
+    }
+
+    /**
+     * Returns where the value of a parameter is stored among the values of the
+     * same kind: integers, doubles and other objects are numbered
+     * separately, so that they can be kept in separate arrays.
+     *
+     * @param slot the slot of the parameter
+     * @return the index of the value among those of its kind
+     * @throws IllegalArgumentException if the schema has no such parameter
+     */
+    public int columnOf(final ParameterSlot<?> slot) {
+        return slot.resolve(this).getIndex();
+    }
+
+    /**
+     * @return the number of integer values
+     */
+    public int getIntSlots() {
+        return intSlots;
+    }
+
+    /**
+     * @return the number of double values
+     */
+    public int getDoubleSlots() {
+        return doubleSlots;
+    }
+
+    /**
+     * @return the number of other values
+     */
+    public int getObjectSlots() {
+        return objectSlots;
+    }
+
+    /**
+     * How the value of a parameter is stored.
+     */
+    enum Kind {
+        INT, DOUBLE, OBJECT;
+
+        private static Kind of(final Class<?> type) {
+            if (Integer.class.equals(type)) {
+                return INT;
+            }
+            return Double.class.equals(type) ? DOUBLE : OBJECT;
+        }
+    }
+
+    /**
+     * A parameter of the schema and where its value is stored.
+     */
+    static final class Declaration implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final ParameterSchema schema;
+        private final Parameter<?> parameter;
+        private final Kind kind;
+        private final int slot;
+        private final int index;
+
+        private Declaration(final ParameterSchema schema, final Parameter<?> parameter, final Kind kind,
+                final int slot, final int index) {
+            this.schema = schema;
+            this.parameter = parameter.getOptionalValue().isPresent()
+                    ? unset(parameter)
+                    : parameter;
+            this.kind = kind;
+            this.slot = slot;
+            this.index = index;
+        }
+
+        private <T extends Serializable> Parameter<T> unset(final Parameter<T> parameter) {
+            return new ParameterImpl<>(parameter.getKey(), parameter.getType(),
+                    parameter.getDomain().orElse(null), parameter.userSettable());
+        }
+
+        ParameterSchema getSchema() {
+            return schema;
+        }
+
+        String getKey() {
+            return parameter.getKey();
+        }
+
+        Class<?> getType() {
+            return parameter.getType();
+        }
+
+        /**
+         * @return the parameter without a value
+         */
+        Parameter<?> getParameter() {
+            return parameter;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the position of the parameter among all the parameters
+         */
+        int getSlot() {
+            return slot;
+        }
+
+        /**
+         * @return the position of the value in the array of its kind
+         */
+        int getIndex() {
+            return index;
+        }
+    }
+}
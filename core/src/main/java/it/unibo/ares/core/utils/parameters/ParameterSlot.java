@@ -0,0 +1,90 @@
+package it.unibo.ares.core.utils.parameters;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle to a parameter, identified by its key and type, that can be used to
+ * read and write the parameter without looking up its key every time.
+ * Every slot is numbered when it is created, and each schema remembers where
+ * it found the parameter of a slot under that number, so the key is looked up
+ * only once per schema whatever the number of types and threads sharing the
+ * slot. Slots are meant to be stored in constants.
+ *
+ * @param <T> the type of the parameter value
+ */
+public final class ParameterSlot<T extends Serializable> implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private final String key;
+    private final Class<T> type;
+    private final transient int id;
+
+    private ParameterSlot(final String key, final Class<T> type) {
+        this.key = Objects.requireNonNull(key);
+        this.type = Objects.requireNonNull(type);
+        this.id = NEXT_ID.getAndIncrement();
+    }
+
+    /**
+     * Creates a handle to a parameter.
+     *
+     * @param <T>  the type of the parameter value
+     * @param key  the key of the parameter
+     * @param type the type of the parameter
+     * @return the handle
+     */
+    public static <T extends Serializable> ParameterSlot<T> of(final String key, final Class<T> type) {
+        return new ParameterSlot<>(key, type);
+    }
+
+    /**
+     * @return the key of the parameter
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the type of the parameter
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return the number of the slot, under which schemas cache where they
+     *         store its parameter
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Finds the parameter in the given schema, reusing the result the schema
+     * cached for this slot.
+     *
+     * @param schema the schema to search
+     * @return the declaration of the parameter in the schema
+     * @throws IllegalArgumentException if the schema has no such parameter
+     */
+    ParameterSchema.Declaration resolve(final ParameterSchema schema) {
+        return schema.resolve(this);
+    }
+
+    /**
+     * Numbers the deserialized slot again, numbers are not meaningful across
+     * virtual machines.
+     *
+     * @return a new slot with the same key and type
+     */
+    private Object readResolve() {
+        return new ParameterSlot<>(key, type);
+    }
+
+    @Override
+    public String toString() {
+        return "ParameterSlot [key=" + key + ", type=" + type.getSimpleName() + "]";
+    }
+}
@@ -78,6 +78,71 @@ public interface Parameters extends Serializable {
      */
     <T extends Serializable> void setParameter(String key, T value);
 
+    /**
+     * Reads an integer parameter through its slot, without boxing.
+     *
+     * @param slot the slot of the parameter
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the parameter does not exist
+     * @throws IllegalStateException    if the parameter has no value
+     */
+    int getInt(ParameterSlot<Integer> slot);
+
+    /**
+     * Writes an integer parameter through its slot, without boxing. The value
+     * is not checked against the domain of the parameter: slots are meant for
+     * the internal state of the agents.
+     *
+     * @param slot  the slot of the parameter
+     * @param value the new value
+     * @throws IllegalArgumentException if the parameter does not exist
+     */
+    void setInt(ParameterSlot<Integer> slot, int value);
+
+    /**
+     * Reads a double parameter through its slot, without boxing.
+     *
+     * @param slot the slot of the parameter
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the parameter does not exist
+     * @throws IllegalStateException    if the parameter has no value
+     */
+    double getDouble(ParameterSlot<Double> slot);
+
+    /**
+     * Writes a double parameter through its slot, without boxing. The value
+     * is not checked against the domain of the parameter: slots are meant for
+     * the internal state of the agents.
+     *
+     * @param slot  the slot of the parameter
+     * @param value the new value
+     * @throws IllegalArgumentException if the parameter does not exist
+     */
+    void setDouble(ParameterSlot<Double> slot, double value);
+
+    /**
+     * Reads a parameter through its slot.
+     *
+     * @param <T>  the type of the parameter
+     * @param slot the slot of the parameter
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the parameter does not exist
+     * @throws IllegalStateException    if the parameter has no value
+     */
+    <T extends Serializable> T get(ParameterSlot<T> slot);
+
+    /**
+     * Writes a parameter through its slot. The value is not checked against
+     * the domain of the parameter: slots are meant for the internal state of
+     * the agents.
+     *
+     * @param <T>   the type of the parameter
+     * @param slot  the slot of the parameter
+     * @param value the new value
+     * @throws IllegalArgumentException if the parameter does not exist
+     */
+    <T extends Serializable> void set(ParameterSlot<T> slot, T value);
+
     /**
      * Retrieves all the parameters.
      * 
@@ -109,6 +109,61 @@ public final class ParametersImpl implements Parameters {
                 "Parameter " + key + " does not exist or not of type " + value.getClass().getName()));
     }
 
+    private <T extends Serializable> Parameter<T> lookup(final ParameterSlot<T> slot) {
+        return getParameter(slot.getKey(), slot.getType()).orElseThrow(() -> new IllegalArgumentException(
+                "Parameter " + slot.getKey() + " does not exist or not of type " + slot.getType().getName()));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final ParameterSlot<Integer> slot) {
+        return get(slot);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInt(final ParameterSlot<Integer> slot, final int value) {
+        set(slot, value);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(final ParameterSlot<Double> slot) {
+        return get(slot);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDouble(final ParameterSlot<Double> slot, final double value) {
+        set(slot, value);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> T get(final ParameterSlot<T> slot) {
+        return lookup(slot).getValue();
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void set(final ParameterSlot<T> slot, final T value) {
+        final Parameter<T> parameter = lookup(slot);
+        typeMap.get(slot.getType()).replace(slot.getKey(), new ParameterImpl<>(slot.getKey(), value,
+                parameter.getDomain().orElse(null), parameter.userSettable()));
+    }
+
     private Stream<Parameter<?>> getParametersStream() {
         return typeMap.values().stream().flatMap(m -> m.values().stream());
     }
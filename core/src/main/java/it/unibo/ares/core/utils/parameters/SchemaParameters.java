@@ -0,0 +1,331 @@
+package it.unibo.ares.core.utils.parameters;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the Parameters interface that keeps only the values of
+ * the parameters, in arrays indexed by the slots of a shared
+ * {@link ParameterSchema}. Reading or writing a parameter through a
+ * {@link ParameterSlot} is an array access, without lookups, boxing of
+ * integers and doubles or allocations.
+ * A collection can fall back to defaults shared by many collections, such as
+ * the agents of a type: the defaults are used for every parameter without a
+ * value of its own, so a value can be given to all of them at once.
+ */
+public final class SchemaParameters implements Parameters {
+
+    private static final long serialVersionUID = 1L;
+    private ParameterSchema schema;
+    private int[] ints;
+    private double[] doubles;
+    private Serializable[] objects;
+    /**
+     * Whether the parameter at the same slot has a value.
+     */
+    private boolean[] setted;
+    private SchemaParameters defaults;
+
+    /**
+     * Creates a collection with the same parameters and values of the given
+     * one, sharing the schema with every collection of the same shape.
+     *
+     * @param source the parameters to copy
+     */
+    public SchemaParameters(final Parameters source) {
+        this.schema = ParameterSchema.of(source.getParameters());
+        this.ints = new int[schema.getIntSlots()];
+        this.doubles = new double[schema.getDoubleSlots()];
+        this.objects = new Serializable[schema.getObjectSlots()];
+        this.setted = new boolean[schema.size()];
+        source.getParameters().forEach(p -> p.getOptionalValue()
+                .ifPresent(v -> write(schema.find(p.getKey()).get(), v)));
+    }
+
+    /**
+     * Creates a collection with the given schema and without values, meant to
+     * hold the defaults of the collections with the same schema.
+     *
+     * @param schema the schema of the parameters
+     */
+    public SchemaParameters(final ParameterSchema schema) {
+        this.schema = schema;
+        this.ints = new int[schema.getIntSlots()];
+        this.doubles = new double[schema.getDoubleSlots()];
+        this.objects = new Serializable[schema.getObjectSlots()];
+        this.setted = new boolean[schema.size()];
+    }
+
+    private SchemaParameters(final SchemaParameters other) {
+        this.schema = other.schema;
+        this.ints = other.ints.clone();
+        this.doubles = other.doubles.clone();
+        this.objects = other.objects.clone();
+        this.setted = other.setted.clone();
+        this.defaults = other.defaults;
+    }
+
+    /**
+     * Makes this collection read the parameters without a value from the
+     * given defaults. Later changes to the defaults are seen by this
+     * collection, and values set on this collection take precedence.
+     *
+     * @param defaults the defaults, with the same schema and without defaults
+     *                 of their own
+     * @throws IllegalArgumentException if the defaults are not compatible
+     */
+    public void setDefaults(final SchemaParameters defaults) {
+        if (defaults.schema != schema || defaults.defaults != null || defaults == this) {
+            throw new IllegalArgumentException("Defaults must have the same schema and no defaults");
+        }
+        this.defaults = defaults;
+    }
+
+    private boolean isSet(final ParameterSchema.Declaration declaration) {
+        return setted[declaration.getSlot()] || defaults != null && defaults.setted[declaration.getSlot()];
+    }
+
+    /**
+     * @return the collection holding the value of the parameter, this one
+     *         unless the value is inherited from the defaults
+     */
+    private SchemaParameters holder(final ParameterSchema.Declaration declaration) {
+        return setted[declaration.getSlot()] || defaults == null ? this : defaults;
+    }
+
+    /**
+     * @return the schema of the parameters
+     */
+    public ParameterSchema getSchema() {
+        return schema;
+    }
+
+    private void write(final ParameterSchema.Declaration declaration, final Serializable value) {
+        final int index = declaration.getIndex();
+        if (declaration.getKind() == ParameterSchema.Kind.INT) {
+            ints[index] = (Integer) value;
+        } else if (declaration.getKind() == ParameterSchema.Kind.DOUBLE) {
+            doubles[index] = (Double) value;
+        } else {
+            objects[index] = value;
+        }
+        setted[declaration.getSlot()] = true;
+    }
+
+    private Optional<Serializable> read(final ParameterSchema.Declaration declaration) {
+        if (!isSet(declaration)) {
+            return Optional.empty();
+        }
+        final SchemaParameters holder = holder(declaration);
+        final int index = declaration.getIndex();
+        final Serializable value;
+        if (declaration.getKind() == ParameterSchema.Kind.INT) {
+            value = holder.ints[index];
+        } else if (declaration.getKind() == ParameterSchema.Kind.DOUBLE) {
+            value = holder.doubles[index];
+        } else {
+            value = holder.objects[index];
+        }
+        return Optional.ofNullable(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Serializable> Parameter<T> materialize(final ParameterSchema.Declaration declaration) {
+        final Parameter<T> parameter = (Parameter<T>) declaration.getParameter();
+        return read(declaration)
+                .map(v -> (Parameter<T>) new ParameterImpl<>(parameter.getKey(), (T) v,
+                        parameter.getDomain().orElse(null), parameter.userSettable()))
+                .orElse(parameter);
+    }
+
+    private ParameterSchema.Declaration resolve(final ParameterSlot<?> slot) {
+        final ParameterSchema.Declaration declaration = slot.resolve(schema);
+        if (!isSet(declaration)) {
+            throw new IllegalStateException("Value not set for parameter: " + slot.getKey());
+        }
+        return declaration;
+    }
+
+    private void add(final Parameter<?> parameter, final Optional<? extends Serializable> value) {
+        // the defaults keep the old schema, their values become values of this collection
+        for (final ParameterSchema.Declaration declaration : schema.getDeclarations()) {
+            if (!setted[declaration.getSlot()]) {
+                read(declaration).ifPresent(v -> write(declaration, v));
+            }
+        }
+        defaults = null;
+        schema = schema.with(parameter);
+        ints = Arrays.copyOf(ints, schema.getIntSlots());
+        doubles = Arrays.copyOf(doubles, schema.getDoubleSlots());
+        objects = Arrays.copyOf(objects, schema.getObjectSlots());
+        setted = Arrays.copyOf(setted, schema.size());
+        value.ifPresent(v -> write(schema.find(parameter.getKey()).get(), v));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void addParameter(final String key, final Class<T> type,
+            final Boolean userSettable) {
+        if (key == null || type == null) {
+            throw new IllegalStateException("Parameter key or type is null");
+        }
+        add(new ParameterImpl<>(key, type, userSettable), Optional.empty());
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void addParameter(final String key, final T value, final Boolean userSettable) {
+        addParameter(new ParameterImpl<>(key, value, userSettable));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void addParameter(final Parameter<T> parameter) {
+        if (parameter.getKey() == null || parameter.getType() == null) {
+            throw new IllegalArgumentException("Parameter key or type is null");
+        }
+        add(parameter, parameter.getOptionalValue());
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> Optional<Parameter<T>> getParameter(final String key, final Class<T> type) {
+        return schema.find(key)
+                .filter(d -> d.getType().equals(type))
+                .map(this::materialize);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> Optional<Parameter<T>> getParameter(final String key) {
+        return schema.find(key).map(this::materialize);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void setParameter(final String key, final T value) {
+        final ParameterSchema.Declaration declaration = schema.find(key)
+                .filter(d -> d.getType().equals(value.getClass()))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Parameter " + key + " does not exist or not of type " + value.getClass().getName()));
+        @SuppressWarnings("unchecked")
+        final Parameter<T> parameter = (Parameter<T>) declaration.getParameter();
+        if (parameter.getDomain().isPresent() && !parameter.getDomain().get().isValueValid(value)) {
+            throw new IllegalArgumentException("Value is not inside the domain: " + key);
+        }
+        write(declaration, value);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final ParameterSlot<Integer> slot) {
+        final ParameterSchema.Declaration declaration = resolve(slot);
+        return holder(declaration).ints[declaration.getIndex()];
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInt(final ParameterSlot<Integer> slot, final int value) {
+        final ParameterSchema.Declaration declaration = slot.resolve(schema);
+        ints[declaration.getIndex()] = value;
+        setted[declaration.getSlot()] = true;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(final ParameterSlot<Double> slot) {
+        final ParameterSchema.Declaration declaration = resolve(slot);
+        return holder(declaration).doubles[declaration.getIndex()];
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDouble(final ParameterSlot<Double> slot, final double value) {
+        final ParameterSchema.Declaration declaration = slot.resolve(schema);
+        doubles[declaration.getIndex()] = value;
+        setted[declaration.getSlot()] = true;
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> T get(final ParameterSlot<T> slot) {
+        final ParameterSchema.Declaration declaration = resolve(slot);
+        return slot.getType().cast(read(declaration).get());
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends Serializable> void set(final ParameterSlot<T> slot, final T value) {
+        write(slot.resolve(schema), slot.getType().cast(value));
+    }
+
+    private Stream<Parameter<?>> getParametersStream() {
+        return schema.getDeclarations().stream().map(this::materialize);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Parameter<?>> getParameters() {
+        return getParametersStream().collect(Collectors.toSet());
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Parameter<?>> getParametersToset() {
+        return schema.getDeclarations().stream()
+                .filter(d -> d.getParameter().userSettable())
+                .filter(d -> !isSet(d))
+                .map(ParameterSchema.Declaration::getParameter)
+                .collect(Collectors.toSet());
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean areAllParametersSetted() {
+        return schema.getDeclarations().stream()
+                .filter(d -> d.getParameter().userSettable())
+                .allMatch(this::isSet);
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public Parameters copy() {
+        return new SchemaParameters(this);
+    }
+}
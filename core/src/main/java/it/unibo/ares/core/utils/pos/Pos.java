@@ -20,6 +20,22 @@ public interface Pos extends Serializable {
      */
     Integer getY();
 
+    /**
+     * Returns the x-coordinate of the position as a primitive, for engine code
+     * that must not box on every read.
+     *
+     * @return the x-coordinate of the position
+     */
+    int x();
+
+    /**
+     * Returns the y-coordinate of the position as a primitive, for engine code
+     * that must not box on every read.
+     *
+     * @return the y-coordinate of the position
+     */
+    int y();
+
     /**
      * Returns the distance between this position and the given position.
      * 
@@ -29,4 +45,46 @@ public interface Pos extends Serializable {
      */
     Pos diff(Pos pos);
 
+    /**
+     * Packs the given coordinates in a single long, the x-coordinate in the
+     * high 32 bits and the y-coordinate in the low 32 bits.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the packed coordinates
+     */
+    static long pack(final int x, final int y) {
+        return ((long) x << Integer.SIZE) | (y & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * Returns the x-coordinate of a key built by {@link #pack(int, int)}.
+     *
+     * @param key the packed coordinates
+     * @return the x-coordinate
+     */
+    static int unpackX(final long key) {
+        return (int) (key >> Integer.SIZE);
+    }
+
+    /**
+     * Returns the y-coordinate of a key built by {@link #pack(int, int)}.
+     *
+     * @param key the packed coordinates
+     * @return the y-coordinate
+     */
+    static int unpackY(final long key) {
+        return (int) key;
+    }
+
+    /**
+     * Returns the coordinates of this position packed in a single long.
+     *
+     * @return the packed coordinates
+     * @see #pack(int, int)
+     */
+    default long toKey() {
+        return pack(x(), y());
+    }
+
 }
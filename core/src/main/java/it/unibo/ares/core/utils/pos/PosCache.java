@@ -0,0 +1,65 @@
+package it.unibo.ares.core.utils.pos;
+
+import java.io.Serializable;
+
+/**
+ * A cache of the positions of a grid, holding one canonical instance per
+ * cell so that code walking the grid does not need to allocate positions.
+ * Positions outside of the grid, or of grids too big to be cached, are
+ * created on demand.
+ */
+public final class PosCache implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Grids with more cells than this are not cached.
+     */
+    private static final long MAX_CACHED_CELLS = 1L << 22;
+    private final int width;
+    private final int height;
+    private transient Pos[] cells;
+
+    /**
+     * Creates a cache for a grid of the given dimensions.
+     *
+     * @param width  the width of the grid
+     * @param height the height of the grid
+     */
+    public PosCache(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns the position with the given coordinates.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the canonical instance if the position is inside the grid, a new
+     *         one otherwise
+     */
+    public Pos get(final int x, final int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height || (long) width * height > MAX_CACHED_CELLS) {
+            return new PosImpl(x, y);
+        }
+        if (cells == null) {
+            cells = new Pos[width * height];
+        }
+        final int index = y * width + x;
+        Pos pos = cells[index];
+        if (pos == null) {
+            pos = new PosImpl(x, y);
+            cells[index] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the position with the given packed coordinates.
+     *
+     * @param key the coordinates packed by {@link Pos#pack(int, int)}
+     * @return the position
+     */
+    public Pos get(final long key) {
+        return get(Pos.unpackX(key), Pos.unpackY(key));
+    }
+}
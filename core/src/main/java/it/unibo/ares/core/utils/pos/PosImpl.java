@@ -1,15 +1,13 @@
 package it.unibo.ares.core.utils.pos;
 
-import java.util.Objects;
-
 /**
  * A class that represents a position in a two-dimensional space.
  */
 public class PosImpl implements Pos {
 
-    private static final long serialVersionUID = 1L;
-    private final Integer y;
-    private final Integer x;
+    private static final long serialVersionUID = 2L;
+    private final int y;
+    private final int x;
 
     /**
      * Constructs a new PosImpl object with the specified x and y coordinates.
@@ -17,7 +15,7 @@ public class PosImpl implements Pos {
      * @param x the x coordinate of the position
      * @param y the y coordinate of the position
      */
-    public PosImpl(final Integer x, final Integer y) {
+    public PosImpl(final int x, final int y) {
         this.x = x;
         this.y = y;
     }
@@ -50,6 +48,22 @@ public class PosImpl implements Pos {
         return this.y;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int x() {
+        return this.x;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int y() {
+        return this.y;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -62,7 +76,7 @@ public class PosImpl implements Pos {
             return false;
         }
         final PosImpl pos = (PosImpl) o;
-        return Objects.equals(x, pos.x) && Objects.equals(y, pos.y);
+        return x == pos.x && y == pos.y;
     }
 
     /**
@@ -70,7 +84,7 @@ public class PosImpl implements Pos {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * (31 + x) + y;
     }
 
     /**
@@ -78,7 +92,7 @@ public class PosImpl implements Pos {
      */
     @Override
     public Pos diff(final Pos pos) {
-        return new PosImpl(this.getX() - pos.getX(), this.getY() - pos.getY());
+        return new PosImpl(this.x - pos.x(), this.y - pos.y());
     }
 
 }
@@ -0,0 +1,101 @@
+package it.unibo.ares.core.utils.random;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A serializable random generator that can be split into independent
+ * streams, using the SplitMix64 algorithm of {@link java.util.SplittableRandom}.
+ * A simulation creates one generator from its seed and splits a stream for
+ * every component that needs random numbers, so that runs with the same seed
+ * are reproducible and no generator is shared between components.
+ * A generator must not be used by more than one thread at a time.
+ */
+public final class SplitMixRandom implements RandomGenerator, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long MIX_FIRST = 0xbf58476d1ce4e5b9L;
+    private static final long MIX_SECOND = 0x94d049bb133111ebL;
+    private static final long GAMMA_FIRST = 0xff51afd7ed558ccdL;
+    private static final long GAMMA_SECOND = 0xc4ceb9fe1a85ec53L;
+    private static final long GAMMA_FIX = 0xaaaaaaaaaaaaaaaaL;
+    /**
+     * Gammas with fewer bit transitions than this give poor streams.
+     */
+    private static final int MIN_GAMMA_TRANSITIONS = 24;
+    private static final int SHIFT_30 = 30;
+    private static final int SHIFT_27 = 27;
+    private static final int SHIFT_31 = 31;
+    private static final int SHIFT_33 = 33;
+    private static final SecureRandom SEEDER = new SecureRandom();
+    private long seed;
+    private final long gamma;
+
+    /**
+     * Creates a generator with the given seed.
+     *
+     * @param seed the seed
+     */
+    public SplitMixRandom(final long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a generator with a random seed.
+     */
+    public SplitMixRandom() {
+        this(randomSeed());
+    }
+
+    private SplitMixRandom(final long seed, final long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * @return a new random seed
+     */
+    public static long randomSeed() {
+        return SEEDER.nextLong();
+    }
+
+    private static long mix64(final long value) {
+        long z = value;
+        z = (z ^ (z >>> SHIFT_30)) * MIX_FIRST;
+        z = (z ^ (z >>> SHIFT_27)) * MIX_SECOND;
+        return z ^ (z >>> SHIFT_31);
+    }
+
+    private static long mixGamma(final long value) {
+        long z = value;
+        z = (z ^ (z >>> SHIFT_33)) * GAMMA_FIRST;
+        z = (z ^ (z >>> SHIFT_33)) * GAMMA_SECOND;
+        z = (z ^ (z >>> SHIFT_33)) | 1L;
+        return Long.bitCount(z ^ (z >>> 1)) < MIN_GAMMA_TRANSITIONS ? z ^ GAMMA_FIX : z;
+    }
+
+    private long nextSeed() {
+        seed += gamma;
+        return seed;
+    }
+
+    /**
+     * Creates a new generator, statistically independent from this one.
+     * The numbers it produces depend only on the state of this generator, so
+     * splitting in the same order always gives the same streams.
+     *
+     * @return the new generator
+     */
+    public SplitMixRandom split() {
+        return new SplitMixRandom(mix64(nextSeed()), mixGamma(nextSeed()));
+    }
+
+    /*
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+}
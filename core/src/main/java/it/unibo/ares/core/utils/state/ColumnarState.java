@@ -0,0 +1,410 @@
+package it.unibo.ares.core.utils.state;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.Entity;
+import it.unibo.ares.core.agent.columnar.ColumnarWorld;
+import it.unibo.ares.core.agent.columnar.Population;
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.parameters.Parameter;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosCache;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link ColumnarWorld} seen as a {@link State}, as returned by
+ * {@link ColumnarWorld#asState()}.
+ * The agents of the state are views of the rows of the populations, created
+ * when they are asked for. The world has no entities, and its agents are
+ * ticked by their populations and cannot change type, so the operations on
+ * entities and {@link #morphAgent(Pos, Agent)} are not supported. The state
+ * is the live world and is never copied: the world is ticked in place.
+ */
+public final class ColumnarState implements State {
+    private static final long serialVersionUID = 1L;
+    private final ColumnarWorld world;
+    private final PosCache positions;
+
+    /**
+     * Creates the view of a world, to be called by the world itself.
+     *
+     * @param world the world
+     */
+    public ColumnarState(final ColumnarWorld world) {
+        this.world = world;
+        this.positions = new PosCache(world.getWidth(), world.getHeight());
+    }
+
+    /**
+     * @return the world this state is a view of
+     */
+    public ColumnarWorld getWorld() {
+        return world;
+    }
+
+    private Population populationAt(final Pos pos) {
+        return world.getOccupant(pos.x(), pos.y())
+                .orElseThrow(() -> new IllegalArgumentException("No agent at position " + pos));
+    }
+
+    private static UnsupportedOperationException noEntities() {
+        return new UnsupportedOperationException("Columnar worlds have no entities");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Entity>> getEntities() {
+        return Set.of();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Agent>> getAgents() {
+        final Set<Pair<Pos, Agent>> result = new HashSet<>();
+        forEachAgent((pos, agent) -> result.add(new Pair<>(pos, agent)));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The agents are visited population after population.
+     */
+    @Override
+    public void forEachAgent(final BiConsumer<Pos, Agent> action) {
+        for (final Population population : world.getPopulations()) {
+            for (int row = 0; row < population.size(); row++) {
+                action.accept(positions.get(population.getX(row), population.getY(row)), population.getAgent(row));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachEntity(final BiConsumer<Pos, Entity> action) {
+        // the world has no entities
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int agentCount() {
+        return world.agentCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int entityCount() {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The agent is added as a new row of the population of its type, with the
+     * values of the parameters it has set.
+     *
+     * @throws IllegalArgumentException if the world has no population of the
+     *                                  type of the agent
+     */
+    @Override
+    public void addAgent(final Pos pos, final Agent agent) {
+        final Population population = world.getPopulation(agent.getType())
+                .orElseThrow(() -> new IllegalArgumentException("No population of type " + agent.getType()));
+        final Agent added = population.getAgent(population.add(pos.x(), pos.y()));
+        for (final Parameter<?> parameter : agent.getParameters().getParameters()) {
+            parameter.getOptionalValue().ifPresent(value -> added.setParameter(parameter.getKey(), value));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAgent(final Pos pos, final Agent agent) {
+        final Population population = populationAt(pos);
+        final int row = world.getOccupantRow(pos.x(), pos.y());
+        if (!population.getAgent(row).equals(agent)) {
+            throw new IllegalArgumentException("The agent is not at position " + pos);
+        }
+        population.remove(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void moveAgent(final Pos from, final Pos to) {
+        populationAt(from).move(world.getOccupantRow(from.x(), from.y()), to.x(), to.y());
+    }
+
+    /**
+     * Not supported, the agents of a population cannot change type.
+     */
+    @Override
+    public Agent morphAgent(final Pos pos, final Agent prototype) {
+        throw new UnsupportedOperationException("Columnar agents cannot change type");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Agent> getAgentAt(final Pos pos) {
+        return world.getOccupant(pos.x(), pos.y())
+                .map(population -> population.getAgent(world.getOccupantRow(pos.x(), pos.y())));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Entity> getEntityAt(final Pos pos) {
+        return Optional.empty();
+    }
+
+    /**
+     * Not supported, the world has no entities.
+     */
+    @Override
+    public void addEntity(final Pos pos, final Entity entity) {
+        throw noEntities();
+    }
+
+    /**
+     * Not supported, the world has no entities.
+     */
+    @Override
+    public void removeEntity(final Pos pos, final Entity entity) {
+        throw noEntities();
+    }
+
+    /**
+     * Not supported, the world has no entities.
+     */
+    @Override
+    public void moveEntity(final Pos from, final Pos to) {
+        throw noEntities();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Agent>> getAgentsByType(final String type) {
+        final Set<Pair<Pos, Agent>> result = new HashSet<>();
+        world.getPopulation(type).ifPresent(population -> {
+            for (int row = 0; row < population.size(); row++) {
+                result.add(new Pair<>(positions.get(population.getX(row), population.getY(row)),
+                        population.getAgent(row)));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countByType(final String type) {
+        return world.getPopulation(type).map(Population::size).orElse(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getAgentTypes() {
+        return world.getPopulations().stream()
+                .filter(population -> population.size() > 0)
+                .map(Population::getType)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Pair<Integer, Integer> getDimensions() {
+        return new Pair<>(world.getWidth(), world.getHeight());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Agent> getAgentsByPosAndRadius(final Pos pos, final Integer radius) {
+        final Set<Agent> result = new HashSet<>();
+        forEachNeighborAgent(pos, radius, Neighborhood.MOORE, (p, agent) -> result.add(agent));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pos> getPosByPosAndRadius(final Pos pos, final Integer radius) {
+        final Set<Pos> result = new HashSet<>();
+        forEachNeighbor(pos, radius, Neighborhood.MOORE, result::add);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachNeighbor(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final Consumer<Pos> action) {
+        findNeighbor(pos, radius, neighborhood, p -> {
+            action.accept(p);
+            return false;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachNeighborAgent(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final BiConsumer<Pos, Agent> action) {
+        forEachNeighbor(pos, radius, neighborhood, p -> getAgentAt(p).ifPresent(agent -> action.accept(p, agent)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> findNeighbor(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final Predicate<Pos> condition) {
+        final int[] offsets = neighborhood.offsets(radius);
+        for (int i = 0; i < offsets.length; i += 2) {
+            final int x = pos.x() + offsets[i];
+            final int y = pos.y() + offsets[i + 1];
+            if (world.isInside(x, y)) {
+                final Pos candidate = positions.get(x, y);
+                if (condition.test(candidate)) {
+                    return Optional.of(candidate);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Agent> getAgentsFromASetOfPos(final Set<Pos> positions) {
+        return positions.stream().map(this::getAgentAt)
+                .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toSet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entity> getEntitiesFromASetOfPos(final Set<Pos> entities) {
+        return Set.of();
+    }
+
+    /**
+     * Not supported, the world is ticked in place.
+     */
+    @Override
+    public State copy() {
+        throw new UnsupportedOperationException("Columnar worlds are ticked in place and cannot be copied");
+    }
+
+    /**
+     * Not supported, the world is ticked in place.
+     */
+    @Override
+    public void copyInto(final State target) {
+        throw new UnsupportedOperationException("Columnar worlds are ticked in place and cannot be copied");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFree(final Pos pos) {
+        return world.isFree(pos.x(), pos.y());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOccupied(final Pos pos) {
+        return !isFree(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInside(final Pos pos) {
+        return world.isInside(pos.x(), pos.y());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> getRandomFreePos(final RandomGenerator random) {
+        final int cell = world.randomFreeCell(random);
+        return cell < 0
+                ? Optional.empty()
+                : Optional.of(positions.get(cell % world.getWidth(), cell / world.getWidth()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> getNearestFreePos(final Pos pos) {
+        if (world.freeCount() == 0) {
+            return Optional.empty();
+        }
+        final int maxDistance = Math.max(world.getWidth(), world.getHeight());
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            final Optional<Pos> found = findFreeOnRing(pos.x(), pos.y(), distance);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Pos> findFreeOnRing(final int cx, final int cy, final int distance) {
+        for (int d = -distance; d <= distance; d++) {
+            final int offset = d;
+            final Optional<Pos> found = freeAt(cx + offset, cy - distance)
+                    .or(() -> freeAt(cx + offset, cy + distance))
+                    .or(() -> freeAt(cx - distance, cy + offset))
+                    .or(() -> freeAt(cx + distance, cy + offset));
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Pos> freeAt(final int x, final int y) {
+        return world.isFree(x, y) ? Optional.of(positions.get(x, y)) : Optional.empty();
+    }
+}
@@ -0,0 +1,313 @@
+package it.unibo.ares.core.utils.state;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.Entity;
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.pos.Pos;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+
+/**
+ * A state that forwards every operation to another state, meant to be
+ * extended by views of a state that change only some of the operations.
+ */
+public abstract class ForwardingState implements State {
+    private static final long serialVersionUID = 1L;
+    private final State delegate;
+
+    /**
+     * Creates a view of the given state.
+     *
+     * @param delegate the state the operations are forwarded to.
+     */
+    protected ForwardingState(final State delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the state the operations are forwarded to.
+     */
+    protected final State delegate() {
+        return delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Entity>> getEntities() {
+        return delegate.getEntities();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Agent>> getAgents() {
+        return delegate.getAgents();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachAgent(final BiConsumer<Pos, Agent> action) {
+        delegate.forEachAgent(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachEntity(final BiConsumer<Pos, Entity> action) {
+        delegate.forEachEntity(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int agentCount() {
+        return delegate.agentCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int entityCount() {
+        return delegate.entityCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAgent(final Pos pos, final Agent agent) {
+        delegate.addAgent(pos, agent);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAgent(final Pos pos, final Agent agent) {
+        delegate.removeAgent(pos, agent);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void moveAgent(final Pos from, final Pos to) {
+        delegate.moveAgent(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Agent morphAgent(final Pos pos, final Agent prototype) {
+        return delegate.morphAgent(pos, prototype);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Agent> getAgentAt(final Pos pos) {
+        return delegate.getAgentAt(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Entity> getEntityAt(final Pos pos) {
+        return delegate.getEntityAt(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addEntity(final Pos pos, final Entity entity) {
+        delegate.addEntity(pos, entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeEntity(final Pos pos, final Entity entity) {
+        delegate.removeEntity(pos, entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void moveEntity(final Pos from, final Pos to) {
+        delegate.moveEntity(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Agent>> getAgentsByType(final String type) {
+        return delegate.getAgentsByType(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countByType(final String type) {
+        return delegate.countByType(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getAgentTypes() {
+        return delegate.getAgentTypes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Pair<Integer, Integer> getDimensions() {
+        return delegate.getDimensions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Agent> getAgentsByPosAndRadius(final Pos pos, final Integer radius) {
+        return delegate.getAgentsByPosAndRadius(pos, radius);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pos> getPosByPosAndRadius(final Pos pos, final Integer radius) {
+        return delegate.getPosByPosAndRadius(pos, radius);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachNeighbor(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final Consumer<Pos> action) {
+        delegate.forEachNeighbor(pos, radius, neighborhood, action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachNeighborAgent(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final BiConsumer<Pos, Agent> action) {
+        delegate.forEachNeighborAgent(pos, radius, neighborhood, action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> findNeighbor(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final Predicate<Pos> condition) {
+        return delegate.findNeighbor(pos, radius, neighborhood, condition);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Agent> getAgentsFromASetOfPos(final Set<Pos> positions) {
+        return delegate.getAgentsFromASetOfPos(positions);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entity> getEntitiesFromASetOfPos(final Set<Pos> entities) {
+        return delegate.getEntitiesFromASetOfPos(entities);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public State copy() {
+        return delegate.copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyInto(final State target) {
+        delegate.copyInto(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFree(final Pos pos) {
+        return delegate.isFree(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOccupied(final Pos pos) {
+        return delegate.isOccupied(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInside(final Pos pos) {
+        return delegate.isInside(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> getRandomFreePos(final RandomGenerator random) {
+        return delegate.getRandomFreePos(random);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> getNearestFreePos(final Pos pos) {
+        return delegate.getNearestFreePos(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsConcurrentReads() {
+        return delegate.supportsConcurrentReads();
+    }
+}
@@ -0,0 +1,175 @@
+package it.unibo.ares.core.utils.state;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * The free cells of a grid, kept in an unordered list so that a uniformly
+ * random free cell can be drawn in constant time. Cells are identified by
+ * their index {@code y * width + x}; occupying or releasing a cell swaps it
+ * with the last one of the list.
+ * Both the list and the position of every cell in it are split in chunks of
+ * {@value #CHUNK_SIZE} entries; a copy of the index shares all of its chunks
+ * with the original, and a chunk is duplicated only the first time either
+ * index writes to it, so copying costs one reference per chunk. Copying
+ * writes to the index being copied as well, whose chunks stop being its own.
+ */
+final class FreeCells implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private final int size;
+    private final int[][] cells;
+    /**
+     * The position of every cell in the list, -1 if the cell is occupied.
+     */
+    private final int[][] slots;
+    /**
+     * Whether the chunk of the list at the same index belongs only to this
+     * index and can be written in place.
+     */
+    private final boolean[] ownedCells;
+    /**
+     * Whether the chunk of the slots at the same index belongs only to this
+     * index and can be written in place.
+     */
+    private final boolean[] ownedSlots;
+    private int count;
+
+    /**
+     * Creates an index in which every cell is occupied.
+     *
+     * @param size the number of cells of the grid
+     */
+    FreeCells(final int size) {
+        this.size = size;
+        final int chunkCount = (size + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.cells = new int[chunkCount][];
+        this.slots = new int[chunkCount][];
+        this.ownedCells = new boolean[chunkCount];
+        this.ownedSlots = new boolean[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            cells[i] = new int[CHUNK_SIZE];
+            slots[i] = new int[CHUNK_SIZE];
+            Arrays.fill(slots[i], -1);
+        }
+        Arrays.fill(ownedCells, true);
+        Arrays.fill(ownedSlots, true);
+    }
+
+    /**
+     * Creates an empty shell with the same number of chunks of the given
+     * index, to be filled by {@link #copyInto(FreeCells)}.
+     *
+     * @param shape the index to take the size from
+     */
+    private FreeCells(final FreeCells shape) {
+        this.size = shape.size;
+        this.cells = new int[shape.cells.length][];
+        this.slots = new int[shape.slots.length][];
+        this.ownedCells = new boolean[shape.cells.length];
+        this.ownedSlots = new boolean[shape.slots.length];
+    }
+
+    private static int get(final int[][] chunks, final int index) {
+        return chunks[index >> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    private static void set(final int[][] chunks, final boolean[] owned, final int index, final int value) {
+        final int chunk = index >> CHUNK_SHIFT;
+        if (!owned[chunk]) {
+            chunks[chunk] = chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+        chunks[chunk][index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * Marks a cell as free, nothing happens if it already is.
+     *
+     * @param cell the index of the cell
+     */
+    void release(final int cell) {
+        if (get(slots, cell) < 0) {
+            set(cells, ownedCells, count, cell);
+            set(slots, ownedSlots, cell, count);
+            count++;
+        }
+    }
+
+    /**
+     * Marks a cell as occupied, nothing happens if it already is.
+     *
+     * @param cell the index of the cell
+     */
+    void occupy(final int cell) {
+        final int slot = get(slots, cell);
+        if (slot >= 0) {
+            count--;
+            final int last = get(cells, count);
+            set(cells, ownedCells, slot, last);
+            set(slots, ownedSlots, last, slot);
+            set(slots, ownedSlots, cell, -1);
+        }
+    }
+
+    /**
+     * @return the number of free cells
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Draws a free cell, every free cell having the same probability.
+     *
+     * @param random the source of randomness
+     * @return the index of the cell, -1 if there are no free cells
+     */
+    int random(final RandomGenerator random) {
+        return count == 0 ? -1 : get(cells, random.nextInt(count));
+    }
+
+    /**
+     * @param other another index
+     * @return whether the two indexes currently share at least one chunk
+     */
+    boolean sharesWith(final FreeCells other) {
+        for (int i = 0; i < cells.length && i < other.cells.length; i++) {
+            if (cells[i] == other.cells[i] || slots[i] == other.slots[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a copy of the index sharing its chunks
+     */
+    FreeCells copy() {
+        final FreeCells copy = new FreeCells(this);
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Overwrites the given index, of a grid of the same size, with the content
+     * of this one, sharing its chunks.
+     *
+     * @param target the index to overwrite
+     */
+    void copyInto(final FreeCells target) {
+        if (target.size != size) {
+            throw new IllegalArgumentException("Cannot copy into an index of a different size");
+        }
+        System.arraycopy(cells, 0, target.cells, 0, cells.length);
+        System.arraycopy(slots, 0, target.slots, 0, slots.length);
+        Arrays.fill(ownedCells, false);
+        Arrays.fill(ownedSlots, false);
+        Arrays.fill(target.ownedCells, false);
+        Arrays.fill(target.ownedSlots, false);
+        target.count = count;
+    }
+}
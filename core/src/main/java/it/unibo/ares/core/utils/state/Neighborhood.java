@@ -0,0 +1,54 @@
+package it.unibo.ares.core.utils.state;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shapes of neighborhood that can be visited around a cell.
+ * For every radius the relative offsets of the cells are computed once and
+ * then reused by every visit.
+ */
+public enum Neighborhood {
+    /**
+     * The cells within the given Chebyshev distance, the square around the
+     * center.
+     */
+    MOORE,
+    /**
+     * The cells within the given Manhattan distance, the diamond around the
+     * center.
+     */
+    VON_NEUMANN;
+
+    private final Map<Integer, int[]> tables = new ConcurrentHashMap<>();
+
+    private boolean contains(final int dx, final int dy, final int radius) {
+        return this == MOORE || Math.abs(dx) + Math.abs(dy) <= radius;
+    }
+
+    /**
+     * Returns the offsets of the cells of the neighborhood, the center
+     * excluded, as consecutive dx, dy pairs ordered by dx and then by dy.
+     * The returned array is shared and must not be modified.
+     *
+     * @param radius the radius of the neighborhood
+     * @return the offsets, empty if the radius is not positive
+     */
+    int[] offsets(final int radius) {
+        return tables.computeIfAbsent(Math.max(radius, 0), r -> {
+            final int[] buffer = new int[2 * (2 * r + 1) * (2 * r + 1)];
+            int size = 0;
+            for (int dx = -r; dx <= r; dx++) {
+                for (int dy = -r; dy <= r; dy++) {
+                    if ((dx != 0 || dy != 0) && contains(dx, dy, r)) {
+                        buffer[size++] = dx;
+                        buffer[size++] = dy;
+                    }
+                }
+            }
+            final int[] table = new int[size];
+            System.arraycopy(buffer, 0, table, 0, size);
+            return table;
+        });
+    }
+}
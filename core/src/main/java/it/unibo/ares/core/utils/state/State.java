@@ -6,6 +6,10 @@ import it.unibo.ares.core.utils.Pair;
 import it.unibo.ares.core.utils.pos.Pos;
 
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 import java.util.Set;
 import java.io.Serializable;
 
@@ -27,6 +31,38 @@ public interface State extends Serializable {
      */
     Set<Pair<Pos, Agent>> getAgents();
 
+    /**
+     * Performs an action on every agent of the state, together with its
+     * position, without collecting them. The state must not be changed while
+     * it is being visited.
+     *
+     * @param action the action to perform.
+     */
+    void forEachAgent(BiConsumer<Pos, Agent> action);
+
+    /**
+     * Performs an action on every entity of the state, together with its
+     * position, without collecting them. The state must not be changed while
+     * it is being visited.
+     *
+     * @param action the action to perform.
+     */
+    void forEachEntity(BiConsumer<Pos, Entity> action);
+
+    /**
+     * Counts the agents of the state without collecting them.
+     *
+     * @return the number of agents.
+     */
+    int agentCount();
+
+    /**
+     * Counts the entities of the state without collecting them.
+     *
+     * @return the number of entities.
+     */
+    int entityCount();
+
     /**
      * Adds an agent to the state at the specified position.
      *
@@ -57,6 +93,20 @@ public interface State extends Serializable {
      */
     void moveAgent(Pos from, Pos to);
 
+    /**
+     * Replaces the agent at a position with a new agent spawned from a
+     * prototype, see {@link Agent#spawn()}. The board is written once and the
+     * position stays occupied, which is cheaper than removing the agent and
+     * adding one built from scratch; the same prototype can be used for every
+     * transition to its type.
+     *
+     * @param pos       the position of the agent.
+     * @param prototype the agent to copy, it is not added to the state.
+     * @return the new agent.
+     * @throws IllegalArgumentException if there is no agent at the position.
+     */
+    Agent morphAgent(Pos pos, Agent prototype);
+
     /**
      * Retrieves the agent at the specified position, if any.
      *
@@ -105,6 +155,31 @@ public interface State extends Serializable {
      */
     void moveEntity(Pos from, Pos to);
 
+    /**
+     * Retrieves the agents of the given type, without scanning the whole
+     * state.
+     *
+     * @param type the type of the agents.
+     * @return a set of pairs containing the position and the agent, for every
+     *         agent of the given type.
+     */
+    Set<Pair<Pos, Agent>> getAgentsByType(String type);
+
+    /**
+     * Counts the agents of the given type in constant time.
+     *
+     * @param type the type of the agents.
+     * @return the number of agents of the given type.
+     */
+    int countByType(String type);
+
+    /**
+     * Retrieves the types of the agents in the state.
+     *
+     * @return the set of the types with at least one agent.
+     */
+    Set<String> getAgentTypes();
+
     /**
      * Retrieves the dimensions of the state.
      *
@@ -130,6 +205,43 @@ public interface State extends Serializable {
      */
     Set<Pos> getPosByPosAndRadius(Pos pos, Integer radius);
 
+    /**
+     * Visits the positions inside the state within a specified radius of a
+     * given position, the position itself excluded, without collecting them.
+     *
+     * @param pos          the center position.
+     * @param radius       the radius of the neighborhood.
+     * @param neighborhood the shape of the neighborhood.
+     * @param action       the action to perform on each position.
+     */
+    void forEachNeighbor(Pos pos, int radius, Neighborhood neighborhood, Consumer<Pos> action);
+
+    /**
+     * Visits the agents within a specified radius of a given position, the
+     * position itself excluded, without collecting them.
+     *
+     * @param pos          the center position.
+     * @param radius       the radius of the neighborhood.
+     * @param neighborhood the shape of the neighborhood.
+     * @param action       the action to perform on the position of each agent
+     *                     and the agent itself.
+     */
+    void forEachNeighborAgent(Pos pos, int radius, Neighborhood neighborhood, BiConsumer<Pos, Agent> action);
+
+    /**
+     * Finds the first position inside the state within a specified radius of a
+     * given position, the position itself excluded, that satisfies a
+     * condition. Positions are visited in order of x offset and then y offset
+     * from the center.
+     *
+     * @param pos          the center position.
+     * @param radius       the radius of the neighborhood.
+     * @param neighborhood the shape of the neighborhood.
+     * @param condition    the condition to satisfy.
+     * @return the first matching position, if any.
+     */
+    Optional<Pos> findNeighbor(Pos pos, int radius, Neighborhood neighborhood, Predicate<Pos> condition);
+
     /**
      * Retrieves the agents at the specified positions, if any.
      *
@@ -147,12 +259,27 @@ public interface State extends Serializable {
     Set<Entity> getEntitiesFromASetOfPos(Set<Pos> entities);
 
     /**
-     * Copy the state.
+     * Copy the state. Like {@link #copyInto(State)}, copying can write to
+     * this state.
      * 
      * @return a safe modifiable copy of the state.
      */
     State copy();
 
+    /**
+     * Overwrites the given state with the content of this one, reusing the
+     * storage of the target instead of allocating a new state. The target is
+     * typically a state that is no longer needed, as in double buffering.
+     * When the target shares storage with this state after the copy, this
+     * state marks that storage as shared too, so copying is a write to this
+     * state, though to none of its cells.
+     *
+     * @param target a state with the same dimensions and storage, usually a
+     *               previous copy of this one
+     * @throws IllegalArgumentException if the target is not compatible
+     */
+    void copyInto(State target);
+
     /**
      * Check if a position is free.
      * 
@@ -176,4 +303,34 @@ public interface State extends Serializable {
      * @return true if the position is inside the state, false otherwise.
      */
     boolean isInside(Pos pos);
+
+    /**
+     * Picks a free position, every free position having the same probability
+     * of being chosen.
+     *
+     * @param random the source of randomness.
+     * @return a free position, empty if the state is full.
+     */
+    Optional<Pos> getRandomFreePos(RandomGenerator random);
+
+    /**
+     * Finds the free position closest to a given one, measured in Chebyshev
+     * distance; the position itself is returned if it is free.
+     *
+     * @param pos the position to search around.
+     * @return the closest free position, empty if the state is full.
+     */
+    Optional<Pos> getNearestFreePos(Pos pos);
+
+    /**
+     * Tells whether the cells of the state can be read by a thread while
+     * another thread writes other cells, as long as all the writes and the
+     * operations on the whole state are serialized, for example through a
+     * {@link SynchronizedState}.
+     *
+     * @return true if reading single cells needs no synchronization.
+     */
+    default boolean supportsConcurrentReads() {
+        return false;
+    }
 }
@@ -1,17 +1,25 @@
 package it.unibo.ares.core.utils.state;
 
+import java.io.Serializable;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import it.unibo.ares.core.agent.Agent;
 import it.unibo.ares.core.agent.Entity;
 import it.unibo.ares.core.utils.Pair;
 import it.unibo.ares.core.utils.board.Board;
 import it.unibo.ares.core.utils.board.BoardImpl;
+import it.unibo.ares.core.utils.board.DenseBoardImpl;
+import it.unibo.ares.core.utils.board.PersistentBoardImpl;
+import it.unibo.ares.core.utils.board.TiledBoardImpl;
 import it.unibo.ares.core.utils.pos.Pos;
-import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.pos.PosCache;
 
 /**
  * Implementation of the State interface that represents the state of a
@@ -19,24 +27,99 @@ import it.unibo.ares.core.utils.pos.PosImpl;
  * It manages the entities and agents on a board.
  */
 public final class StateImpl implements State {
-    private static final long serialVersionUID = 1L;
-    private final Board<Entity> entityBoard = new BoardImpl<>();
-    private final Board<Agent> agentBoard = new BoardImpl<>();
+    private static final long serialVersionUID = 2L;
+    /**
+     * Grids up to this many cells always use flat arrays, they are cheap
+     * enough whatever the number of agents.
+     */
+    private static final long SMALL_GRID_CELLS = 1L << 16;
+    /**
+     * Grids with at most this many cells are stored in flat arrays when they
+     * are populated enough.
+     */
+    private static final long DENSE_MAX_CELLS = 1L << 22;
+    /**
+     * A grid is considered dense when at least one cell every this many holds
+     * an agent.
+     */
+    private static final long DENSE_CELLS_PER_AGENT = 8;
+    /**
+     * How many random cells are tried before giving up on grids too large to
+     * index their free cells.
+     */
+    private static final int MAX_RANDOM_ATTEMPTS = 64;
+    private final Storage storage;
+    private final PosCache posCache;
+    private final Board<Entity> entityBoard;
+    private final Board<Agent> agentBoard;
+    private final TypeIndex types;
+    /**
+     * The free cells of the grid, built the first time they are needed and
+     * only for grids that can be stored densely.
+     */
+    private FreeCells freeCells;
     private final Pair<Integer, Integer> size;
 
     /**
      * Constructs a new State object with the specified dimensions.
+     * The storage is chosen as if every cell could be occupied.
      *
      * @param width  the width of the state
      * @param height the height of the state
      */
     public StateImpl(final Integer width, final Integer height) {
+        this(width, height, (long) width * height);
+    }
+
+    /**
+     * Constructs a new State object with the specified dimensions, choosing
+     * the storage of the board from the size of the grid and the number of
+     * agents expected to live in it: small or crowded grids are stored in
+     * flat arrays, large grids in tiles allocated on demand and almost empty
+     * grids in hash maps.
+     *
+     * @param width          the width of the state
+     * @param height         the height of the state
+     * @param expectedAgents the number of agents the state is expected to hold
+     */
+    public StateImpl(final Integer width, final Integer height, final long expectedAgents) {
+        this(width, height, Storage.choose((long) width * height, expectedAgents), new PosCache(width, height));
+    }
+
+    /**
+     * Constructs a new State object with the specified dimensions and storage.
+     *
+     * @param width   the width of the state
+     * @param height  the height of the state
+     * @param storage how the boards of the state are stored
+     */
+    public StateImpl(final Integer width, final Integer height, final Storage storage) {
+        this(width, height, storage, new PosCache(width, height));
+    }
+
+    private StateImpl(final Integer width, final Integer height, final Storage storage, final PosCache posCache) {
         this.size = new Pair<>(width, height);
+        this.storage = storage;
+        this.posCache = posCache;
+        this.entityBoard = storage.createBoard(width, height, posCache);
+        this.agentBoard = storage.createBoard(width, height, posCache);
+        this.types = new TypeIndex(posCache);
+    }
+
+    private StateImpl(final StateImpl other) {
+        this.size = other.size;
+        this.storage = other.storage;
+        this.posCache = other.posCache;
+        this.entityBoard = other.entityBoard.copy();
+        this.agentBoard = other.agentBoard.copy();
+        this.types = other.types.copy();
+        this.freeCells = other.freeCells == null ? null : other.freeCells.copy();
     }
 
-    private Boolean isValidPosition(final Pos pos) {
-        return pos.getX() >= 0 && pos.getX() < size.getFirst()
-                && pos.getY() >= 0 && pos.getY() < size.getSecond();
+    private boolean isValidPosition(final Pos pos) {
+        final int x = pos.x();
+        final int y = pos.y();
+        return x >= 0 && x < size.getFirst() && y >= 0 && y < size.getSecond();
     }
 
     private void assertInsideBoard(final Pos pos) {
@@ -45,6 +128,65 @@ public final class StateImpl implements State {
         }
     }
 
+    private int cellOf(final Pos pos) {
+        return pos.y() * size.getFirst() + pos.x();
+    }
+
+    private Pos posOf(final int cell) {
+        return posCache.get(cell % size.getFirst(), cell / size.getFirst());
+    }
+
+    private void occupied(final Pos pos) {
+        if (freeCells != null) {
+            freeCells.occupy(cellOf(pos));
+        }
+    }
+
+    private void released(final Pos pos) {
+        if (freeCells != null && isFree(pos)) {
+            freeCells.release(cellOf(pos));
+        }
+    }
+
+    /**
+     * @return the index of the free cells, built on first use, empty if the
+     *         grid is too large to index
+     */
+    Optional<FreeCells> freeCells() {
+        final long cells = (long) size.getFirst() * size.getSecond();
+        if (freeCells == null && cells <= DENSE_MAX_CELLS) {
+            freeCells = new FreeCells((int) cells);
+            for (int cell = 0; cell < cells; cell++) {
+                if (isFree(posOf(cell))) {
+                    freeCells.release(cell);
+                }
+            }
+        }
+        return Optional.ofNullable(freeCells);
+    }
+
+    private Optional<Pos> findFreeOnRing(final int cx, final int cy, final int distance) {
+        for (int d = -distance; d <= distance; d++) {
+            final int offset = d;
+            final Optional<Pos> found = freeAt(cx + offset, cy - distance)
+                    .or(() -> freeAt(cx + offset, cy + distance))
+                    .or(() -> freeAt(cx - distance, cy + offset))
+                    .or(() -> freeAt(cx + distance, cy + offset));
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Pos> freeAt(final int x, final int y) {
+        if (x < 0 || x >= size.getFirst() || y < 0 || y >= size.getSecond()) {
+            return Optional.empty();
+        }
+        final Pos pos = posCache.get(x, y);
+        return isFree(pos) ? Optional.of(pos) : Optional.empty();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -61,6 +203,38 @@ public final class StateImpl implements State {
         return agentBoard.getEntities();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachAgent(final BiConsumer<Pos, Agent> action) {
+        agentBoard.forEach(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachEntity(final BiConsumer<Pos, Entity> action) {
+        entityBoard.forEach(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int agentCount() {
+        return agentBoard.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int entityCount() {
+        return entityBoard.size();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -68,6 +242,8 @@ public final class StateImpl implements State {
     public void addAgent(final Pos pos, final Agent agent) {
         assertInsideBoard(pos);
         agentBoard.addEntity(pos, agent);
+        occupied(pos);
+        types.add(agent.getType(), posCache.get(pos.x(), pos.y()));
     }
 
     /**
@@ -75,7 +251,12 @@ public final class StateImpl implements State {
      */
     @Override
     public void removeAgent(final Pos pos, final Agent agent) {
+        final Optional<Agent> current = agentBoard.getEntity(pos);
         agentBoard.removeEntity(pos, agent);
+        if (current.isPresent() && current.get().equals(agent)) {
+            types.remove(agent.getType(), pos);
+        }
+        released(pos);
     }
 
     /**
@@ -87,6 +268,24 @@ public final class StateImpl implements State {
         final Agent agent = agentBoard.getEntity(from).get();
         agentBoard.removeEntity(from, agent);
         agentBoard.addEntity(to, agent);
+        types.move(agent.getType(), from, posCache.get(to.x(), to.y()));
+        released(from);
+        occupied(to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Agent morphAgent(final Pos pos, final Agent prototype) {
+        final Agent agent = getAgentAt(pos)
+                .orElseThrow(() -> new IllegalArgumentException("No agent at position " + pos));
+        final Agent spawned = prototype.spawn();
+        agentBoard.replaceEntity(pos, spawned);
+        final Pos key = posCache.get(pos.x(), pos.y());
+        types.remove(agent.getType(), key);
+        types.add(spawned.getType(), key);
+        return spawned;
     }
 
     /**
@@ -96,6 +295,7 @@ public final class StateImpl implements State {
     public void addEntity(final Pos pos, final Entity entity) {
         assertInsideBoard(pos);
         entityBoard.addEntity(pos, entity);
+        occupied(pos);
     }
 
     /**
@@ -104,6 +304,7 @@ public final class StateImpl implements State {
     @Override
     public void removeEntity(final Pos pos, final Entity entity) {
         entityBoard.removeEntity(pos, entity);
+        released(pos);
     }
 
     /**
@@ -115,6 +316,8 @@ public final class StateImpl implements State {
         final Entity entity = entityBoard.getEntity(from).get();
         entityBoard.removeEntity(from, entity);
         entityBoard.addEntity(to, entity);
+        released(from);
+        occupied(to);
     }
 
     /**
@@ -133,6 +336,32 @@ public final class StateImpl implements State {
         return entityBoard.getEntity(pos);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Pair<Pos, Agent>> getAgentsByType(final String type) {
+        final Set<Pair<Pos, Agent>> result = new HashSet<>();
+        types.forEach(type, pos -> result.add(new Pair<>(pos, agentBoard.getEntity(pos).get())));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countByType(final String type) {
+        return types.count(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getAgentTypes() {
+        return new HashSet<>(types.types());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -146,13 +375,9 @@ public final class StateImpl implements State {
      */
     @Override
     public Set<Pos> getPosByPosAndRadius(final Pos pos, final Integer radius) {
-        return IntStream.rangeClosed(pos.getX() - radius, pos.getX() + radius)
-                .boxed()
-                .flatMap(x -> IntStream.rangeClosed(pos.getY() - radius, pos.getY() + radius)
-                        .mapToObj(y -> new PosImpl(x, y)))
-                .filter(this::isValidPosition)
-                .filter(p -> !p.equals(pos))
-                .collect(Collectors.toSet());
+        final Set<Pos> result = new HashSet<>();
+        forEachNeighbor(pos, radius, Neighborhood.MOORE, result::add);
+        return result;
     }
 
     /**
@@ -160,11 +385,67 @@ public final class StateImpl implements State {
      */
     @Override
     public Set<Agent> getAgentsByPosAndRadius(final Pos pos, final Integer radius) {
-        return getPosByPosAndRadius(pos, radius).stream()
-                .map(this::getAgentAt)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
+        final Set<Agent> result = new HashSet<>();
+        forEachNeighborAgent(pos, radius, Neighborhood.MOORE, (p, agent) -> result.add(agent));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachNeighbor(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final Consumer<Pos> action) {
+        final int[] offsets = neighborhood.offsets(radius);
+        final int cx = pos.x();
+        final int cy = pos.y();
+        final int width = size.getFirst();
+        final int height = size.getSecond();
+        for (int i = 0; i < offsets.length; i += 2) {
+            final int x = cx + offsets[i];
+            final int y = cy + offsets[i + 1];
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                action.accept(posCache.get(x, y));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachNeighborAgent(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final BiConsumer<Pos, Agent> action) {
+        forEachNeighbor(pos, radius, neighborhood, p -> {
+            final Optional<Agent> agent = agentBoard.getEntity(p);
+            if (agent.isPresent()) {
+                action.accept(p, agent.get());
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> findNeighbor(final Pos pos, final int radius, final Neighborhood neighborhood,
+            final Predicate<Pos> condition) {
+        final int[] offsets = neighborhood.offsets(radius);
+        final int cx = pos.x();
+        final int cy = pos.y();
+        final int width = size.getFirst();
+        final int height = size.getSecond();
+        for (int i = 0; i < offsets.length; i += 2) {
+            final int x = cx + offsets[i];
+            final int y = cy + offsets[i + 1];
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                final Pos candidate = posCache.get(x, y);
+                if (condition.test(candidate)) {
+                    return Optional.of(candidate);
+                }
+            }
+        }
+        return Optional.empty();
     }
 
     /**
@@ -188,10 +469,29 @@ public final class StateImpl implements State {
 
     @Override
     public State copy() {
-        final StateImpl copy = new StateImpl(size.getFirst(), size.getSecond());
-        entityBoard.getEntities().forEach(e -> copy.addEntity(e.getFirst(), e.getSecond()));
-        agentBoard.getEntities().forEach(e -> copy.addAgent(e.getFirst(), e.getSecond()));
-        return copy;
+        return new StateImpl(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyInto(final State target) {
+        if (!(target instanceof StateImpl) || !((StateImpl) target).size.equals(size)
+                || ((StateImpl) target).storage != storage) {
+            throw new IllegalArgumentException("Cannot copy into a state with different dimensions or storage");
+        }
+        final StateImpl other = (StateImpl) target;
+        entityBoard.copyInto(other.entityBoard);
+        agentBoard.copyInto(other.agentBoard);
+        types.copyInto(other.types);
+        if (freeCells == null) {
+            other.freeCells = null;
+        } else if (other.freeCells == null) {
+            other.freeCells = freeCells.copy();
+        } else {
+            freeCells.copyInto(other.freeCells);
+        }
     }
 
     @Override
@@ -209,4 +509,97 @@ public final class StateImpl implements State {
         return isValidPosition(pos);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> getRandomFreePos(final RandomGenerator random) {
+        final Optional<FreeCells> index = freeCells();
+        if (index.isPresent()) {
+            final int cell = index.get().random(random);
+            return cell < 0 ? Optional.empty() : Optional.of(posOf(cell));
+        }
+        for (int i = 0; i < MAX_RANDOM_ATTEMPTS; i++) {
+            final Pos candidate = posCache.get(random.nextInt(size.getFirst()), random.nextInt(size.getSecond()));
+            if (isFree(candidate)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Pos> getNearestFreePos(final Pos pos) {
+        if (freeCells().map(FreeCells::count).orElse(1) == 0) {
+            return Optional.empty();
+        }
+        final int maxDistance = Math.max(size.getFirst(), size.getSecond());
+        final Optional<Pos> center = freeAt(pos.x(), pos.y());
+        if (center.isPresent()) {
+            return center;
+        }
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            final Optional<Pos> found = findFreeOnRing(pos.x(), pos.y(), distance);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only flat arrays qualify: the other storages may restructure shared
+     * maps or chunks when a cell is written.
+     */
+    @Override
+    public boolean supportsConcurrentReads() {
+        return storage == Storage.DENSE;
+    }
+
+    /**
+     * The ways the boards of a state can be stored.
+     */
+    public enum Storage {
+        /**
+         * A flat array with a slot for every cell.
+         */
+        DENSE,
+        /**
+         * Tiles of cells allocated only where there are entities.
+         */
+        TILED,
+        /**
+         * A hash map from positions to entities.
+         */
+        HASH,
+        /**
+         * Chunks of cells shared between copies and duplicated on write, so
+         * that copying a state costs one reference per chunk.
+         */
+        PERSISTENT;
+
+        private static Storage choose(final long cells, final long expectedAgents) {
+            if (cells <= SMALL_GRID_CELLS
+                    || cells <= DENSE_MAX_CELLS && expectedAgents * DENSE_CELLS_PER_AGENT >= cells) {
+                return DENSE;
+            }
+            final long tileArea = (long) TiledBoardImpl.TILE_SIDE * TiledBoardImpl.TILE_SIDE;
+            return expectedAgents * tileArea >= cells ? TILED : HASH;
+        }
+
+        private <V extends Serializable> Board<V> createBoard(final int width, final int height,
+                final PosCache posCache) {
+            if (this == DENSE) {
+                return new DenseBoardImpl<>(width, height, posCache);
+            }
+            if (this == PERSISTENT) {
+                return new PersistentBoardImpl<>(width, height, posCache);
+            }
+            return this == TILED ? new TiledBoardImpl<>() : new BoardImpl<>();
+        }
+    }
 }
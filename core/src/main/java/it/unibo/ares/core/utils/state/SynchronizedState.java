@@ -0,0 +1,211 @@
+package it.unibo.ares.core.utils.state;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.Entity;
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.pos.Pos;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * A view of a state that can be shared by the threads ticking agents in
+ * separate regions of the grid.
+ * Every write and every operation that reads the whole state or its indexes,
+ * such as the counts by type and the free cells, is serialized on the view;
+ * reads of single cells and of neighbourhoods go straight to the underlying
+ * state, so the wrapped state must {@link State#supportsConcurrentReads()
+ * support concurrent reads}. Keeping the regions touched by the threads
+ * apart is up to the caller.
+ */
+public final class SynchronizedState extends ForwardingState {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a view of the given state.
+     *
+     * @param state the state to share between threads.
+     * @throws IllegalArgumentException if the state does not support
+     *                                  concurrent reads.
+     */
+    public SynchronizedState(final State state) {
+        super(state);
+        if (!state.supportsConcurrentReads()) {
+            throw new IllegalArgumentException("The state does not support concurrent reads");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Set<Pair<Pos, Entity>> getEntities() {
+        return delegate().getEntities();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Set<Pair<Pos, Agent>> getAgents() {
+        return delegate().getAgents();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void forEachAgent(final BiConsumer<Pos, Agent> action) {
+        delegate().forEachAgent(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void forEachEntity(final BiConsumer<Pos, Entity> action) {
+        delegate().forEachEntity(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int agentCount() {
+        return delegate().agentCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int entityCount() {
+        return delegate().entityCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void addAgent(final Pos pos, final Agent agent) {
+        delegate().addAgent(pos, agent);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void removeAgent(final Pos pos, final Agent agent) {
+        delegate().removeAgent(pos, agent);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void moveAgent(final Pos from, final Pos to) {
+        delegate().moveAgent(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Agent morphAgent(final Pos pos, final Agent prototype) {
+        return delegate().morphAgent(pos, prototype);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void addEntity(final Pos pos, final Entity entity) {
+        delegate().addEntity(pos, entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void removeEntity(final Pos pos, final Entity entity) {
+        delegate().removeEntity(pos, entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void moveEntity(final Pos from, final Pos to) {
+        delegate().moveEntity(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Set<Pair<Pos, Agent>> getAgentsByType(final String type) {
+        return delegate().getAgentsByType(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int countByType(final String type) {
+        return delegate().countByType(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Set<String> getAgentTypes() {
+        return delegate().getAgentTypes();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The copy is not synchronized.
+     */
+    @Override
+    public synchronized State copy() {
+        return delegate().copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Copying can write to the underlying state, so it is serialized like the
+     * other writes.
+     */
+    @Override
+    public synchronized void copyInto(final State target) {
+        delegate().copyInto(target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Optional<Pos> getRandomFreePos(final RandomGenerator random) {
+        return delegate().getRandomFreePos(random);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Optional<Pos> getNearestFreePos(final Pos pos) {
+        return delegate().getNearestFreePos(pos);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsConcurrentReads() {
+        return true;
+    }
+}
@@ -0,0 +1,252 @@
+package it.unibo.ares.core.utils.state;
+
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosCache;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The positions of the agents of a state grouped by type.
+ * The positions of a type are a bit set split in square tiles of
+ * {@value #TILE_SIDE} x {@value #TILE_SIDE} cells, allocated only where
+ * agents of the type are. A copy of the index shares the tiles with the
+ * original, and a tile is duplicated only the first time either index writes
+ * to it, so copying a state costs one reference per type and a tick costs
+ * one copy per tile it writes to, not per agent. Copying writes to the index
+ * being copied as well, whose tiles stop being its own.
+ * Whether an index owns a tile or the table of tiles of a type is told by
+ * the stamp they carry, which every copy renews on both sides.
+ */
+final class TypeIndex implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIDE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIDE - 1;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = Long.SIZE - 1;
+    private static final int WORDS = TILE_SIDE * TILE_SIDE / Long.SIZE;
+    /**
+     * The stamps of the indexes, unique within the process.
+     */
+    private static final AtomicLong STAMPS = new AtomicLong();
+    private final PosCache positions;
+    private final Map<String, Tiles> byType = new HashMap<>();
+    private long stamp = STAMPS.incrementAndGet();
+
+    /**
+     * @param positions the positions of the grid the index belongs to
+     */
+    TypeIndex(final PosCache positions) {
+        this.positions = positions;
+    }
+
+    private static long tileKey(final int x, final int y) {
+        return ((long) (x >> TILE_SHIFT) << Integer.SIZE) | ((y >> TILE_SHIFT) & 0xFFFF_FFFFL);
+    }
+
+    private static int bitIndex(final int x, final int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+
+    private Tiles writable(final String type) {
+        final Tiles current = byType.get(type);
+        if (current != null && current.stamp == stamp) {
+            return current;
+        }
+        final Tiles created = current == null ? new Tiles(stamp, new HashMap<>()) : current.duplicate(stamp);
+        byType.put(type, created);
+        return created;
+    }
+
+    /**
+     * Records an agent of the given type at the given position.
+     *
+     * @param type the type of the agent
+     * @param pos  the position of the agent
+     */
+    void add(final String type, final Pos pos) {
+        writable(type).set(pos.x(), pos.y());
+    }
+
+    /**
+     * Forgets the agent of the given type at the given position.
+     *
+     * @param type the type of the agent
+     * @param pos  the position of the agent
+     */
+    void remove(final String type, final Pos pos) {
+        if (byType.containsKey(type)) {
+            final Tiles tiles = writable(type);
+            tiles.clear(pos.x(), pos.y());
+            if (tiles.count == 0) {
+                byType.remove(type);
+            }
+        }
+    }
+
+    /**
+     * Records that the agent of the given type has moved.
+     *
+     * @param type the type of the agent
+     * @param from the previous position of the agent
+     * @param to   the new position of the agent
+     */
+    void move(final String type, final Pos from, final Pos to) {
+        final Tiles tiles = writable(type);
+        tiles.clear(from.x(), from.y());
+        tiles.set(to.x(), to.y());
+    }
+
+    /**
+     * Visits the positions of the agents of the given type, tile by tile.
+     *
+     * @param type   the type of the agents
+     * @param action what to do with every position, which must not change
+     *               the index
+     */
+    void forEach(final String type, final Consumer<Pos> action) {
+        final Tiles tiles = byType.get(type);
+        if (tiles == null) {
+            return;
+        }
+        for (final Map.Entry<Long, long[]> entry : tiles.tiles.entrySet()) {
+            final int originX = (int) (entry.getKey() >> Integer.SIZE) << TILE_SHIFT;
+            final int originY = (int) (long) entry.getKey() << TILE_SHIFT;
+            final long[] words = entry.getValue();
+            for (int word = 0; word < WORDS; word++) {
+                for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                    final int bit = (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                    action.accept(positions.get(originX + (bit & TILE_MASK), originY + (bit >> TILE_SHIFT)));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param type the type of the agents
+     * @return the number of agents of the given type
+     */
+    int count(final String type) {
+        final Tiles tiles = byType.get(type);
+        return tiles == null ? 0 : tiles.count;
+    }
+
+    /**
+     * @return the types with at least one agent
+     */
+    Set<String> types() {
+        return Collections.unmodifiableSet(byType.keySet());
+    }
+
+    /**
+     * @param other another index
+     * @param type  the type of the agents
+     * @return how many tiles of the given type the two indexes share
+     */
+    int sharedTiles(final TypeIndex other, final String type) {
+        final Tiles mine = byType.get(type);
+        final Tiles theirs = other.byType.get(type);
+        if (mine == null || theirs == null) {
+            return 0;
+        }
+        int shared = 0;
+        for (final Map.Entry<Long, long[]> entry : mine.tiles.entrySet()) {
+            if (theirs.tiles.get(entry.getKey()) == entry.getValue()) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @return a copy of the index sharing its tiles
+     */
+    TypeIndex copy() {
+        final TypeIndex copy = new TypeIndex(positions);
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Overwrites the given index with the content of this one, sharing the
+     * tiles.
+     *
+     * @param target the index to overwrite
+     */
+    void copyInto(final TypeIndex target) {
+        target.byType.clear();
+        target.byType.putAll(byType);
+        // neither index owns what they now share
+        stamp = STAMPS.incrementAndGet();
+        target.stamp = STAMPS.incrementAndGet();
+    }
+
+    /**
+     * The tiles holding the positions of the agents of a type, by the key of
+     * the tile. The last word of a tile is the stamp of the index owning it.
+     */
+    private static final class Tiles implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Map<Long, long[]> tiles;
+        private final long stamp;
+        private int count;
+
+        private Tiles(final long stamp, final Map<Long, long[]> tiles) {
+            this.tiles = tiles;
+            this.stamp = stamp;
+        }
+
+        private Tiles duplicate(final long owner) {
+            final Tiles copy = new Tiles(owner, new HashMap<>(tiles));
+            copy.count = count;
+            return copy;
+        }
+
+        private long[] writableTile(final long key) {
+            final long[] current = tiles.get(key);
+            if (current != null && current[WORDS] == stamp) {
+                return current;
+            }
+            final long[] tile = current == null ? new long[WORDS + 1] : current.clone();
+            tile[WORDS] = stamp;
+            tiles.put(key, tile);
+            return tile;
+        }
+
+        private void set(final int x, final int y) {
+            final long[] tile = writableTile(tileKey(x, y));
+            final int bit = bitIndex(x, y);
+            final long mask = 1L << (bit & WORD_MASK);
+            if ((tile[bit >> WORD_SHIFT] & mask) == 0) {
+                tile[bit >> WORD_SHIFT] |= mask;
+                count++;
+            }
+        }
+
+        private void clear(final int x, final int y) {
+            final long key = tileKey(x, y);
+            final long[] current = tiles.get(key);
+            final int bit = bitIndex(x, y);
+            final long mask = 1L << (bit & WORD_MASK);
+            if (current == null || (current[bit >> WORD_SHIFT] & mask) == 0) {
+                return;
+            }
+            final long[] tile = writableTile(key);
+            tile[bit >> WORD_SHIFT] &= ~mask;
+            count--;
+            for (int word = 0; word < WORDS; word++) {
+                if (tile[word] != 0) {
+                    return;
+                }
+            }
+            // empty tiles are dropped, so the memory follows the agents
+            tiles.remove(key);
+        }
+    }
+}
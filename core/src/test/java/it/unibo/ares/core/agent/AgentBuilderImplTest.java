@@ -3,17 +3,28 @@ package it.unibo.ares.core.agent;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import it.unibo.ares.core.utils.lambda.SerializableBiFunction;
 import it.unibo.ares.core.utils.parameters.ParameterImpl;
 import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
 import it.unibo.ares.core.utils.state.State;
+import it.unibo.ares.core.utils.state.StateImpl;
 
 /**
  * Unit test for {@link AgentBuilderImpl}.
  */
 final class AgentBuilderImplTest {
+    // CHECKSTYLE: MagicNumber OFF
 
     /**
      * Should throw an IllegalStateException if we try to build an agent without a
@@ -43,4 +54,72 @@ final class AgentBuilderImplTest {
                     .addParameter(new ParameterImpl<>("testKey3", true, true));
         });
     }
+
+    /**
+     * Should give every agent a numeric id when it is built, unique within
+     * the process, with equality and hash code that never change, and keep
+     * it in snapshots.
+     */
+    @Test
+    void testIds() throws IOException, ClassNotFoundException {
+        final AgentBuilderImpl agentBuilder = new AgentBuilderImpl();
+        agentBuilder.addStrategy((state, pos) -> state);
+        final Agent first = agentBuilder.build();
+        final Agent second = agentBuilder.build();
+        assertNotEquals(first, second);
+        assertEquals(Long.parseLong(first.getId()) + 1, Long.parseLong(second.getId()));
+
+        final String id = first.getId();
+        final int hash = first.hashCode();
+        final State state = new StateImpl(3, 3);
+        state.addAgent(new PosImpl(0, 0), first);
+        state.moveAgent(new PosImpl(0, 0), new PosImpl(2, 2));
+        assertEquals(id, first.getId());
+        assertEquals(hash, first.hashCode());
+
+        // agents of different simulations are never equal
+        final State other = new StateImpl(3, 3);
+        final Agent third = agentBuilder.build();
+        other.addAgent(new PosImpl(0, 0), third);
+        assertNotEquals(first, third);
+        assertNotEquals(second, third);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(second);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final Agent loaded = (Agent) in.readObject();
+            assertEquals(second, loaded);
+            assertEquals(second.hashCode(), loaded.hashCode());
+        }
+    }
+
+    /**
+     * Should replace an agent with a copy of a prototype, with its own id and
+     * parameters.
+     */
+    @Test
+    void testMorph() {
+        final AgentBuilderImpl agentBuilder = new AgentBuilderImpl();
+        agentBuilder.addStrategy((state, pos) -> state).addParameter(new ParameterImpl<>("fuel", 1.0, true));
+        final Agent prototype = agentBuilder.build();
+        prototype.setType("F");
+        final Agent tree = new AgentBuilderImpl().addStrategy((state, pos) -> state).build();
+        tree.setType("T");
+
+        final State state = new StateImpl(3, 3);
+        final Pos pos = new PosImpl(1, 1);
+        state.addAgent(pos, tree);
+        final Agent fire = state.morphAgent(pos, prototype);
+        fire.setParameter("fuel", 0.5);
+        assertEquals(fire, state.getAgentAt(pos).get());
+        assertNotEquals(prototype, fire);
+        assertEquals("F", fire.getType());
+        assertEquals(1.0, prototype.getParameters().getParameter("fuel", Double.class).get().getValue());
+        assertEquals(0, state.countByType("T"));
+        assertEquals(1, state.countByType("F"));
+        assertEquals("T", tree.getType());
+        assertThrows(IllegalArgumentException.class, () -> state.morphAgent(new PosImpl(0, 0), prototype));
+    }
 }
@@ -0,0 +1,121 @@
+package it.unibo.ares.core.agent.columnar;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.TypeCodes;
+import it.unibo.ares.core.utils.parameters.ParameterSlot;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.parameters.ParametersImpl;
+import it.unibo.ares.core.utils.pos.Pos;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link ColumnarWorld}.
+ */
+class ColumnarWorldTest {
+    // CHECKSTYLE: MagicNumber OFF
+    private static final ParameterSlot<Integer> SUGAR = ParameterSlot.of("sugar", Integer.class);
+    private static final ParameterSlot<Double> RATE = ParameterSlot.of("rate", Double.class);
+
+    private static Parameters template() {
+        final Parameters parameters = new ParametersImpl();
+        parameters.addParameter("sugar", 1, true);
+        parameters.addParameter("rate", 0.5, false);
+        return parameters;
+    }
+
+    private static void grow(final ColumnarWorld world, final Population population) {
+        final int[] sugar = population.intColumn(SUGAR);
+        for (int row = 0; row < population.size(); row++) {
+            sugar[row]++;
+        }
+    }
+
+    /**
+     * Test adding, moving and ticking agents.
+     */
+    @Test
+    void testTick() {
+        final ColumnarWorld world = new ColumnarWorld(100, 100);
+        final Population population = world.addPopulation("S", template(), ColumnarWorldTest::grow);
+        for (int i = 0; i < 1000; i++) {
+            population.add(i % 100, i / 100);
+        }
+        assertEquals(1000, world.agentCount());
+        assertEquals(0.5, population.getDouble(RATE, 999));
+        world.tick();
+        world.tick();
+        assertEquals(3, population.getInt(SUGAR, 0));
+        assertEquals(3, population.getInt(SUGAR, 999));
+
+        assertFalse(world.isFree(5, 0));
+        population.move(5, 50, 50);
+        assertTrue(world.isFree(5, 0));
+        assertEquals(5, world.getOccupantRow(50, 50));
+        assertEquals("S", world.getOccupant(50, 50).get().getType());
+        assertThrows(IllegalArgumentException.class, () -> population.add(50, 50));
+        assertThrows(IllegalArgumentException.class, () -> population.add(100, 0));
+    }
+
+    /**
+     * Test that removing agents keeps rows dense and views valid.
+     */
+    @Test
+    void testRemoveAndViews() {
+        final ColumnarWorld world = new ColumnarWorld(10, 10);
+        final Population population = world.addPopulation("S", template(), ColumnarWorldTest::grow);
+        world.addPopulation("E", new ParametersImpl(), (w, p) -> { });
+        assertThrows(IllegalArgumentException.class, () -> world.addPopulation("E", template(), (w, p) -> { }));
+        for (int x = 0; x < 3; x++) {
+            population.add(x, 0);
+        }
+        final Agent last = population.getAgent(2);
+        last.setParameter("sugar", 7);
+        assertEquals(7, last.getParameters().getInt(SUGAR));
+        assertEquals("S", last.getType());
+
+        population.remove(0);
+        assertEquals(2, population.size());
+        assertTrue(world.isFree(0, 0));
+        assertEquals(0, world.getOccupantRow(2, 0));
+        assertEquals(7, population.getInt(SUGAR, 0));
+        assertEquals(7, last.getParameters().getInt(SUGAR));
+        assertEquals(last, population.getAgent(0));
+
+        population.remove(0);
+        assertThrows(IllegalStateException.class, last::getParameters);
+        assertThrows(UnsupportedOperationException.class, () -> last.setType("E"));
+
+        world.getPopulation("E").get().add(4, 4);
+        assertArrayEquals(new long[] { Pos.pack(1, 0), Pos.pack(4, 4) }, world.getPositionKeys());
+        assertArrayEquals(new int[] { TypeCodes.of("S"), TypeCodes.of("E") }, world.getTypeCodes());
+    }
+
+    /**
+     * Test that births and deaths recycle the slots of the ids without
+     * reviving the views of removed agents.
+     */
+    @Test
+    void testIdsAreRecycled() {
+        final ColumnarWorld world = new ColumnarWorld(10, 10);
+        final Population population = world.addPopulation("S", template(), ColumnarWorldTest::grow);
+        population.add(0, 0);
+        final long first = population.getId(0);
+        final Agent view = population.getAgent(0);
+        for (int i = 0; i < 1000; i++) {
+            population.remove(0);
+            population.add(i % 10, 1);
+        }
+        assertEquals(1, population.slotCount());
+        assertNotEquals(first, population.getId(0));
+        assertEquals(-1, population.rowOf(first));
+        assertEquals(0, population.rowOf(population.getId(0)));
+        assertThrows(IllegalStateException.class, view::getParameters);
+    }
+}
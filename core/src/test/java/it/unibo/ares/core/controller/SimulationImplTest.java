@@ -0,0 +1,196 @@
+package it.unibo.ares.core.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import it.unibo.ares.core.model.BoidsModelFactory;
+import it.unibo.ares.core.model.ColumnarSchellingModelFactory;
+import it.unibo.ares.core.model.Model;
+import it.unibo.ares.core.model.SchellingModelFactory;
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.state.State;
+
+/**
+ * Unit test for {@link SimulationImpl}.
+ */
+class SimulationImplTest {
+    // CHECKSTYLE: MagicNumber OFF
+    private static final String ID = "sim";
+
+    private static Simulation boids() {
+        final Model model = new BoidsModelFactory().getModel();
+        model.setParameter(Model.SIZEKEY, 20);
+        model.setParameter("numeroUccelli", 30);
+        model.setParameter(Model.SEEDKEY, 7L);
+        final State state = model.initilize();
+        state.forEachAgent((pos, agent) -> {
+            agent.setParameter("distance", 3);
+            agent.setParameter("angle", 90);
+            agent.setParameter("collisionAvoidanceWeight", 0.5);
+            agent.setParameter("alignmentWeight", 0.3);
+            agent.setParameter("cohesionWeight", 0.2);
+            agent.setParameter("stepSize", 1);
+        });
+        return new SimulationImpl(state, model, 1000);
+    }
+
+    private static Simulation schelling(final double threshold) {
+        final Model model = new SchellingModelFactory().getModel();
+        model.setParameter(Model.SIZEKEY, 20);
+        model.setParameter("numeroAgentiTipoA", 150);
+        model.setParameter("numeroAgentiTipoB", 150);
+        model.setParameter(Model.SEEDKEY, 7L);
+        final State state = model.initilize();
+        state.forEachAgent((pos, agent) -> {
+            agent.setParameter("threshold", threshold);
+            agent.setParameter("visionRadius", 1);
+        });
+        return new SimulationImpl(state, model, 1000);
+    }
+
+    /**
+     * Test that the frames of a model on the columnar runtime are read from
+     * its columns, with the codes of the types renumbered within the frame.
+     */
+    @Test
+    void testColumnarFrames() {
+        final Model model = new ColumnarSchellingModelFactory().getModel();
+        model.setParameter(Model.SIZEKEY, 20);
+        model.setParameter("numeroAgentiTipoA", 150);
+        model.setParameter("numeroAgentiTipoB", 150);
+        model.setParameter("threshold", 0.7);
+        model.setParameter("visionRadius", 1);
+        model.setParameter(Model.SEEDKEY, 7L);
+        final Simulation simulation = new SimulationImpl(model.initilize(), model, 1000);
+        final List<SimulationOutputData> frames = new ArrayList<>();
+        simulation.advance(ID, 3, 0, 1, frames::add);
+        assertEquals(3, frames.size());
+        for (final SimulationOutputData frame : frames) {
+            assertEquals(List.of("A", "B"), List.of(frame.getTypeDictionary()));
+            assertEquals(300, frame.getData().size());
+            assertEquals(150, frame.getData().values().stream().filter("A"::equals).count());
+        }
+        assertNotEquals(frames.get(0).getData(), frames.get(2).getData());
+    }
+
+    /**
+     * Test that the statistics of a frame do not change when the double
+     * buffered state they were computed on is overwritten by later ticks.
+     */
+    @Test
+    void testStatisticsOfOldFrames() {
+        final Simulation simulation = schelling(0.7);
+        final List<SimulationOutputData> frames = new ArrayList<>();
+        simulation.advance(ID, 1, 0, 0, frames::add);
+        final List<Pair<String, String>> first = List.copyOf(frames.get(0).getStatistics().getStatistics());
+        simulation.advance(ID, 2, 0, 0, frames::add);
+        assertEquals(first, frames.get(0).getStatistics().getStatistics());
+        assertNotEquals(first, frames.get(1).getStatistics().getStatistics());
+    }
+
+    /**
+     * Test that advancing produces the output data only when sampled.
+     */
+    @Test
+    void testAdvance() {
+        final Simulation simulation = boids();
+        final List<SimulationOutputData> frames = new ArrayList<>();
+        assertEquals(100, simulation.advance(ID, 100, 0, 30, frames::add));
+        // sampled at the ticks 30, 60 and 90, then at the end
+        assertEquals(4, frames.size());
+        assertFalse(frames.get(3).isFinished());
+        assertEquals(30, frames.get(3).getPositionKeys().length);
+
+        frames.clear();
+        assertEquals(5, simulation.advance(ID, 5, 0, 0, frames::add));
+        assertEquals(1, frames.size());
+    }
+
+    /**
+     * Test that only a paused simulation can be advanced.
+     */
+    @Test
+    void testAdvanceRunning() {
+        final Simulation simulation = boids();
+        assertThrows(IllegalArgumentException.class, () -> simulation.advance(ID, -1, 0, 0, d -> { }));
+        simulation.start();
+        assertThrows(IllegalStateException.class, () -> simulation.advance(ID, 1, 0, 0, d -> { }));
+    }
+
+    /**
+     * Test that a free running simulation ticks on its own and is only
+     * sampled.
+     */
+    @Test
+    void testFreeRunning() throws InterruptedException {
+        final Simulation simulation = new SimulationImpl(boids().getState(), boids().getModel(), 0);
+        simulation.setFreeRunning(true);
+        simulation.start();
+        Optional<SimulationOutputData> frame = simulation.tickSync(ID);
+        for (int i = 0; i < 500 && frame.isEmpty(); i++) {
+            Thread.sleep(10);
+            frame = simulation.tickSync(ID);
+        }
+        assertTrue(frame.isPresent());
+        simulation.pause();
+        // the thread has stopped, so the simulation can be advanced
+        assertEquals(1, simulation.advance(ID, 1, 0, 0, d -> { }));
+        simulation.setFreeRunning(false);
+        assertFalse(simulation.isFreeRunning());
+    }
+
+    /**
+     * Test that the frame of the end of a free running simulation is kept
+     * when its thread stops, so that it is shown once sampled.
+     */
+    @Test
+    void testFreeRunningKeepsLastFrame() throws InterruptedException {
+        // every agent is satisfied, so the simulation is over after one tick
+        final Simulation simulation = schelling(0.0);
+        final State initial = simulation.getState();
+        simulation.setFreeRunning(true);
+        simulation.start();
+        simulation.tickSync(ID);
+        for (int i = 0; i < 500 && simulation.getState() == initial; i++) {
+            Thread.sleep(10);
+        }
+        simulation.setFreeRunning(false);
+        simulation.setFreeRunning(true);
+        // the simulation is over, so the frame comes from the stopped thread
+        Optional<SimulationOutputData> frame = simulation.tickSync(ID);
+        for (int i = 0; i < 1000 && frame.isEmpty(); i++) {
+            frame = simulation.tickSync(ID);
+        }
+        assertTrue(frame.isPresent());
+        assertTrue(frame.get().isFinished());
+    }
+
+    /**
+     * Test that ticks asked while one is in progress are coalesced instead of
+     * failing or overlapping.
+     */
+    @Test
+    void testCoalescedTicks() {
+        final Simulation simulation = new SimulationImpl(boids().getState(), boids().getModel(), 0);
+        simulation.start();
+        final List<CompletableFuture<Optional<SimulationOutputData>>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(simulation.tick(ID));
+        }
+        final long produced = futures.stream().map(CompletableFuture::join).filter(Optional::isPresent).count();
+        assertTrue(produced >= 1 && produced <= 50);
+        simulation.pause();
+        // every tick is over, so the simulation is free again
+        assertEquals(1, simulation.advance(ID, 1, 0, 0, d -> { }));
+    }
+}
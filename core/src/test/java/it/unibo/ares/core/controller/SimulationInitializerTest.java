@@ -1,5 +1,6 @@
 package it.unibo.ares.core.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -67,4 +68,24 @@ class SimulationInitializerTest {
         final Parameters agentParams = simulationInitializer.getAgentParametersSimplified(simId, agent);
         assertFalse(agentParams.getParametersToset().isEmpty());
     }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    @Test
+    void testParametrizeAgentType() {
+        final SimulationInitializerImpl simulationInitializer = new SimulationInitializerImpl();
+        final String simId = simulationInitializer.addNewModel(sf.getModelId());
+        simulationInitializer.setModelParameter(simId, "numeroAgentiTipoA", 10);
+        simulationInitializer.setModelParameter(simId, "numeroAgentiTipoB", 10);
+        simulationInitializer.setModelParameter(simId, "size", 15);
+        assertEquals(Set.of("A", "B"), simulationInitializer.getAgentsSimplified(simId));
+        simulationInitializer.setAgentParameterSimplified(simId, "A", "threshold", 0.5);
+        simulationInitializer.setAgentParameterSimplified(simId, "A", "visionRadius", 2);
+        assertTrue(simulationInitializer.getAgentParametersSimplified(simId, "A").getParametersToset().isEmpty());
+        assertEquals(2, simulationInitializer.getAgentParametersSimplified(simId, "A")
+                .getParameter("visionRadius", Integer.class).get().getValue());
+        assertFalse(simulationInitializer.getAgentParametersSimplified(simId, "B").getParametersToset().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> simulationInitializer.setAgentParameterSimplified(simId, "B", "visionRadius", -1));
+        assertThrows(IllegalArgumentException.class, () -> simulationInitializer.startSimulation(simId));
+    }
 }
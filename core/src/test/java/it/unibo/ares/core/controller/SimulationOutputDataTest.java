@@ -0,0 +1,56 @@
+package it.unibo.ares.core.controller;
+
+import it.unibo.ares.core.agent.TypeCodes;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Unit test for {@link SimulationOutputData}.
+ */
+class SimulationOutputDataTest {
+    // CHECKSTYLE: MagicNumber OFF
+
+    /**
+     * Test that frames built from type names and from type codes agree.
+     */
+    @Test
+    void testTypeCodes() {
+        final int fire = TypeCodes.of("F");
+        final int tree = TypeCodes.of("T");
+        assertNotEquals(fire, tree);
+        assertEquals(fire, TypeCodes.of("F"));
+        assertEquals("T", TypeCodes.nameOf(tree));
+
+        final long[] positions = { Pos.pack(0, 0), Pos.pack(1, 2) };
+        final SimulationOutputData byCode = new SimulationOutputData(positions, new int[] { fire, tree },
+                TypeCodes.names(), "id", 3, 3, false, Collections::emptyList);
+        final SimulationOutputData byName = new SimulationOutputData(positions, new String[] { "F", "T" },
+                "id", 3, 3, false, Collections::emptyList);
+        assertArrayEquals(new String[] { "F", "T" }, byCode.getTypes());
+        assertArrayEquals(new String[] { "F", "T" }, byName.getTypes());
+        assertEquals("T", byName.getTypeDictionary()[byName.getTypeCodes()[1]]);
+        assertEquals(byName.getData(), byCode.getData());
+        assertEquals("T", byCode.getData().get(new PosImpl(1, 2)));
+    }
+
+    /**
+     * Test that the dictionary of a frame holds only the types of its agents.
+     */
+    @Test
+    void testLocalDictionary() {
+        TypeCodes.of("unused in the frame");
+        final int sheep = TypeCodes.of("sheep");
+        final int wolf = TypeCodes.of("wolf");
+        final int[] codes = { wolf, sheep, TypeCodes.NO_TYPE, wolf };
+        final String[] dictionary = SimulationOutputData.localizeTypeCodes(codes);
+        assertArrayEquals(new String[] { "wolf", "sheep" }, dictionary);
+        assertArrayEquals(new int[] { 0, 1, TypeCodes.NO_TYPE, 0 }, codes);
+    }
+}
@@ -0,0 +1,247 @@
+package it.unibo.ares.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.ConsumerAgentFactory;
+import it.unibo.ares.core.agent.SugarAgentFactory;
+import it.unibo.ares.core.agent.TypeCodes;
+import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
+import it.unibo.ares.core.utils.state.State;
+import it.unibo.ares.core.utils.state.StateImpl;
+
+/**
+ * Unit test for {@link ActivityScheduler}.
+ */
+class ActivitySchedulerTest {
+    // CHECKSTYLE: MagicNumber OFF
+    private static final int SIZE = 30;
+    private static final String SUGAR_AMOUNT = "sugarAmount";
+
+    private static Agent sugar(final int amount, final int max) {
+        final Agent sugar = new SugarAgentFactory().createAgent();
+        sugar.getParameters().setParameter("maxSugar", max);
+        sugar.getParameters().setParameter(SUGAR_AMOUNT, amount);
+        sugar.getParameters().setParameter("growthRate", 1);
+        return sugar;
+    }
+
+    private static State sugarscape() {
+        final State state = new StateImpl(SIZE, SIZE, StateImpl.Storage.DENSE);
+        final SplitMixRandom random = new SplitMixRandom(11);
+        final ConsumerAgentFactory consumerFactory = new ConsumerAgentFactory();
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                final int draw = random.nextInt(8);
+                if (draw < 4) {
+                    state.addAgent(new PosImpl(x, y), sugar(random.nextInt(6), 5));
+                } else if (draw == 4) {
+                    final Agent consumer = consumerFactory.createAgent();
+                    consumer.getParameters().setParameter("visionRadius", 2);
+                    consumer.getParameters().setParameter("metabolismRate", 1);
+                    consumer.getParameters().setParameter("sugar", 2 + random.nextInt(4));
+                    consumer.getParameters().setParameter("maxSugar", 6);
+                    state.addAgent(new PosImpl(x, y), consumer);
+                }
+            }
+        }
+        return state;
+    }
+
+    private static List<String> snapshot(final State state) {
+        final List<String> cells = new ArrayList<>();
+        state.forEachAgent((pos, agent) -> {
+            final String key = ConsumerAgentFactory.CONSUMER.equals(agent.getType()) ? "sugar" : SUGAR_AMOUNT;
+            cells.add(pos.getX() + "," + pos.getY() + " " + agent.getType() + " "
+                    + agent.getParameters().getParameter(key, Integer.class).get().getValue());
+        });
+        return cells;
+    }
+
+    /**
+     * Test that letting full sugar agents sleep does not change the
+     * simulation.
+     */
+    @Test
+    void testSameResult() {
+        final ActivityScheduler scheduler = new ActivityScheduler(Map.of(TypeCodes.of(SugarAgentFactory.SUGAR),
+                new ActivityScheduler.Dormancy(SugarAgentFactory::isSaturated, 1, 0)));
+        State everyone = sugarscape();
+        State active = sugarscape();
+        int slept = 0;
+        for (int i = 0; i < 30; i++) {
+            final State next = everyone.copy();
+            everyone.forEachAgent((pos, agent) -> TileScheduler.tickIfPresent(next, next, pos, agent));
+            everyone = next;
+            final State activeNext = active.copy();
+            scheduler.tick(active, activeNext);
+            active = activeNext;
+            assertEquals(snapshot(everyone), snapshot(active));
+            slept = Math.max(slept, scheduler.sleepingCount());
+        }
+        assertTrue(slept > 0);
+    }
+
+    /**
+     * Test that sleeping agents are woken up by their alarm.
+     */
+    @Test
+    void testAlarm() {
+        final ActivityScheduler scheduler = new ActivityScheduler(Map.of(TypeCodes.of(SugarAgentFactory.SUGAR),
+                new ActivityScheduler.Dormancy((s, p) -> true, 0, 3)));
+        State state = new StateImpl(4, 4, StateImpl.Storage.DENSE);
+        state.addAgent(new PosImpl(1, 1), sugar(0, 100));
+        for (int i = 0; i < 7; i++) {
+            final State next = state.copy();
+            scheduler.tick(state, next);
+            state = next;
+        }
+        // ticked at the first, fourth and seventh tick
+        assertEquals(3, state.getAgentAt(new PosImpl(1, 1)).get().getParameters()
+                .getParameter(SUGAR_AMOUNT, Integer.class).get().getValue());
+        assertEquals(1, scheduler.sleepingCount());
+        assertThrows(IllegalArgumentException.class, () -> new ActivityScheduler.Dormancy((s, p) -> true, -1, 0));
+    }
+
+    /**
+     * Test that dormancy is honoured when a model with an interaction radius
+     * ticks in parallel tiles.
+     */
+    @Test
+    void testDormancyInParallel() {
+        final Model model = new ModelBuilderImpl()
+                .addParameter(new ParameterImpl<>(Model.SIZEKEY, SIZE, true))
+                .addExitFunction((o, n) -> false)
+                .addInitFunction(p -> {
+                    final State state = new StateImpl(SIZE, SIZE, StateImpl.Storage.DENSE);
+                    for (int x = 0; x < SIZE; x += 3) {
+                        for (int y = 0; y < SIZE; y += 3) {
+                            state.addAgent(new PosImpl(x, y), sugar(0, 100));
+                        }
+                    }
+                    return state;
+                })
+                .addInteractionRadius(s -> 1)
+                .addDormancy(SugarAgentFactory.SUGAR, (s, p) -> true, 0, 3)
+                .enableParallelism(4, 0)
+                .build();
+        State state = model.initilize();
+        for (int i = 0; i < 7; i++) {
+            state = model.tick(state);
+        }
+        // every sugar ticked at the first, fourth and seventh tick only
+        state.forEachAgent((pos, agent) -> assertEquals(3, agent.getParameters()
+                .getParameter(SUGAR_AMOUNT, Integer.class).get().getValue(), pos.toString()));
+
+        final Model sugarscape = new ModelBuilderImpl()
+                .addParameter(new ParameterImpl<>(Model.SIZEKEY, SIZE, true))
+                .addExitFunction((o, n) -> false)
+                .addInitFunction(p -> sugarscape())
+                .addInteractionRadius(s -> 2)
+                .addDormancy(SugarAgentFactory.SUGAR, SugarAgentFactory::isSaturated, 1, 0)
+                .enableParallelism(4, 0)
+                .build();
+        State parallel = sugarscape.initilize();
+        final int agents = parallel.agentCount();
+        for (int i = 0; i < 10; i++) {
+            parallel = sugarscape.tick(parallel);
+        }
+        assertTrue(parallel.agentCount() <= agents);
+    }
+
+    private static State twoSugars() {
+        final State state = new StateImpl(4, 4, StateImpl.Storage.DENSE);
+        state.addAgent(new PosImpl(1, 1), sugar(0, 100));
+        state.addAgent(new PosImpl(2, 3), sugar(2, 100));
+        return state;
+    }
+
+    /**
+     * Test that skipping the idle ticks moves the clock to the next scheduled
+     * tick without changing the simulation.
+     */
+    @Test
+    void testDiscreteEvents() {
+        final Map<Integer, ActivityScheduler.Dormancy> rules = Map.of(TypeCodes.of(SugarAgentFactory.SUGAR),
+                new ActivityScheduler.Dormancy((s, p) -> 5, 0));
+        final ActivityScheduler stepping = new ActivityScheduler(rules);
+        final ActivityScheduler events = new ActivityScheduler(rules, new TickPeriods(), true);
+        State stepped = twoSugars();
+        State jumped = twoSugars();
+        final List<Long> lengths = new ArrayList<>();
+        while (events.getTicks() < 16) {
+            final State next = jumped.copy();
+            lengths.add(events.tick(jumped, next));
+            jumped = next;
+        }
+        assertEquals(List.of(1L, 5L, 5L, 5L), lengths);
+        while (stepping.getTicks() < 16) {
+            final State next = stepped.copy();
+            assertEquals(1, stepping.tick(stepped, next));
+            stepped = next;
+        }
+        // ticked at the first, sixth, eleventh and sixteenth tick
+        assertEquals(snapshot(stepped), snapshot(jumped));
+        assertEquals(4, jumped.getAgentAt(new PosImpl(1, 1)).get().getParameters()
+                .getParameter(SUGAR_AMOUNT, Integer.class).get().getValue());
+    }
+
+    /**
+     * Test that a skip stops at the given limit even if no alarm goes off
+     * before it, and that the agents still tick at their scheduled ticks.
+     */
+    @Test
+    void testCappedSkip() {
+        final Map<Integer, ActivityScheduler.Dormancy> rules = Map.of(TypeCodes.of(SugarAgentFactory.SUGAR),
+                new ActivityScheduler.Dormancy((s, p) -> 5, 0));
+        final ActivityScheduler events = new ActivityScheduler(rules, new TickPeriods(), true);
+        State jumped = twoSugars();
+        final List<Long> lengths = new ArrayList<>();
+        while (events.getTicks() < 16) {
+            final State next = jumped.copy();
+            lengths.add(events.tick(jumped, next, Optional.empty(), -1, 3));
+            jumped = next;
+        }
+        assertEquals(List.of(1L, 3L, 2L, 3L, 2L, 3L, 2L), lengths);
+        assertEquals(4, jumped.getAgentAt(new PosImpl(1, 1)).get().getParameters()
+                .getParameter(SUGAR_AMOUNT, Integer.class).get().getValue());
+    }
+
+    /**
+     * Test that the agents of a type with a period tick only when due,
+     * whatever the update mode.
+     */
+    @Test
+    void testTickPeriods() {
+        for (final UpdateMode mode : UpdateMode.values()) {
+            final Model model = new ModelBuilderImpl()
+                    .addParameter(new ParameterImpl<>(Model.SIZEKEY, 4, true))
+                    .addExitFunction((o, n) -> false)
+                    .addInitFunction(p -> twoSugars())
+                    .addTickPeriod(SugarAgentFactory.SUGAR, 5, 2)
+                    .enableParallelism(1, 0)
+                    .setUpdateMode(mode)
+                    .build();
+            State state = model.initilize();
+            for (int i = 0; i < 12; i++) {
+                state = model.tick(state);
+            }
+            // ticked at the ticks 2 and 7
+            assertEquals(Integer.valueOf(2), state.getAgentAt(new PosImpl(1, 1)).get().getParameters()
+                    .getParameter(SUGAR_AMOUNT, Integer.class).get().getValue(), mode.toString());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new ModelBuilderImpl().addTickPeriod(SugarAgentFactory.SUGAR, 5, 5));
+    }
+}
@@ -0,0 +1,78 @@
+package it.unibo.ares.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import it.unibo.ares.core.agent.columnar.ColumnarWorld;
+import it.unibo.ares.core.utils.state.State;
+
+/**
+ * Unit test for {@link ColumnarSchellingModelFactory}.
+ */
+class ColumnarSchellingModelFactoryTest {
+    // CHECKSTYLE: MagicNumber OFF
+
+    private static Model model(final double threshold) {
+        final Model model = new ColumnarSchellingModelFactory().getModel();
+        model.setParameter(Model.SIZEKEY, 30);
+        model.setParameter("numeroAgentiTipoA", 350);
+        model.setParameter("numeroAgentiTipoB", 350);
+        model.setParameter("threshold", threshold);
+        model.setParameter("visionRadius", 1);
+        model.setParameter(Model.SEEDKEY, 7L);
+        return model;
+    }
+
+    /**
+     * Test that the model ticks its world in place, keeping every agent on
+     * its own cell, until no agent moves.
+     */
+    @Test
+    void testTicksInPlace() {
+        final Model model = model(0.5);
+        final State state = model.initilize();
+        final ColumnarWorld world = ColumnarWorld.of(state).orElseThrow();
+        assertEquals(Set.of("A", "B"), state.getAgentTypes());
+        assertEquals(350, state.countByType("A"));
+
+        int ticks = 0;
+        State current = state;
+        do {
+            current = model.tick(current);
+            assertSame(state, current);
+            assertEquals(700, world.agentCount());
+            assertEquals(900 - 700, world.freeCount());
+            ticks++;
+        } while (!model.isOver(current, current) && ticks < 1000);
+        assertTrue(ticks > 1 && ticks < 1000);
+        assertEquals(0, world.changesInLastTick());
+        final String segregation = model.getStatistics(current).getStatistics().get(0).getSecond();
+        assertTrue(Double.parseDouble(segregation) >= 0.5);
+    }
+
+    /**
+     * Test that the columnar runtime cannot be combined with the options about
+     * how single agents tick.
+     */
+    @Test
+    void testRejectsAgentOptions() {
+        assertThrows(IllegalStateException.class, () -> new ModelBuilderImpl()
+                .addColumnarInitFunction(p -> new ColumnarWorld(3, 3))
+                .addExitFunction((o, n) -> true)
+                .enableDoubleBuffering()
+                .build());
+        // an init function of states selects the usual runtime again
+        new ModelBuilderImpl()
+                .addColumnarInitFunction(p -> new ColumnarWorld(3, 3))
+                .addInitFunction(p -> new ColumnarWorld(3, 3).asState())
+                .addExitFunction((o, n) -> true)
+                .enableDoubleBuffering()
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package it.unibo.ares.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.ConsumerAgentFactory;
+import it.unibo.ares.core.agent.SugarAgentFactory;
+import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
+import it.unibo.ares.core.utils.state.State;
+import it.unibo.ares.core.utils.state.StateImpl;
+import it.unibo.ares.core.utils.state.SynchronizedState;
+
+/**
+ * Unit test for {@link TileScheduler}.
+ */
+class TileSchedulerTest {
+    // CHECKSTYLE: MagicNumber OFF
+    private static final int SIZE = 40;
+    private static final int TICKS = 20;
+
+    private static State sugarscape(final long seed) {
+        final State state = new StateImpl(SIZE, SIZE, StateImpl.Storage.DENSE);
+        final SplitMixRandom random = new SplitMixRandom(seed);
+        final SugarAgentFactory sugarFactory = new SugarAgentFactory();
+        final ConsumerAgentFactory consumerFactory = new ConsumerAgentFactory();
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                final int draw = random.nextInt(4);
+                if (draw == 0) {
+                    final Agent sugar = sugarFactory.createAgent();
+                    sugar.getParameters().setParameter("maxSugar", 5);
+                    sugar.getParameters().setParameter("sugarAmount", random.nextInt(5));
+                    sugar.getParameters().setParameter("growthRate", 1);
+                    state.addAgent(new PosImpl(x, y), sugar);
+                } else if (draw == 1) {
+                    final Agent consumer = consumerFactory.createAgent();
+                    consumer.getParameters().setParameter("visionRadius", 1 + random.nextInt(3));
+                    consumer.getParameters().setParameter("metabolismRate", 1);
+                    consumer.getParameters().setParameter("sugar", 3 + random.nextInt(5));
+                    consumer.getParameters().setParameter("maxSugar", 10);
+                    state.addAgent(new PosImpl(x, y), consumer);
+                }
+            }
+        }
+        return state;
+    }
+
+    private static Model model(final int parallelism) {
+        return new ModelBuilderImpl()
+                .addParameter(new ParameterImpl<>(Model.SIZEKEY, SIZE, true))
+                .addExitFunction((o, n) -> false)
+                .addInitFunction(p -> sugarscape(42))
+                .addInteractionRadius(ConsumerAgentFactory::getInteractionRadius)
+                .enableParallelism(parallelism, 16)
+                .enableDoubleBuffering()
+                .build();
+    }
+
+    private static List<String> snapshot(final State state) {
+        final List<String> cells = new ArrayList<>();
+        state.forEachAgent((pos, agent) -> {
+            final String key = ConsumerAgentFactory.CONSUMER.equals(agent.getType()) ? "sugar" : "sugarAmount";
+            cells.add(pos.getX() + "," + pos.getY() + " " + agent.getType() + " "
+                    + agent.getParameters().getParameter(key, Integer.class).get().getValue());
+        });
+        return cells;
+    }
+
+    /**
+     * Test that the result of a parallel tick does not depend on the number of
+     * threads.
+     */
+    @Test
+    void testDeterministic() {
+        final Model fewer = model(2);
+        final Model more = model(4);
+        State first = fewer.initilize();
+        State second = more.initilize();
+        for (int i = 0; i < TICKS; i++) {
+            first = fewer.tick(first);
+            second = more.tick(second);
+            assertEquals(snapshot(first), snapshot(second));
+        }
+        assertTrue(first.agentCount() > 0);
+    }
+
+    /**
+     * Test that states that cannot be split are left to the sequential tick.
+     */
+    @Test
+    void testFallback() {
+        final TileScheduler scheduler = new TileScheduler(2, 16);
+        final State small = new StateImpl(4, 4, StateImpl.Storage.DENSE);
+        assertFalse(scheduler.tick(small, small.copy(), 2));
+        final State hashed = new StateImpl(SIZE, SIZE, StateImpl.Storage.HASH);
+        assertFalse(scheduler.tick(hashed, hashed.copy(), 1));
+        assertThrows(IllegalArgumentException.class, () -> new SynchronizedState(hashed));
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(-1, 0));
+        final State dense = sugarscape(7);
+        assertTrue(scheduler.tick(dense, dense.copy(), 1));
+    }
+}
@@ -0,0 +1,216 @@
+package it.unibo.ares.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.SchellingsAgentFactory;
+import it.unibo.ares.core.utils.parameters.ParameterImpl;
+import it.unibo.ares.core.utils.parameters.Parameters;
+import it.unibo.ares.core.utils.parameters.ParametersImpl;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.random.SplitMixRandom;
+import it.unibo.ares.core.utils.state.State;
+import it.unibo.ares.core.utils.state.StateImpl;
+
+/**
+ * Unit test for {@link TwoPhaseUpdate}.
+ */
+class TwoPhaseUpdateTest {
+    // CHECKSTYLE: MagicNumber OFF
+    private static final int SIZE = 40;
+
+    /**
+     * An agent that moves one cell to the left when it sees that cell free.
+     */
+    private static Agent leftMover() {
+        return new TestAgent((state, pos) -> {
+            final Pos left = new PosImpl(pos.getX() - 1, pos.getY());
+            if (state.isInside(left) && state.isFree(left)) {
+                state.moveAgent(pos, left);
+            }
+            return state;
+        });
+    }
+
+    /**
+     * An agent that moves to a fixed cell, eating the agent there if any.
+     */
+    private static Agent eater(final Pos target) {
+        return new TestAgent((state, pos) -> {
+            state.getAgentAt(target).ifPresent(prey -> state.removeAgent(target, prey));
+            state.moveAgent(pos, target);
+            return state;
+        });
+    }
+
+    private static Model model(final UpdateMode mode, final int parallelism,
+            final Supplier<State> init) {
+        return new ModelBuilderImpl()
+                .addParameter(new ParameterImpl<>(Model.SIZEKEY, SIZE, true))
+                .addExitFunction((o, n) -> false)
+                .addInitFunction(p -> init.get())
+                .enableParallelism(parallelism, 0)
+                .setUpdateMode(mode)
+                .build();
+    }
+
+    /**
+     * Test that the agents decide on the state at the beginning of the tick.
+     */
+    @Test
+    void testSnapshot() {
+        final Agent first = leftMover();
+        final Agent second = leftMover();
+        final State state = new StateImpl(3, 1);
+        state.addAgent(new PosImpl(1, 0), first);
+        state.addAgent(new PosImpl(2, 0), second);
+
+        final State sequential = model(UpdateMode.SEQUENTIAL, 1, state::copy).tick(state);
+        assertEquals(Optional.of(first), sequential.getAgentAt(new PosImpl(0, 0)));
+        assertEquals(Optional.of(second), sequential.getAgentAt(new PosImpl(1, 0)));
+
+        final State synchronous = model(UpdateMode.SYNCHRONOUS, 1, state::copy).tick(state);
+        assertEquals(Optional.of(first), synchronous.getAgentAt(new PosImpl(0, 0)));
+        assertEquals(Optional.of(second), synchronous.getAgentAt(new PosImpl(2, 0)));
+        assertTrue(synchronous.isFree(new PosImpl(1, 0)));
+    }
+
+    /**
+     * Test that conflicting decisions are resolved in the order the agents are
+     * visited.
+     */
+    @Test
+    void testConflicts() {
+        final Pos target = new PosImpl(1, 0);
+        final Agent first = eater(target);
+        final Agent second = eater(target);
+        final State state = new StateImpl(3, 1);
+        state.addAgent(new PosImpl(0, 0), first);
+        state.addAgent(new PosImpl(2, 0), second);
+        State next = model(UpdateMode.SYNCHRONOUS, 1, state::copy).tick(state);
+        assertEquals(Optional.of(first), next.getAgentAt(target));
+        assertEquals(Optional.of(second), next.getAgentAt(new PosImpl(2, 0)));
+        assertEquals(2, next.agentCount());
+
+        final Agent prey = leftMover();
+        state.addAgent(target, prey);
+        next = model(UpdateMode.SYNCHRONOUS, 1, state::copy).tick(state);
+        assertEquals(Optional.of(first), next.getAgentAt(target));
+        assertEquals(2, next.agentCount());
+        assertFalse(next.getAgents().stream().anyMatch(p -> p.getSecond().equals(prey)));
+    }
+
+    /**
+     * Test that a prey that escapes before the predator's intent is committed
+     * is not eaten from its new cell.
+     */
+    @Test
+    void testEscapedPrey() {
+        final Pos target = new PosImpl(1, 0);
+        final Agent prey = leftMover();
+        final Agent predator = eater(target);
+        final State state = new StateImpl(3, 1);
+        state.addAgent(target, prey);
+        state.addAgent(new PosImpl(2, 0), predator);
+        final State next = model(UpdateMode.SYNCHRONOUS, 1, state::copy).tick(state);
+        assertEquals(Optional.of(prey), next.getAgentAt(new PosImpl(0, 0)));
+        assertEquals(Optional.of(predator), next.getAgentAt(target));
+        assertEquals(2, next.agentCount());
+    }
+
+    private static State schelling() {
+        final SchellingsAgentFactory factory = new SchellingsAgentFactory(new SplitMixRandom(3));
+        final SplitMixRandom random = new SplitMixRandom(5);
+        final State state = new StateImpl(SIZE, SIZE, StateImpl.Storage.DENSE);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                final int draw = random.nextInt(3);
+                if (draw > 0) {
+                    state.addAgent(new PosImpl(x, y),
+                            factory.getSchellingSegregationModelAgent(Integer.toString(draw), 0.6, 1));
+                }
+            }
+        }
+        return state;
+    }
+
+    private static List<String> snapshot(final State state) {
+        final List<String> cells = new ArrayList<>();
+        state.forEachAgent((pos, agent) -> cells.add(pos.getX() + "," + pos.getY() + " " + agent.getType()));
+        return cells;
+    }
+
+    /**
+     * Test that deciding at the same time gives the same result as deciding
+     * one after the other.
+     */
+    @Test
+    void testConcurrentDecisions() {
+        final Model sequential = model(UpdateMode.SYNCHRONOUS_CONCURRENT, 1, TwoPhaseUpdateTest::schelling);
+        final Model concurrent = model(UpdateMode.SYNCHRONOUS_CONCURRENT, 4, TwoPhaseUpdateTest::schelling);
+        State first = sequential.initilize();
+        State second = concurrent.initilize();
+        final int agents = first.agentCount();
+        for (int i = 0; i < 10; i++) {
+            first = sequential.tick(first);
+            second = concurrent.tick(second);
+            assertEquals(snapshot(first), snapshot(second));
+            assertEquals(agents, second.agentCount());
+        }
+    }
+
+    /**
+     * An agent following the given strategy.
+     */
+    private static final class TestAgent implements Agent {
+        private static final long serialVersionUID = 1L;
+        private final transient BiFunction<State, Pos, State> strategy;
+        private final Parameters parameters = new ParametersImpl();
+
+        private TestAgent(final BiFunction<State, Pos, State> strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public State tick(final State state, final Pos pos) {
+            return strategy.apply(state, pos);
+        }
+
+        @Override
+        public Parameters getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public <T extends Serializable> void setParameter(final String key, final T value) {
+            parameters.setParameter(key, value);
+        }
+
+        @Override
+        public String getId() {
+            return Integer.toHexString(System.identityHashCode(this));
+        }
+
+        @Override
+        public String getType() {
+            return "T";
+        }
+
+        @Override
+        public void setType(final String type) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -51,6 +52,32 @@ class ComputationUtilsTest {
         }
     }
 
+    /**
+     * Test that the cached cone masks select the same cells as
+     * {@link ComputationUtils#insideCone}, within the bounds computeCloseCells
+     * has always applied.
+     */
+    @Test
+    void testComputeCloseCells() {
+        // CHECKSTYLE: MagicNumber OFF
+        final Pos pos = new PosImpl(5, 5);
+        for (final DirectionVector dir : List.of(new DirectionVectorImpl(1.0, 1.0), new DirectionVectorImpl(0.0, 2.0),
+                new DirectionVectorImpl(-1.0, 1.0))) {
+            final int width = Math.abs(5 + (dir.getX() > 0 ? 4 : -4));
+            final int height = Math.abs(5 + (dir.getY() > 0 ? 4 : -4));
+            for (final int angle : new int[] {45, 90, 180, 360}) {
+                final Set<Pos> expected = IntStream.rangeClosed(2, 8).boxed()
+                        .flatMap(x -> IntStream.rangeClosed(2, 8).mapToObj(y -> (Pos) new PosImpl(x, y)))
+                        .filter(p -> p.getX() < width && p.getY() < height)
+                        .filter(p -> !p.equals(pos))
+                        .filter(p -> ComputationUtils.insideCone(p, pos, dir, 3, angle))
+                        .collect(Collectors.toSet());
+                assertEquals(expected, ComputationUtils.computeCloseCells(pos, dir, 3, angle));
+            }
+        }
+        // CHECKSTYLE: MagicNumber ON
+    }
+
     /*
      * This test checks if the move method works as expected.
      * It creates a new agent and then it tries to move it.
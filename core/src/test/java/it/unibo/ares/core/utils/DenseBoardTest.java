@@ -0,0 +1,65 @@
+package it.unibo.ares.core.utils;
+
+import it.unibo.ares.core.utils.board.Board;
+import it.unibo.ares.core.utils.board.DenseBoardImpl;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link DenseBoardImpl}.
+ */
+class DenseBoardTest {
+    private static final int SIZE = 5;
+
+    /**
+     * Test adding, reading and removing entities.
+     */
+    @Test
+    void testAddAndRemove() {
+        final Board<String> board = new DenseBoardImpl<>(SIZE, SIZE);
+        final Pos pos = new PosImpl(SIZE - 1, 2);
+        board.addEntity(pos, "a");
+        assertEquals("a", board.getEntity(pos).get());
+        assertEquals("a", board.getEntity(new PosImpl(SIZE - 1, 2)).get());
+        board.removeEntity(pos, "a");
+        assertFalse(board.getEntity(pos).isPresent());
+    }
+
+    /**
+     * Test getting all the entities from the board.
+     */
+    @Test
+    void testGetEntities() {
+        final Board<String> board = new DenseBoardImpl<>(SIZE, 2);
+        final Pos pos1 = new PosImpl(0, 0);
+        final Pos pos2 = new PosImpl(SIZE - 1, 1);
+        board.addEntity(pos1, "a");
+        board.addEntity(pos2, "b");
+        final Set<Pair<Pos, String>> entities = board.getEntities();
+        assertEquals(2, entities.size());
+        assertTrue(entities.contains(new Pair<>(pos1, "a")));
+        assertTrue(entities.contains(new Pair<>(pos2, "b")));
+    }
+
+    /**
+     * Test the behaviour on occupied, empty and out of range positions.
+     */
+    @Test
+    void testThrowing() {
+        final Board<String> board = new DenseBoardImpl<>(SIZE, SIZE);
+        final Pos pos = new PosImpl(0, 0);
+        board.addEntity(pos, "a");
+        assertThrows(IllegalArgumentException.class, () -> board.addEntity(pos, "b"));
+        assertThrows(IllegalArgumentException.class, () -> board.removeEntity(new PosImpl(1, 1), "a"));
+        assertThrows(IllegalArgumentException.class, () -> board.addEntity(new PosImpl(SIZE, 0), "a"));
+        assertFalse(board.getEntity(new PosImpl(-1, 0)).isPresent());
+    }
+}
@@ -0,0 +1,58 @@
+package it.unibo.ares.core.utils;
+
+import it.unibo.ares.core.utils.board.Board;
+import it.unibo.ares.core.utils.board.PersistentBoardImpl;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link PersistentBoardImpl}.
+ */
+class PersistentBoardTest {
+    private static final int SIZE = 100;
+
+    /**
+     * Test that a copy and its original evolve independently.
+     */
+    @Test
+    void testCopiesAreIndependent() {
+        final Board<String> board = new PersistentBoardImpl<>(SIZE, SIZE);
+        final Pos pos = new PosImpl(1, 1);
+        final Pos other = new PosImpl(SIZE - 1, SIZE - 1);
+        board.addEntity(pos, "a");
+        final Board<String> snapshot = board.copy();
+
+        board.removeEntity(pos, "a");
+        board.addEntity(other, "b");
+        snapshot.addEntity(new PosImpl(2, 1), "c");
+
+        assertFalse(board.getEntity(pos).isPresent());
+        assertFalse(board.getEntity(new PosImpl(2, 1)).isPresent());
+        assertEquals("a", snapshot.getEntity(pos).get());
+        assertFalse(snapshot.getEntity(other).isPresent());
+        assertEquals(1, board.getEntities().size());
+        assertEquals(2, snapshot.getEntities().size());
+    }
+
+    /**
+     * Test copying into an existing board.
+     */
+    @Test
+    void testCopyInto() {
+        final Board<String> board = new PersistentBoardImpl<>(SIZE, SIZE);
+        final Board<String> buffer = new PersistentBoardImpl<>(SIZE, SIZE);
+        buffer.addEntity(new PosImpl(0, 0), "old");
+        board.addEntity(new PosImpl(3, 3), "a");
+        board.copyInto(buffer);
+        board.addEntity(new PosImpl(4, 4), "b");
+        assertEquals(1, buffer.getEntities().size());
+        assertEquals("a", buffer.getEntity(new PosImpl(3, 3)).get());
+        assertThrows(IllegalArgumentException.class, () -> board.copyInto(new PersistentBoardImpl<>(1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> board.addEntity(new PosImpl(SIZE, 0), "c"));
+    }
+}
@@ -0,0 +1,41 @@
+package it.unibo.ares.core.utils;
+
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosCache;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit test for {@link PosCache} and the packed form of {@link Pos}.
+ */
+class PosCacheTest {
+    private static final int SIZE = 10;
+
+    /**
+     * Test that positions inside the grid are interned.
+     */
+    @Test
+    void testCanonicalInstances() {
+        final PosCache cache = new PosCache(SIZE, SIZE);
+        assertSame(cache.get(3, 4), cache.get(3, 4));
+        assertEquals(new PosImpl(3, 4), cache.get(3, 4));
+        assertNotSame(cache.get(SIZE, 0), cache.get(SIZE, 0));
+        assertEquals(new PosImpl(SIZE, 0), cache.get(SIZE, 0));
+    }
+
+    /**
+     * Test packing and unpacking coordinates, negative ones included.
+     */
+    @Test
+    void testPacking() {
+        final long key = Pos.pack(-3, 7);
+        assertEquals(-3, Pos.unpackX(key));
+        assertEquals(7, Pos.unpackY(key));
+        assertEquals(Pos.pack(2, -1), new PosImpl(2, -1).toKey());
+        assertEquals(new PosImpl(2, 5), new PosCache(SIZE, SIZE).get(Pos.pack(2, 5)));
+    }
+}
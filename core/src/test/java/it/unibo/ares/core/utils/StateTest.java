@@ -4,14 +4,19 @@ import it.unibo.ares.core.agent.Agent;
 import it.unibo.ares.core.utils.parameters.Parameters;
 import it.unibo.ares.core.utils.pos.Pos;
 import it.unibo.ares.core.utils.pos.PosImpl;
+import it.unibo.ares.core.utils.state.Neighborhood;
 import it.unibo.ares.core.utils.state.State;
 import it.unibo.ares.core.utils.state.StateImpl;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * Unit test for {@link State}.
@@ -44,7 +49,35 @@ class StateTest {
         assertEquals(8, state.getPosByPosAndRadius(new PosImpl(1, 1), 1).size());
     }
 
+    /**
+     * Test visiting neighborhoods without collecting them.
+     */
+    @Test
+    void testNeighborVisits() {
+        final State state = new StateImpl(5, 5);
+        final int[] count = new int[1];
+        state.forEachNeighbor(new PosImpl(2, 2), 2, Neighborhood.VON_NEUMANN, p -> count[0]++);
+        assertEquals(12, count[0]);
+        count[0] = 0;
+        state.forEachNeighbor(new PosImpl(0, 0), 1, Neighborhood.MOORE, p -> count[0]++);
+        assertEquals(3, count[0]);
+
+        final Agent agent = getSimpleTestAgent();
+        state.addAgent(new PosImpl(3, 2), agent);
+        state.forEachNeighborAgent(new PosImpl(2, 2), 1, Neighborhood.MOORE, (p, a) -> {
+            assertEquals(new PosImpl(3, 2), p);
+            assertEquals(agent, a);
+        });
+        assertEquals(new PosImpl(3, 2),
+                state.findNeighbor(new PosImpl(2, 2), 1, Neighborhood.MOORE, state::isOccupied).get());
+        assertTrue(state.findNeighbor(new PosImpl(0, 0), 1, Neighborhood.MOORE, state::isOccupied).isEmpty());
+    }
+
     private Agent getSimpleTestAgent() {
+        return getSimpleTestAgent("A");
+    }
+
+    private Agent getSimpleTestAgent(final String type) {
         return new Agent() {
 
             @Override
@@ -69,7 +102,7 @@ class StateTest {
 
             @Override
             public String getType() {
-                throw new UnsupportedOperationException("Unimplemented method 'getType'");
+                return type;
             }
 
             @Override
@@ -79,6 +112,87 @@ class StateTest {
         };
     }
 
+    /**
+     * Test the index of the agents by type across changes and copies.
+     */
+    @Test
+    void testAgentsByType() {
+        final State state = new StateImpl(5, 5);
+        final Agent first = getSimpleTestAgent("A");
+        final Agent second = getSimpleTestAgent("B");
+        state.addAgent(new PosImpl(1, 1), first);
+        state.addAgent(new PosImpl(2, 2), second);
+        state.addAgent(new PosImpl(3, 3), getSimpleTestAgent("A"));
+        assertEquals(2, state.countByType("A"));
+        assertEquals(1, state.countByType("B"));
+        assertEquals(0, state.countByType("C"));
+        assertEquals(Set.of("A", "B"), state.getAgentTypes());
+
+        final State copy = state.copy();
+        state.moveAgent(new PosImpl(1, 1), new PosImpl(4, 4));
+        state.removeAgent(new PosImpl(2, 2), second);
+        assertTrue(state.getAgentsByType("A").contains(new Pair<>(new PosImpl(4, 4), first)));
+        assertEquals(Set.of("A"), state.getAgentTypes());
+        assertTrue(copy.getAgentsByType("A").contains(new Pair<>(new PosImpl(1, 1), first)));
+        assertEquals(1, copy.countByType("B"));
+
+        state.copyInto(copy);
+        assertEquals(0, copy.countByType("B"));
+        assertEquals(state.getAgentsByType("A"), copy.getAgentsByType("A"));
+    }
+
+    /**
+     * Test drawing random free positions and searching the nearest one.
+     */
+    @Test
+    void testFreePositions() {
+        final State state = new StateImpl(3, 3);
+        final Random random = new Random(1);
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (x != 2 || y != 1) {
+                    state.addAgent(new PosImpl(x, y), getSimpleTestAgent());
+                }
+            }
+        }
+        assertEquals(new PosImpl(2, 1), state.getRandomFreePos(random).get());
+        assertEquals(new PosImpl(2, 1), state.getNearestFreePos(new PosImpl(0, 0)).get());
+
+        final State copy = state.copy();
+        state.moveAgent(new PosImpl(0, 0), new PosImpl(2, 1));
+        assertEquals(new PosImpl(0, 0), state.getRandomFreePos(random).get());
+        assertEquals(new PosImpl(0, 0), state.getNearestFreePos(new PosImpl(1, 1)).get());
+        assertEquals(new PosImpl(2, 1), copy.getRandomFreePos(random).get());
+
+        state.addAgent(new PosImpl(0, 0), getSimpleTestAgent());
+        assertTrue(state.getRandomFreePos(random).isEmpty());
+        assertTrue(state.getNearestFreePos(new PosImpl(1, 1)).isEmpty());
+        state.copyInto(copy);
+        assertTrue(copy.getRandomFreePos(random).isEmpty());
+    }
+
+    /**
+     * Test visiting the agents of the state in place, for every kind of storage.
+     */
+    @Test
+    void testForEachAgent() {
+        for (final StateImpl.Storage storage : StateImpl.Storage.values()) {
+            final State state = new StateImpl(40, 40, storage);
+            state.addAgent(new PosImpl(1, 2), getSimpleTestAgent());
+            state.addAgent(new PosImpl(35, 38), getSimpleTestAgent());
+            state.moveAgent(new PosImpl(1, 2), new PosImpl(33, 2));
+            final Set<Pos> visited = new HashSet<>();
+            state.forEachAgent((pos, agent) -> {
+                assertEquals(agent, state.getAgentAt(pos).get());
+                visited.add(pos);
+            });
+            assertEquals(Set.of(new PosImpl(33, 2), new PosImpl(35, 38)), visited);
+            assertEquals(2, state.agentCount());
+            assertEquals(2, state.copy().agentCount());
+            assertEquals(0, state.entityCount());
+        }
+    }
+
     /**
      * Test adding an agent to the state which is out of bounds.
      */
@@ -92,4 +206,28 @@ class StateTest {
             state.addAgent(new PosImpl(6, 6), getSimpleTestAgent());
         });
     }
+
+    /**
+     * Test copying a state over another one, for every kind of storage.
+     */
+    @Test
+    void testCopyInto() {
+        for (final long[] config : new long[][] {{5, 2}, {5000, 100_000}, {5000, 2}}) {
+            final State state = new StateImpl((int) config[0], (int) config[0], config[1]);
+            final Agent first = getSimpleTestAgent();
+            final Agent second = getSimpleTestAgent();
+            state.addAgent(new PosImpl(1, 1), first);
+            final State buffer = state.copy();
+            state.moveAgent(new PosImpl(1, 1), new PosImpl(2, 3));
+            state.addAgent(new PosImpl(4, 4), second);
+            assertEquals(first, buffer.getAgentAt(new PosImpl(1, 1)).get());
+
+            state.copyInto(buffer);
+            assertEquals(2, buffer.getAgents().size());
+            assertTrue(buffer.isFree(new PosImpl(1, 1)));
+            assertEquals(first, buffer.getAgentAt(new PosImpl(2, 3)).get());
+            assertEquals(second, buffer.getAgentAt(new PosImpl(4, 4)).get());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new StateImpl(5, 5).copyInto(new StateImpl(4, 4)));
+    }
 }
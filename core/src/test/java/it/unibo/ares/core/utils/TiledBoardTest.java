@@ -0,0 +1,68 @@
+package it.unibo.ares.core.utils;
+
+import it.unibo.ares.core.utils.board.Board;
+import it.unibo.ares.core.utils.board.TiledBoardImpl;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link TiledBoardImpl}.
+ */
+class TiledBoardTest {
+    private static final int FAR = 9_999;
+
+    /**
+     * Test adding and removing entities in distant tiles.
+     */
+    @Test
+    void testAddAndRemove() {
+        final Board<String> board = new TiledBoardImpl<>();
+        final Pos near = new PosImpl(1, 2);
+        final Pos far = new PosImpl(FAR, FAR);
+        board.addEntity(near, "a");
+        board.addEntity(far, "b");
+        assertEquals("a", board.getEntity(near).get());
+        assertEquals("b", board.getEntity(new PosImpl(FAR, FAR)).get());
+        assertFalse(board.getEntity(new PosImpl(FAR - 1, FAR)).isPresent());
+        board.removeEntity(far, "b");
+        assertFalse(board.getEntity(far).isPresent());
+        board.addEntity(far, "c");
+        assertEquals("c", board.getEntity(far).get());
+    }
+
+    /**
+     * Test getting all the entities from the board.
+     */
+    @Test
+    void testGetEntities() {
+        final Board<String> board = new TiledBoardImpl<>();
+        final Pos pos1 = new PosImpl(0, TiledBoardImpl.TILE_SIDE);
+        final Pos pos2 = new PosImpl(FAR, 1);
+        board.addEntity(pos1, "a");
+        board.addEntity(pos2, "b");
+        final Set<Pair<Pos, String>> entities = board.getEntities();
+        assertEquals(2, entities.size());
+        assertTrue(entities.contains(new Pair<>(pos1, "a")));
+        assertTrue(entities.contains(new Pair<>(pos2, "b")));
+    }
+
+    /**
+     * Test throwing on occupied and empty positions.
+     */
+    @Test
+    void testThrowing() {
+        final Board<String> board = new TiledBoardImpl<>();
+        final Pos pos = new PosImpl(FAR, 0);
+        board.addEntity(pos, "a");
+        assertThrows(IllegalArgumentException.class, () -> board.addEntity(pos, "b"));
+        assertThrows(IllegalArgumentException.class, () -> board.removeEntity(new PosImpl(0, FAR), "a"));
+    }
+}
@@ -0,0 +1,129 @@
+package it.unibo.ares.core.utils.parameters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link SchemaParameters}.
+ */
+class SchemaParametersTest {
+    // CHECKSTYLE: MagicNumber OFF
+    private static final ParameterSlot<Integer> COUNT = ParameterSlot.of("count", Integer.class);
+    private static final ParameterSlot<Double> RATE = ParameterSlot.of("rate", Double.class);
+    private static final ParameterSlot<String> NAME = ParameterSlot.of("name", String.class);
+    private static final ParameterDomain<Integer> POSITIVE = new ParameterDomainImpl<>("positive",
+            (Integer i) -> i > 0);
+
+    private static Parameters template() {
+        final Parameters parameters = new ParametersImpl();
+        parameters.addParameter(new ParameterImpl<>("count", Integer.class, POSITIVE, true));
+        parameters.addParameter("rate", 0.5, false);
+        parameters.addParameter("name", String.class, false);
+        return new SchemaParameters(parameters);
+    }
+
+    /**
+     * Test that collections with the same shape share the schema.
+     */
+    @Test
+    void testSharedSchema() {
+        final SchemaParameters first = (SchemaParameters) template();
+        final SchemaParameters second = (SchemaParameters) template();
+        assertSame(first.getSchema(), second.getSchema());
+        assertSame(first.getSchema(), ((SchemaParameters) first.copy()).getSchema());
+    }
+
+    /**
+     * Test that one slot resolves independently against the schemas of two
+     * types used alternately.
+     */
+    @Test
+    void testSlotAcrossSchemas() {
+        final Parameters first = template();
+        final Parameters other = new ParametersImpl();
+        other.addParameter("alpha", 1.0, false);
+        other.addParameter("rate", 2.0, false);
+        final Parameters second = new SchemaParameters(other);
+        final ParameterSchema firstSchema = ((SchemaParameters) first).getSchema();
+        final ParameterSchema secondSchema = ((SchemaParameters) second).getSchema();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0.5, first.getDouble(RATE));
+            assertEquals(2.0, second.getDouble(RATE));
+        }
+        assertSame(firstSchema.resolve(RATE), firstSchema.resolve(RATE));
+        assertSame(secondSchema, secondSchema.resolve(RATE).getSchema());
+        assertEquals(0, firstSchema.columnOf(RATE));
+        assertEquals(1, secondSchema.columnOf(RATE));
+    }
+
+    /**
+     * Test reading and writing values through slots and keys.
+     */
+    @Test
+    void testSlots() {
+        final Parameters parameters = template();
+        assertEquals(0.5, parameters.getDouble(RATE));
+        assertThrows(IllegalStateException.class, () -> parameters.getInt(COUNT));
+        assertFalse(parameters.areAllParametersSetted());
+
+        parameters.setParameter("count", 3);
+        assertTrue(parameters.areAllParametersSetted());
+        assertEquals(3, parameters.getInt(COUNT));
+        parameters.setInt(COUNT, 7);
+        assertEquals(7, parameters.getParameter("count", Integer.class).get().getValue());
+        parameters.set(NAME, "boid");
+        assertEquals("boid", parameters.get(NAME));
+
+        assertThrows(IllegalArgumentException.class, () -> parameters.setParameter("count", -1));
+        assertThrows(IllegalArgumentException.class, () -> parameters.getInt(ParameterSlot.of("rate", Integer.class)));
+        assertTrue(parameters.getParameter("count", Double.class).isEmpty());
+    }
+
+    /**
+     * Test that copies do not share values and that new parameters can be
+     * added.
+     */
+    @Test
+    void testCopyAndAdd() {
+        final Parameters parameters = template();
+        final Parameters copy = parameters.copy();
+        copy.setDouble(RATE, 0.25);
+        assertEquals(0.5, parameters.getDouble(RATE));
+        assertEquals(0.25, copy.getDouble(RATE));
+
+        copy.addParameter("extra", 4, true);
+        assertEquals(4, copy.getParameter("extra", Integer.class).get().getValue());
+        assertEquals(0.25, copy.getDouble(RATE));
+        assertEquals(4, copy.getParameters().size());
+        assertThrows(IllegalArgumentException.class, () -> copy.addParameter("rate", 1.0, true));
+    }
+
+    /**
+     * Test falling back to defaults shared by many collections.
+     */
+    @Test
+    void testDefaults() {
+        final SchemaParameters first = (SchemaParameters) template();
+        final SchemaParameters second = (SchemaParameters) template();
+        final SchemaParameters defaults = new SchemaParameters(first.getSchema());
+        first.setDefaults(defaults);
+        second.setDefaults(defaults);
+        assertFalse(first.areAllParametersSetted());
+
+        defaults.setParameter("count", 5);
+        assertTrue(first.areAllParametersSetted());
+        assertEquals(5, first.getInt(COUNT));
+        assertEquals(5, second.getParameter("count", Integer.class).get().getValue());
+        assertEquals(0.5, second.getDouble(RATE));
+
+        second.setInt(COUNT, 9);
+        assertEquals(9, second.getInt(COUNT));
+        assertEquals(5, first.copy().getInt(COUNT));
+        assertThrows(IllegalArgumentException.class, () -> first.setDefaults(first));
+    }
+}
@@ -0,0 +1,85 @@
+package it.unibo.ares.core.utils.random;
+
+import it.unibo.ares.core.model.Model;
+import it.unibo.ares.core.model.SchellingModelFactory;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.state.State;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Unit test for {@link SplitMixRandom}.
+ */
+class SplitMixRandomTest {
+    // CHECKSTYLE: MagicNumber OFF
+
+    /**
+     * Test that generators with the same seed give the same streams.
+     */
+    @Test
+    void testReproducible() {
+        final SplitMixRandom first = new SplitMixRandom(42);
+        final SplitMixRandom second = new SplitMixRandom(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextInt(1000), second.nextInt(1000));
+        }
+        final SplitMixRandom split = first.split();
+        assertEquals(split.nextLong(), second.split().nextLong());
+        assertNotEquals(split.nextLong(), first.nextLong());
+    }
+
+    /**
+     * Test that a saved generator continues its stream.
+     */
+    @Test
+    void testSerialization() throws IOException, ClassNotFoundException {
+        final SplitMixRandom random = new SplitMixRandom(7);
+        random.nextLong();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final SplitMixRandom loaded = (SplitMixRandom) in.readObject();
+            assertEquals(random.nextLong(), loaded.nextLong());
+        }
+    }
+
+    private static Map<Pos, String> run(final long seed) {
+        final Model model = new SchellingModelFactory().getModel();
+        model.setParameter("numeroAgentiTipoA", 20);
+        model.setParameter("numeroAgentiTipoB", 20);
+        model.setParameter(Model.SIZEKEY, 10);
+        model.setParameter(Model.SEEDKEY, seed);
+        State state = model.initilize();
+        state.forEachAgent((pos, agent) -> {
+            agent.setParameter("threshold", 0.6);
+            agent.setParameter("visionRadius", 1);
+        });
+        for (int i = 0; i < 5; i++) {
+            state = model.tick(state);
+        }
+        final Map<Pos, String> types = new HashMap<>();
+        state.forEachAgent((pos, agent) -> types.put(pos, agent.getType()));
+        return types;
+    }
+
+    /**
+     * Test that a model run twice with the same seed evolves in the same way,
+     * down to the type of the agent on every cell.
+     */
+    @Test
+    void testModelSeed() {
+        assertEquals(run(3L), run(3L));
+    }
+}
@@ -0,0 +1,64 @@
+package it.unibo.ares.core.utils.state;
+
+import it.unibo.ares.core.agent.TreeAgentFactory;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+/**
+ * Unit test for {@link FreeCells}.
+ */
+class FreeCellsTest {
+    // CHECKSTYLE: MagicNumber OFF
+
+    /**
+     * Test that a copy shares the chunks of the index until one of the two
+     * writes to them.
+     */
+    @Test
+    void testCopySharesChunks() {
+        final FreeCells cells = new FreeCells(5000);
+        for (int cell = 0; cell < 5000; cell += 2) {
+            cells.release(cell);
+        }
+        final FreeCells copy = cells.copy();
+        assertTrue(cells.sharesWith(copy));
+
+        copy.occupy(0);
+        copy.release(1);
+        assertEquals(2500, cells.count());
+        assertEquals(2500, copy.count());
+        assertTrue(cells.sharesWith(copy));
+
+        final FreeCells single = new FreeCells(2);
+        single.release(1);
+        final FreeCells other = single.copy();
+        other.occupy(1);
+        assertFalse(single.sharesWith(other));
+        assertEquals(1, single.random(new Random(1)));
+        assertEquals(-1, other.random(new Random(1)));
+    }
+
+    /**
+     * Test that copying a state shares its index of free cells instead of
+     * duplicating it.
+     */
+    @Test
+    void testStateCopySharesFreeCells() {
+        final StateImpl state = new StateImpl(100, 100);
+        state.addAgent(new PosImpl(1, 1), new TreeAgentFactory().createAgent());
+        assertEquals(9999, state.freeCells().get().count());
+
+        final StateImpl copy = (StateImpl) state.copy();
+        assertTrue(state.freeCells().get().sharesWith(copy.freeCells().get()));
+        copy.moveAgent(new PosImpl(1, 1), new PosImpl(2, 2));
+        assertTrue(state.isFree(new PosImpl(2, 2)));
+        assertEquals(new PosImpl(1, 1), copy.getNearestFreePos(new PosImpl(1, 1)).get());
+        assertTrue(state.freeCells().get().sharesWith(copy.freeCells().get()));
+    }
+}
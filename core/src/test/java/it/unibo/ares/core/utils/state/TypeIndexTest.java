@@ -0,0 +1,96 @@
+package it.unibo.ares.core.utils.state;
+
+import it.unibo.ares.core.agent.Agent;
+import it.unibo.ares.core.agent.TreeAgentFactory;
+import it.unibo.ares.core.utils.Pair;
+import it.unibo.ares.core.utils.pos.Pos;
+import it.unibo.ares.core.utils.pos.PosCache;
+import it.unibo.ares.core.utils.pos.PosImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit test for {@link TypeIndex}.
+ */
+class TypeIndexTest {
+    // CHECKSTYLE: MagicNumber OFF
+
+    private static Set<Pos> positionsOf(final TypeIndex index, final String type) {
+        final Set<Pos> result = new HashSet<>();
+        index.forEach(type, result::add);
+        return result;
+    }
+
+    private static Set<Pos> positionsOf(final Set<Pair<Pos, Agent>> agents) {
+        final Set<Pos> result = new HashSet<>();
+        agents.forEach(p -> result.add(p.getFirst()));
+        return result;
+    }
+
+    /**
+     * Test that copying into an index shares every tile, and that a write
+     * duplicates only the tile it touches.
+     */
+    @Test
+    void testCopyIntoSharesTiles() {
+        final PosCache cache = new PosCache(128, 128);
+        final TypeIndex index = new TypeIndex(cache);
+        for (int x = 0; x < 128; x++) {
+            for (int y = 0; y < 128; y++) {
+                index.add("A", cache.get(x, y));
+            }
+        }
+        final TypeIndex target = new TypeIndex(cache);
+        target.add("B", cache.get(0, 0));
+        index.copyInto(target);
+        assertEquals(16, index.sharedTiles(target, "A"));
+        assertEquals(Set.of("A"), target.types());
+
+        target.remove("A", cache.get(0, 0));
+        target.move("A", cache.get(1, 0), cache.get(0, 0));
+        assertEquals(15, index.sharedTiles(target, "A"));
+        assertEquals(16_384, index.count("A"));
+        assertEquals(16_383, target.count("A"));
+        assertTrue(positionsOf(index, "A").contains(cache.get(1, 0)));
+        assertFalse(positionsOf(target, "A").contains(cache.get(1, 0)));
+
+        // the source writes to its own duplicate, the target keeps its tiles
+        index.remove("A", cache.get(127, 127));
+        assertEquals(14, index.sharedTiles(target, "A"));
+        assertTrue(positionsOf(target, "A").contains(cache.get(127, 127)));
+
+        // copying back overwrites the target in place
+        target.copyInto(index);
+        assertEquals(16, index.sharedTiles(target, "A"));
+        assertEquals(positionsOf(target, "A"), positionsOf(index, "A"));
+    }
+
+    /**
+     * Test the positions of a state by type across copies and on a grid too
+     * large to be stored densely.
+     */
+    @Test
+    void testStateByType() {
+        final StateImpl state = new StateImpl(1_000_000, 1_000_000, StateImpl.Storage.HASH);
+        final TreeAgentFactory factory = new TreeAgentFactory();
+        state.addAgent(new PosImpl(5, 7), factory.createAgent());
+        state.addAgent(new PosImpl(999_999, 999_999), factory.createAgent());
+        final String type = state.getAgentTypes().iterator().next();
+        final State copy = state.copy();
+        copy.moveAgent(new PosImpl(5, 7), new PosImpl(500_000, 3));
+        assertEquals(Set.of(new PosImpl(5, 7), new PosImpl(999_999, 999_999)),
+                positionsOf(state.getAgentsByType(type)));
+        assertEquals(Set.of(new PosImpl(500_000, 3), new PosImpl(999_999, 999_999)),
+                positionsOf(copy.getAgentsByType(type)));
+        copy.removeAgent(new PosImpl(500_000, 3), copy.getAgentAt(new PosImpl(500_000, 3)).get());
+        copy.removeAgent(new PosImpl(999_999, 999_999), copy.getAgentAt(new PosImpl(999_999, 999_999)).get());
+        assertTrue(copy.getAgentTypes().isEmpty());
+        assertEquals(2, state.countByType(type));
+    }
+}
@@ -156,7 +156,7 @@ public class GuiDinamicWriterImpl implements GuiDinamicWriter {
         items.forEach((pos, agent) -> {
             final Label txt = new Label(agent);
             setElementStyle(txt, txtSize);
-            grid.add(txt, pos.getX(), pos.getY());
+            grid.add(txt, pos.x(), pos.y());
         });
         grid.setGridLinesVisible(true);
         container.getChildren().add(grid);